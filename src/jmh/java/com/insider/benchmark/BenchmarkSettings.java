@@ -0,0 +1,20 @@
+package com.insider.benchmark;
+
+/**
+ * JVM arguments shared by the benchmark forks.
+ */
+public class BenchmarkSettings {
+    /**
+     * Logs warnings only, and to the console instead of {@code test-execution.log}.
+     */
+    public static final String QUIET_LOGGING = "-Dlogback.configurationFile=logback-benchmark.xml";
+
+    /**
+     * Keeps artifacts written by benchmarks out of {@code test-output}.
+     */
+    public static final String ARTIFACTS_DIR = "-Dartifacts.dir=target/jmh-artifacts";
+
+    private BenchmarkSettings() {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,137 @@
+package com.insider.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.insider.exceptions.TestFrameworkException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH result file with the committed baseline and prints the change of every benchmark.
+ * A benchmark counts as slower or faster only if its score moved by more than the tolerance and
+ * the error intervals of the two scores do not overlap, so that noise is not reported.
+ * <p>
+ * {@code JmhComparison <baseline.json> <result.json> [tolerance]}
+ */
+public class JmhComparison {
+    private static final Logger logger = LoggerFactory.getLogger(JmhComparison.class);
+
+    private JmhComparison() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * The primary score of one benchmark.
+     */
+    static class Score {
+        final String mode;
+        final double score;
+        final double error;
+        final String unit;
+
+        Score(JsonObject result) {
+            JsonObject metric = result.getAsJsonObject("primaryMetric");
+            this.mode = result.get("mode").getAsString();
+            this.score = metric.get("score").getAsDouble();
+            double scoreError = metric.get("scoreError").getAsDouble();
+            this.error = Double.isNaN(scoreError) ? 0 : scoreError;
+            this.unit = metric.get("scoreUnit").getAsString();
+        }
+
+        /**
+         * @return true if a higher score is better, as for throughput
+         */
+        boolean isHigherBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: JmhComparison <baseline.json> <result.json> [tolerance]");
+        }
+        Path baselineFile = Paths.get(args[0]);
+        Path resultFile = Paths.get(args[1]);
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.15;
+        if (!Files.exists(resultFile)) {
+            throw new TestFrameworkException("No JMH result at " + resultFile);
+        }
+        if (!Files.exists(baselineFile)) {
+            logger.info("No baseline at {}; copy {} there to record one", baselineFile, resultFile);
+            return;
+        }
+        Map<String, Score> baseline = read(baselineFile);
+        Map<String, Score> result = read(resultFile);
+
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-78s %-8s %12s %12s %8s  %s%n", "benchmark", "unit", "baseline", "current",
+            "change", "verdict"));
+        int slower = 0;
+        for (Map.Entry<String, Score> entry : result.entrySet()) {
+            Score current = entry.getValue();
+            Score previous = baseline.get(entry.getKey());
+            if (previous == null || !previous.unit.equals(current.unit)) {
+                out.append(String.format("%-78s %-8s %12s %12.3f %8s  %s%n", entry.getKey(), current.unit, "-",
+                    current.score, "-", "new"));
+                continue;
+            }
+            String verdict = verdict(previous, current, tolerance);
+            if ("SLOWER".equals(verdict)) {
+                slower++;
+            }
+            out.append(String.format("%-78s %-8s %12.3f %12.3f %+7.1f%%  %s%n", entry.getKey(), current.unit,
+                previous.score, current.score, (current.score - previous.score) / previous.score * 100, verdict));
+        }
+        logger.info("JMH results compared with {} (tolerance {}%):{}{}", baselineFile, Math.round(tolerance * 100),
+            System.lineSeparator(), out);
+        if (slower > 0) {
+            logger.warn("{} benchmark(s) slower than the baseline", slower);
+        }
+    }
+
+    static String verdict(Score baseline, Score current, double tolerance) {
+        double change = (current.score - baseline.score) / baseline.score;
+        boolean overlapping = Math.abs(current.score - baseline.score) <= baseline.error + current.error;
+        if (overlapping || Math.abs(change) <= tolerance) {
+            return "same";
+        }
+        boolean better = current.isHigherBetter() ? change > 0 : change < 0;
+        return better ? "faster" : "SLOWER";
+    }
+
+    /**
+     * @return the scores by benchmark name, parameters and thread count
+     */
+    static Map<String, Score> read(Path file) throws IOException {
+        JsonArray results;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            results = JsonParser.parseReader(reader).getAsJsonArray();
+        }
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonElement element : results) {
+            JsonObject result = element.getAsJsonObject();
+            String name = result.get("benchmark").getAsString().replace("com.insider.", "");
+            Map<String, String> params = new TreeMap<>();
+            if (result.has("params")) {
+                result.getAsJsonObject("params").entrySet()
+                    .forEach(param -> params.put(param.getKey(), param.getValue().getAsString()));
+            }
+            String key = name + (params.isEmpty() ? "" : params.toString())
+                + (result.get("threads").getAsInt() > 1 ? " x" + result.get("threads").getAsInt() : "");
+            scores.put(key, new Score(result));
+        }
+        return scores;
+    }
+}
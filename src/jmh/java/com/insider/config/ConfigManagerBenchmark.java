@@ -0,0 +1,48 @@
+package com.insider.config;
+
+import com.insider.benchmark.BenchmarkSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of {@link ConfigManager}, which run on every wait and page action.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkSettings.QUIET_LOGGING)
+public class ConfigManagerBenchmark {
+
+    @Benchmark
+    public String getProperty() {
+        return ConfigManager.getProperty("browser");
+    }
+
+    @Benchmark
+    public String getMissingPropertyWithDefault() {
+        return ConfigManager.getProperty("benchmark.missing", "default");
+    }
+
+    @Benchmark
+    public int getIntProperty() {
+        return ConfigManager.getIntProperty("network.max.entries", 0);
+    }
+
+    @Benchmark
+    public boolean getBooleanProperty() {
+        return ConfigManager.getBooleanProperty("screenshot.on.failure", false);
+    }
+
+    @Benchmark
+    public int getDefaultTimeout() {
+        return ConfigManager.getDefaultTimeout();
+    }
+}
@@ -0,0 +1,60 @@
+package com.insider.data;
+
+import com.insider.benchmark.BenchmarkSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test data access of {@link TestDataManager} and the per-row work of the data providers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkSettings.QUIET_LOGGING)
+public class TestDataBenchmark {
+    private final Map<String, String> record = Map.of(
+        "location", "London, UK", "department", "Engineering", "tags", "regression;emea");
+
+    @Benchmark
+    public List<String> getTestLocations() {
+        return TestDataManager.getTestLocations();
+    }
+
+    @Benchmark
+    public List<String> getTestDepartments() {
+        return TestDataManager.getTestDepartments();
+    }
+
+    @Benchmark
+    public String getProperty() {
+        return TestDataManager.getExpectedDepartment();
+    }
+
+    @Benchmark
+    public TestData buildDefaultTestData() {
+        return TestDataBuilder.defaultTestData();
+    }
+
+    @Benchmark
+    public TestData buildFromRecord() {
+        return TestDataBuilder.fromRecord(record);
+    }
+
+    @Benchmark
+    public List<String> parseCsvLine() {
+        return CsvTestDataSource.parseLine("\"London, UK\",Engineering,lever.co,regression;emea");
+    }
+}
@@ -0,0 +1,123 @@
+package com.insider.evidence;
+
+import com.insider.artifacts.ArtifactStore;
+import com.insider.benchmark.BenchmarkSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of a failure screenshot by {@link ScreenshotEncoder} in each configured format, and
+ * storing it in the {@link ArtifactStore}. The screenshot is a generated 1366x768 page with text,
+ * blocks and a photo-like area, close in size to a real capture of the careers page. Writes use
+ * single-shot batches, so that a measurement writes a bounded number of files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkSettings.QUIET_LOGGING, BenchmarkSettings.ARTIFACTS_DIR})
+public class ScreenshotBenchmark {
+    private byte[] screenshot;
+    private String storedHash;
+    private long fork;
+    private long writes;
+
+    @Setup
+    public void createScreenshot() throws IOException {
+        BufferedImage image = new BufferedImage(1366, 768, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        Random random = new Random(42);
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 1366, 768);
+        graphics.setColor(new Color(30, 40, 90));
+        graphics.fillRect(0, 0, 1366, 80);
+        graphics.setPaint(new GradientPaint(0, 120, new Color(240, 120, 60), 600, 420, new Color(60, 90, 200)));
+        graphics.fillRect(40, 120, 600, 300);
+        for (int i = 0; i < 20000; i++) {
+            image.setRGB(40 + random.nextInt(600), 120 + random.nextInt(300), random.nextInt(0xFFFFFF));
+        }
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 14));
+        graphics.setColor(Color.DARK_GRAY);
+        for (int line = 0; line < 30; line++) {
+            graphics.drawString("Quality Assurance Engineer - Istanbul, Turkiye - Full-time - View Role " + line,
+                680, 140 + line * 20);
+        }
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        screenshot = out.toByteArray();
+        // New blobs must not collide with those of earlier forks and runs
+        fork = System.nanoTime();
+        storedHash = hash(0);
+        ArtifactStore.put(storedHash, "png", screenshot, "benchmark", "screenshot");
+    }
+
+    @Benchmark
+    public byte[] encodePassThrough() {
+        return ScreenshotEncoder.encode(screenshot, null);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {BenchmarkSettings.QUIET_LOGGING, BenchmarkSettings.ARTIFACTS_DIR,
+        "-Dscreenshot.max.width=800"})
+    public byte[] encodeDownscaledPng() {
+        return ScreenshotEncoder.encode(screenshot, null);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {BenchmarkSettings.QUIET_LOGGING, BenchmarkSettings.ARTIFACTS_DIR,
+        "-Dscreenshot.format=jpg"})
+    public byte[] encodeJpeg() {
+        return ScreenshotEncoder.encode(screenshot, null);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {BenchmarkSettings.QUIET_LOGGING, BenchmarkSettings.ARTIFACTS_DIR,
+        "-Dscreenshot.format=gif"})
+    public byte[] encodePalette() {
+        return ScreenshotEncoder.encode(screenshot, null);
+    }
+
+    /**
+     * A capture identical to a stored one, which only adds an index entry.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = 20)
+    @Measurement(iterations = 10, batchSize = 20)
+    public String storeDuplicate() {
+        return ArtifactStore.put(storedHash, "png", screenshot, "benchmark", "screenshot");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = 20)
+    @Measurement(iterations = 10, batchSize = 20)
+    public String storeNew() {
+        return ArtifactStore.put(hash(++writes), "png", screenshot, "benchmark", "screenshot");
+    }
+
+    private String hash(long value) {
+        return String.format("%032x%032x", fork, value);
+    }
+}
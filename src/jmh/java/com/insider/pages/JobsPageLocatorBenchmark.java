@@ -0,0 +1,73 @@
+package com.insider.pages;
+
+import com.insider.benchmark.BenchmarkSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locator and XPath construction of {@link JobsPage}, which happens on every filter action and
+ * every retry of a wait for the located element.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkSettings.QUIET_LOGGING)
+public class JobsPageLocatorBenchmark {
+    private JobsPage page;
+
+    @State(Scope.Benchmark)
+    public static class Location {
+        @Param({"Istanbul, Turkiye", "New York, USA"})
+        private String name;
+    }
+
+    @Setup
+    public void createPage() {
+        // PageFactory only creates lazy element proxies, so the driver is never called
+        WebDriver driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {WebDriver.class}, (proxy, method, args) -> {
+                throw new UnsupportedOperationException(method.getName());
+            });
+        page = new JobsPage(driver);
+    }
+
+    @Benchmark
+    public By locationDropdown() {
+        return page.locationDropdownBy();
+    }
+
+    @Benchmark
+    public By departmentDropdown() {
+        return page.departmentDropdownBy();
+    }
+
+    @Benchmark
+    public By locationOption(Location location) {
+        return page.locationOptionByText(location.name);
+    }
+
+    /**
+     * Building the locator and rendering it, as the wait and error messages do.
+     */
+    @Benchmark
+    public void locationOptionDescribed(Location location, Blackhole blackhole) {
+        blackhole.consume(page.locationOptionByText(location.name).toString());
+    }
+}
@@ -0,0 +1,90 @@
+package com.insider.reporting;
+
+import com.insider.benchmark.BenchmarkSettings;
+import com.insider.context.TestContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of {@link ReportManager#logInfo} from 1 to 16 test threads. Each thread logs into its
+ * own test context and report node, as parallel tests do. Events go to a counting sink instead of
+ * ExtentReports, whose in-memory model would grow without bound; the score is therefore the cost
+ * for the test thread plus the journal hand-off. The journal is drained after every iteration, so
+ * that a writer falling behind shows up as slower iterations rather than a growing backlog.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkSettings.QUIET_LOGGING)
+public class ReportManagerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Journal {
+        private final AtomicLong events = new AtomicLong();
+        private final ReportSink sink = event -> events.incrementAndGet();
+
+        @Setup(Level.Trial)
+        public void addSink() {
+            ReportJournal.addSink(sink);
+        }
+
+        @TearDown(Level.Iteration)
+        public void drain() {
+            ReportJournal.drain(30000);
+        }
+
+        @TearDown(Level.Trial)
+        public void removeSink() {
+            ReportJournal.removeSink(sink);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Test {
+        private TestContext context;
+
+        @Setup(Level.Trial)
+        public void open() {
+            context = TestContext.open("benchmark-" + Thread.currentThread().getName());
+            context.setReportNode(new ReportNode(context.getTestName(), null));
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void logInfo1Thread(Journal journal, Test test) {
+        ReportManager.logInfo("Step completed");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void logInfo4Threads(Journal journal, Test test) {
+        ReportManager.logInfo("Step completed");
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void logInfo16Threads(Journal journal, Test test) {
+        ReportManager.logInfo("Step completed");
+    }
+}
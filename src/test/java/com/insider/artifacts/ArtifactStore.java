@@ -0,0 +1,406 @@
+package com.insider.artifacts;
+
+import com.insider.config.ConfigManager;
+import com.insider.exceptions.TestFrameworkException;
+import com.insider.history.ResultsStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for the files produced by test runs.
+ * <p>
+ * Blobs live under {@code <artifacts.dir>/blobs/<first two hash characters>/<hash>.<ext>}, so the same
+ * content is stored once no matter how many tests or runs produce it. A tab-separated index maps each
+ * run and test to the blobs and report files it produced. Old runs are evicted by age, by keeping the
+ * last N runs and by total size; a blob is deleted once no remaining run references it.
+ * <p>
+ * Shards running in separate JVMs share the store, so the index is read and written only while
+ * holding an exclusive lock on {@code index.tsv.lock} besides the lock of this JVM.
+ */
+public class ArtifactStore {
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactStore.class);
+    private static final String INDEX_FILE = "index.tsv";
+    private static final String LOCK_FILE = INDEX_FILE + ".lock";
+    private static final String BLOB_DIR = "blobs";
+    private static final Object lock = new Object();
+
+    // Paths referenced by the current run; never evicted, even if an old run shares them
+    private static final Set<String> currentRunPaths = ConcurrentHashMap.newKeySet();
+    private static Thread evictionThread;
+
+    private ArtifactStore() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * One index line: a file produced by a test of a run.
+     */
+    static class Entry {
+        final String runId;
+        final long timestamp;
+        final String testName;
+        final String kind;
+        final String path;
+        final long size;
+
+        Entry(String runId, long timestamp, String testName, String kind, String path, long size) {
+            this.runId = runId;
+            this.timestamp = timestamp;
+            this.testName = testName;
+            this.kind = kind;
+            this.path = path;
+            this.size = size;
+        }
+
+        String toLine() {
+            return String.join("\t", runId, String.valueOf(timestamp), sanitize(testName), kind, path,
+                String.valueOf(size));
+        }
+
+        static Entry fromLine(String line) {
+            String[] fields = line.split("\t");
+            if (fields.length != 6) {
+                return null;
+            }
+            try {
+                return new Entry(fields[0], Long.parseLong(fields[1]), fields[2], fields[3], fields[4],
+                    Long.parseLong(fields[5]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return the path the blob with this content hash is stored at
+     */
+    public static String blobPath(String hash, String extension) {
+        return getRoot().resolve(BLOB_DIR).resolve(hash.substring(0, 2)).resolve(hash + "." + extension)
+            .toString().replace('\\', '/');
+    }
+
+    /**
+     * Stores the content under its hash, unless a blob with that hash already exists, and records
+     * that the given test of the current run produced it.
+     *
+     * @param hash SHA-256 of the content
+     * @param extension file extension of the blob
+     * @param content the content to store
+     * @param testName test that produced the content
+     * @param kind kind of artifact, e.g. {@code screenshot}
+     * @return the path of the blob
+     */
+    public static String put(String hash, String extension, byte[] content, String testName, String kind) {
+        String path = blobPath(hash, extension);
+        Path blob = Paths.get(path);
+        // Written outside the lock: concurrent writers of one hash write the same bytes
+        writeBlob(blob, content);
+        withIndexLock(() -> {
+            currentRunPaths.add(path);
+            // Another shard may have evicted the blob before this entry referenced it
+            writeBlob(blob, content);
+            appendEntry(new Entry(ResultsStore.RUN_ID, System.currentTimeMillis(), testName, kind, path,
+                content.length));
+            return null;
+        });
+        return path;
+    }
+
+    private static void writeBlob(Path blob, byte[] content) {
+        if (Files.exists(blob)) {
+            return;
+        }
+        try {
+            Files.createDirectories(blob.getParent());
+            // Write to a temporary file first, so that a reader never sees a partial blob
+            Path temp = Files.createTempFile(blob.getParent(), blob.getFileName().toString(), ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to store artifact " + blob, e);
+        }
+    }
+
+    /**
+     * Records a file that is stored outside the blob directory, such as the HTML report, so that it
+     * is evicted together with the run that produced it.
+     */
+    public static void record(String path, String kind) {
+        record(path, "-", kind);
+    }
+
+    /**
+     * Records that a test of the current run references an existing file.
+     */
+    public static void record(String path, String testName, String kind) {
+        withIndexLock(() -> {
+            currentRunPaths.add(path);
+            appendEntry(new Entry(ResultsStore.RUN_ID, System.currentTimeMillis(), testName, kind, path,
+                sizeOnDisk(path)));
+            return null;
+        });
+    }
+
+    public static boolean exists(String path) {
+        return Files.exists(Paths.get(path));
+    }
+
+    /**
+     * Starts eviction of old runs on a background thread, so that cleaning up never delays the tests.
+     */
+    public static synchronized void evictInBackground() {
+        if (!ConfigManager.getBooleanProperty("artifacts.eviction.enabled", true) || evictionThread != null) {
+            return;
+        }
+        evictionThread = new Thread(() -> {
+            try {
+                evict();
+            } catch (Exception e) {
+                logger.warn("Artifact eviction failed: {}", e.getMessage());
+            }
+        }, "artifact-eviction");
+        evictionThread.setDaemon(true);
+        evictionThread.setPriority(Thread.MIN_PRIORITY);
+        evictionThread.start();
+    }
+
+    /**
+     * Waits for a running background eviction to finish.
+     */
+    public static void awaitEviction(long timeoutMillis) {
+        Thread thread;
+        synchronized (ArtifactStore.class) {
+            thread = evictionThread;
+        }
+        if (thread != null) {
+            try {
+                thread.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Applies the retention policies: runs older than the maximum age go first, then runs beyond the
+     * number of runs to keep, then the oldest runs until the total size fits. The current run is
+     * never evicted.
+     *
+     * @return the number of files deleted
+     */
+    public static int evict() {
+        long maxAgeMillis = ConfigManager.getIntProperty("artifacts.retention.max.age.days", 14) * 86_400_000L;
+        int keepRuns = ConfigManager.getIntProperty("artifacts.retention.keep.runs", 20);
+        long maxBytes = ConfigManager.getIntProperty("artifacts.retention.max.size.mb", 500) * 1024L * 1024L;
+
+        List<Entry> entries = withIndexLock(ArtifactStore::readIndex);
+        // Runs ordered newest first, by the time of their first artifact
+        Map<String, List<Entry>> runs = entries.stream()
+            .collect(Collectors.groupingBy(entry -> entry.runId, LinkedHashMap::new, Collectors.toList()));
+        List<String> runOrder = runs.keySet().stream()
+            .sorted(Comparator.comparingLong((String run) -> firstTimestamp(runs.get(run))).reversed())
+            .collect(Collectors.toList());
+
+        long now = System.currentTimeMillis();
+        Set<String> evicted = new HashSet<>();
+        int kept = 0;
+        for (String run : runOrder) {
+            if (run.equals(ResultsStore.RUN_ID)) {
+                continue;
+            }
+            if (now - firstTimestamp(runs.get(run)) > maxAgeMillis || kept >= keepRuns) {
+                evicted.add(run);
+            } else {
+                kept++;
+            }
+        }
+
+        long totalBytes = totalSize(entries, evicted);
+        for (int i = runOrder.size() - 1; i >= 0 && totalBytes > maxBytes; i--) {
+            String run = runOrder.get(i);
+            if (!run.equals(ResultsStore.RUN_ID) && evicted.add(run)) {
+                totalBytes = totalSize(entries, evicted);
+            }
+        }
+        int swept = sweepUnindexed(maxAgeMillis);
+        if (evicted.isEmpty()) {
+            logger.debug("Artifact store within retention limits ({} runs, {} bytes)", runs.size(), totalBytes);
+            return swept;
+        }
+
+        int deleted = swept + withIndexLock(() -> {
+            // Re-read, as the current run and other shards may have appended entries meanwhile
+            int removed = 0;
+            List<Entry> retained = new ArrayList<>();
+            Set<String> candidates = new HashSet<>();
+            for (Entry entry : readIndex()) {
+                if (evicted.contains(entry.runId)) {
+                    candidates.add(entry.path);
+                } else {
+                    retained.add(entry);
+                }
+            }
+            Set<String> referenced = retained.stream().map(entry -> entry.path).collect(Collectors.toSet());
+            for (String path : candidates) {
+                if (!referenced.contains(path) && !currentRunPaths.contains(path) && delete(Paths.get(path))) {
+                    removed++;
+                }
+            }
+            writeIndex(retained);
+            return removed;
+        });
+        logger.info("Evicted {} runs from the artifact store, deleted {} files", evicted.size(), deleted);
+        return deleted;
+    }
+
+    /**
+     * Deletes files older than the maximum age from the directories that predate the store, such as
+     * timestamp-named reports and screenshots, unless the index still references them.
+     */
+    private static int sweepUnindexed(long maxAgeMillis) {
+        String dirs = ConfigManager.getProperty("artifacts.sweep.dirs", "test-output/reports,test-output/screenshots");
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        return withIndexLock(() -> {
+            int deleted = 0;
+            Set<String> referenced = readIndex().stream().map(entry -> entry.path).collect(Collectors.toSet());
+            for (String dir : dirs.split(",")) {
+                Path directory = Paths.get(dir.trim());
+                if (dir.trim().isEmpty() || !Files.isDirectory(directory)) {
+                    continue;
+                }
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                        String path = file.toString().replace('\\', '/');
+                        if (!referenced.contains(path) && !currentRunPaths.contains(path)
+                                && Files.getLastModifiedTime(file).toMillis() < cutoff && delete(file)) {
+                            deleted++;
+                        }
+                    }
+                } catch (IOException e) {
+                    logger.warn("Failed to sweep {}: {}", directory, e.getMessage());
+                }
+            }
+            return deleted;
+        });
+    }
+
+    public static Path getRoot() {
+        return Paths.get(ConfigManager.getProperty("artifacts.dir", "test-output/artifacts"));
+    }
+
+    private static long firstTimestamp(List<Entry> entries) {
+        return entries.stream().mapToLong(entry -> entry.timestamp).min().orElse(0);
+    }
+
+    // Size of the distinct blobs referenced by runs that are not evicted
+    private static long totalSize(List<Entry> entries, Set<String> evicted) {
+        Map<String, Long> sizes = new HashMap<>();
+        for (Entry entry : entries) {
+            if (!evicted.contains(entry.runId)) {
+                // Reports are recorded before they are written, so their size is only known on disk
+                sizes.computeIfAbsent(entry.path, path -> entry.size > 0 ? entry.size : sizeOnDisk(path));
+            }
+        }
+        return sizes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static long sizeOnDisk(String path) {
+        try {
+            return Files.size(Paths.get(path));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static boolean delete(Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete artifact {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Runs the action while holding the lock of this JVM and an exclusive lock on the lock file of
+     * the index. A JVM may hold a file lock only once, hence the lock of this JVM is taken first.
+     */
+    private static <T> T withIndexLock(Supplier<T> action) {
+        synchronized (lock) {
+            Path lockFile = getRoot().resolve(LOCK_FILE);
+            try {
+                Files.createDirectories(lockFile.getParent());
+                try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                     FileLock ignored = channel.lock()) {
+                    return action.get();
+                }
+            } catch (IOException e) {
+                throw new TestFrameworkException("Failed to lock artifact index " + lockFile, e);
+            }
+        }
+    }
+
+    private static void appendEntry(Entry entry) {
+        Path index = getRoot().resolve(INDEX_FILE);
+        try {
+            Files.createDirectories(index.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(index, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(entry.toLine());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to update artifact index: {}", e.getMessage());
+        }
+    }
+
+    private static List<Entry> readIndex() {
+        Path index = getRoot().resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return new ArrayList<>();
+        }
+        try (Stream<String> lines = Files.lines(index, StandardCharsets.UTF_8)) {
+            return lines.map(Entry::fromLine).filter(entry -> entry != null).collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to read artifact index " + index, e);
+        }
+    }
+
+    private static void writeIndex(List<Entry> entries) {
+        Path index = getRoot().resolve(INDEX_FILE);
+        try {
+            Path temp = Files.createTempFile(index.getParent(), INDEX_FILE, ".tmp");
+            Files.write(temp, entries.stream().map(Entry::toLine).collect(Collectors.toList()), StandardCharsets.UTF_8);
+            Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to rewrite artifact index " + index, e);
+        }
+    }
+
+    private static String sanitize(String value) {
+        return value == null ? "-" : value.replace('\t', ' ').replace('\n', ' ');
+    }
+}
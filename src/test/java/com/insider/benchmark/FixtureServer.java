@@ -0,0 +1,143 @@
+package com.insider.benchmark;
+
+import com.insider.config.ConfigManager;
+import com.insider.exceptions.TestFrameworkException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves a static site from the classpath on the loopback interface, so that a browser flow can be
+ * run without the network. Paths ending in {@code /} serve the directory's {@code index.html}.
+ * Every response can be delayed by {@code benchmark.fixture.latency.ms} to model a remote server;
+ * the delay is read per request, so the server can be started before the configuration is loaded.
+ */
+public class FixtureServer {
+    private static final Logger logger = LoggerFactory.getLogger(FixtureServer.class);
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+        "html", "text/html; charset=utf-8",
+        "css", "text/css; charset=utf-8",
+        "js", "application/javascript; charset=utf-8",
+        "json", "application/json; charset=utf-8",
+        "png", "image/png",
+        "svg", "image/svg+xml");
+
+    private final String root;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private FixtureServer(String root, HttpServer server, ExecutorService executor) {
+        this.root = root;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts serving the site on a free port.
+     *
+     * @param root classpath directory of the site, e.g. {@code fixtures/careers}
+     * @return the running server
+     */
+    public static FixtureServer start(String root) {
+        return start(root, 0);
+    }
+
+    /**
+     * Starts serving the site on the given port, e.g. one chosen before the configuration was read.
+     *
+     * @param root classpath directory of the site, e.g. {@code fixtures/careers}
+     * @param port port to listen on, or 0 for a free one
+     * @return the running server
+     */
+    public static FixtureServer start(String root, int port) {
+        if (FixtureServer.class.getClassLoader().getResource(root + "/index.html") == null) {
+            throw new TestFrameworkException("Fixture site not found in classpath: " + root);
+        }
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+            // A browser loads a page's resources in parallel
+            ExecutorService executor = Executors.newFixedThreadPool(4, runnable -> {
+                Thread thread = new Thread(runnable, "fixture-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+            FixtureServer fixture = new FixtureServer(root, httpServer, executor);
+            httpServer.createContext("/", fixture::serve);
+            httpServer.setExecutor(executor);
+            httpServer.start();
+            logger.info("Serving {} at {}", root, fixture.getBaseUrl());
+            return fixture;
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to start the fixture server", e);
+        }
+    }
+
+    /**
+     * @return URL of the site's root, ending in {@code /}
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/")) {
+                path += "index.html";
+            }
+            if (!"GET".equals(exchange.getRequestMethod()) || path.contains("..")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body;
+            try (InputStream input = getClass().getClassLoader().getResourceAsStream(root + path)) {
+                if (input == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                body = input.readAllBytes();
+            }
+            delay();
+            String extension = path.substring(path.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            exchange.getResponseHeaders().set("Content-Type",
+                CONTENT_TYPES.getOrDefault(extension, "application/octet-stream"));
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to serve {}: {}", exchange.getRequestURI(), e.getMessage());
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void delay() {
+        int latencyMillis = ConfigManager.getIntProperty("benchmark.fixture.latency.ms", 0);
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.insider.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.insider.config.ConfigManager;
+import com.insider.history.ResultsQueries;
+import com.insider.history.ResultsStore;
+import com.insider.listeners.BenchmarkListener;
+import com.insider.listeners.TestListener;
+import com.insider.listeners.TracingListener;
+import com.insider.tests.CareerTest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the {@link CareerTest} flow repeatedly against a local copy of the career pages, served by
+ * {@link FixtureServer}, and reports the percentiles of every phase: driver startup, each navigation,
+ * cookie handling, filtering, validation, the redirect and teardown. Since the pages do not change
+ * and come from the loopback interface, differences between runs come from the framework and the
+ * browser, which makes the benchmark suitable to prove and protect performance work on
+ * {@code DriverManager}, {@code Helper} and {@code WaitStrategy}.
+ * <p>
+ * The summary is written as JSON to {@code test-output/benchmarks/}. The run fails, with exit
+ * status 1, if an iteration fails, if a phase exceeds a {@code benchmark.threshold.<phase>.p<n>.ms}
+ * budget, or if a phase's median regressed against {@code benchmark.baseline} by more than
+ * {@code benchmark.regression.tolerance}.
+ */
+public class SuiteBenchmark {
+    // First, as the logging configuration is the first to read the configuration
+    private static final int FIXTURE_PORT = overrideConfiguration();
+    private static final Logger logger = LoggerFactory.getLogger(SuiteBenchmark.class);
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+    private static final String FIXTURE_ROOT = "fixtures/careers";
+    private static final String OUTPUT_DIR = "test-output/benchmarks/";
+    private static final Pattern THRESHOLD = Pattern.compile("benchmark\\.threshold\\.(.+)\\.p(\\d+)\\.ms");
+
+    public static final String DRIVER_STARTUP = "driver.startup";
+    public static final String TEARDOWN = "teardown";
+    public static final String TOTAL = "total";
+
+    /**
+     * Phases of the page-object steps of {@link CareerTest}. The home page is navigated to with the
+     * same step as the QA careers page, so {@code HomePage.goToPage} is told apart by occurrence.
+     */
+    private static final Map<String, String> PHASES = Map.ofEntries(
+        Map.entry("HomePage.acceptCookies", "cookies"),
+        Map.entry("HomePage.clickCompanyMenu", "navigation.careers"),
+        Map.entry("HomePage.clickCareersLink", "navigation.careers"),
+        Map.entry("CareersPage.isLocationsBlockDisplayed", "validation.careers"),
+        Map.entry("CareersPage.isTeamsBlockDisplayed", "validation.careers"),
+        Map.entry("CareersPage.isLifeAtInsiderBlockDisplayed", "validation.careers"),
+        Map.entry("CareersPage.clickSeeAllQAJobsButton", "navigation.jobs"),
+        Map.entry("JobsPage.filterByLocation", "filtering"),
+        Map.entry("JobsPage.isJobListPresent", "validation.jobs"),
+        Map.entry("JobsPage.getAllJobs", "validation.jobs"),
+        Map.entry("JobsPage.clickFirstViewRoleButton", "redirect"));
+
+    private static final List<Iteration> iterations = Collections.synchronizedList(new ArrayList<>());
+
+    private SuiteBenchmark() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Phase durations of one invocation of the flow, in milliseconds.
+     */
+    public static class Iteration {
+        private final Map<String, Long> phases = new LinkedHashMap<>();
+        private boolean passed;
+
+        public void add(String phase, long millis) {
+            phases.merge(phase, millis, Long::sum);
+        }
+
+        /**
+         * Divides the test body among the phases of its steps. A phase lasts from the start of its
+         * step until the next step starts, so that the assertions and window switches between steps
+         * count towards the step before them.
+         *
+         * @param steps the steps of the test, see {@link ResultsStore.Step}
+         * @param startMillis when the test body started
+         * @param endMillis when the test body ended
+         */
+        public void addSteps(Collection<ResultsStore.Step> steps, long startMillis, long endMillis) {
+            List<ResultsStore.Step> ordered = new ArrayList<>(steps);
+            ordered.sort(Comparator.comparingLong(ResultsStore.Step::getTimestamp));
+            long phaseStart = startMillis;
+            String phase = "other";
+            int navigations = 0;
+            for (ResultsStore.Step step : ordered) {
+                add(phase, Math.max(0, step.getTimestamp() - phaseStart));
+                if ("HomePage.goToPage".equals(step.getName())) {
+                    phase = ++navigations == 1 ? "navigation.home" : "navigation.jobs";
+                } else {
+                    phase = PHASES.getOrDefault(step.getName(), step.getName());
+                }
+                phaseStart = step.getTimestamp();
+            }
+            add(phase, Math.max(0, endMillis - phaseStart));
+        }
+
+        public void setPassed(boolean passed) {
+            this.passed = passed;
+        }
+
+        public boolean isPassed() {
+            return passed;
+        }
+
+        public Map<String, Long> getPhases() {
+            return phases;
+        }
+
+        public long getTotal() {
+            return phases.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    /**
+     * Called by {@link BenchmarkListener} when an invocation has been torn down.
+     */
+    public static void record(Iteration iteration) {
+        iterations.add(iteration);
+    }
+
+    /**
+     * @return number of invocations of each test, including the warmup
+     */
+    public static int getInvocationCount() {
+        return getWarmupIterations() + getIterations();
+    }
+
+    public static int getIterations() {
+        return Math.max(1, ConfigManager.getIntProperty("benchmark.iterations", 5));
+    }
+
+    public static int getWarmupIterations() {
+        return Math.max(0, ConfigManager.getIntProperty("benchmark.warmup.iterations", 1));
+    }
+
+    public static void main(String[] args) throws IOException {
+        FixtureServer fixture = FixtureServer.start(FIXTURE_ROOT, FIXTURE_PORT);
+        int status;
+        try {
+            status = run(fixture.getBaseUrl());
+        } finally {
+            fixture.stop();
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Points the flow at the fixture site and keeps the benchmark's runs out of the suite's results
+     * history, whose durations drive the scheduling of the suite. Page performance capture is off
+     * unless asked for, as its script runs would be measured with the phases. The properties must
+     * be set before the configuration is first read, so that they override config.properties.
+     *
+     * @return the port the fixture site is to be served on
+     */
+    private static int overrideConfiguration() {
+        // Not FixtureServer's to find, as loading it would set up its logger and read the configuration
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to find a free port for the fixture server", e);
+        }
+        String baseUrl = "http://127.0.0.1:" + port + "/";
+        System.setProperty("base.url", baseUrl);
+        System.setProperty("careers.url", baseUrl + "careers/quality-assurance/");
+        System.setProperty("history.dir", OUTPUT_DIR + "history");
+        if (System.getProperty("perf.capture.enabled") == null) {
+            System.setProperty("perf.capture.enabled", "false");
+        }
+        return port;
+    }
+
+    private static int run(String baseUrl) throws IOException {
+        logger.info("Benchmarking the career flow against {}: {} warmup and {} measured iterations",
+            baseUrl, getWarmupIterations(), getIterations());
+        XmlSuite suite = new XmlSuite();
+        suite.setName("Suite Benchmark");
+        XmlTest test = new XmlTest(suite);
+        test.setName("Career Application Flow Benchmark");
+        test.setXmlClasses(List.of(new XmlClass(CareerTest.class)));
+        TestNG testng = new TestNG();
+        testng.setXmlSuites(List.of(suite));
+        testng.setOutputDirectory(OUTPUT_DIR + "testng");
+        testng.addListener(new TestListener());
+        testng.addListener(new TracingListener());
+        testng.addListener(new BenchmarkListener());
+        testng.run();
+
+        List<Iteration> measured;
+        synchronized (iterations) {
+            measured = new ArrayList<>(iterations.subList(Math.min(getWarmupIterations(), iterations.size()),
+                iterations.size()));
+        }
+        return summarize(measured, baseUrl);
+    }
+
+    static int summarize(List<Iteration> measured, String target) throws IOException {
+        Map<String, ResultsQueries.Distribution> phases = new LinkedHashMap<>();
+        int failed = 0;
+        for (Iteration iteration : measured) {
+            if (!iteration.isPassed()) {
+                failed++;
+                continue;
+            }
+            iteration.getPhases().forEach((phase, millis) ->
+                phases.computeIfAbsent(phase, ResultsQueries.Distribution::new).add(millis));
+            phases.computeIfAbsent(TOTAL, ResultsQueries.Distribution::new).add(iteration.getTotal());
+        }
+        // Total last, after the phases in the order they ran
+        ResultsQueries.Distribution total = phases.remove(TOTAL);
+        if (total != null) {
+            phases.put(TOTAL, total);
+        }
+
+        List<String> violations = new ArrayList<>();
+        if (failed > 0) {
+            violations.add(failed + " of " + measured.size() + " iterations failed");
+        }
+        if (measured.isEmpty()) {
+            violations.add("no iterations were measured");
+        }
+        JsonArray thresholds = checkThresholds(phases, violations);
+        JsonArray regressions = checkBaseline(phases, violations);
+
+        JsonObject summary = new JsonObject();
+        summary.addProperty("runId", ResultsStore.RUN_ID);
+        summary.addProperty("target", target);
+        summary.addProperty("browser", ConfigManager.getBrowser());
+        summary.addProperty("headless", ConfigManager.isHeadless());
+        summary.addProperty("iterations", measured.size());
+        summary.addProperty("failed", failed);
+        JsonObject phasesJson = new JsonObject();
+        phases.forEach((name, distribution) -> {
+            JsonObject phase = new JsonObject();
+            phase.addProperty("count", distribution.getCount());
+            phase.addProperty("p50", distribution.getP50());
+            phase.addProperty("p90", distribution.getP90());
+            phase.addProperty("p95", distribution.getP95());
+            phase.addProperty("max", distribution.getMax());
+            phasesJson.add(name, phase);
+        });
+        summary.add("phases", phasesJson);
+        summary.add("thresholds", thresholds);
+        summary.add("regressions", regressions);
+        summary.addProperty("passed", violations.isEmpty());
+
+        Path file = Paths.get(OUTPUT_DIR, "suite-benchmark_"
+            + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".json");
+        Files.createDirectories(file.getParent());
+        Files.write(file, gson.toJson(summary).getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-24s %5s %8s %8s %8s %8s%n", "phase", "count", "p50 ms", "p90 ms", "p95 ms",
+            "max ms"));
+        phases.forEach((name, distribution) -> out.append(String.format("%-24s %5d %8d %8d %8d %8d%n", name,
+            distribution.getCount(), distribution.getP50(), distribution.getP90(), distribution.getP95(),
+            distribution.getMax())));
+        logger.info("Suite benchmark, {} iterations, written to {}:{}{}", measured.size(), file,
+            System.lineSeparator(), out);
+        if (!violations.isEmpty()) {
+            logger.error("Suite benchmark failed:{}  {}", System.lineSeparator(),
+                String.join(System.lineSeparator() + "  ", violations));
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Checks the {@code benchmark.threshold.<phase>.p<n>.ms} budgets, e.g.
+     * {@code benchmark.threshold.filtering.p95.ms=3000}.
+     */
+    private static JsonArray checkThresholds(Map<String, ResultsQueries.Distribution> phases, List<String> violations) {
+        JsonArray results = new JsonArray();
+        ConfigManager.snapshot().describe().forEach((key, value) -> {
+            Matcher matcher = THRESHOLD.matcher(key);
+            if (!matcher.matches()) {
+                return;
+            }
+            String phase = matcher.group(1);
+            int percentile = Integer.parseInt(matcher.group(2));
+            long limit = Long.parseLong(value.trim());
+            ResultsQueries.Distribution distribution = phases.get(phase);
+            if (limit <= 0 || distribution == null) {
+                return;
+            }
+            long actual = distribution.getPercentile(percentile);
+            JsonObject result = new JsonObject();
+            result.addProperty("phase", phase);
+            result.addProperty("percentile", percentile);
+            result.addProperty("limitMs", limit);
+            result.addProperty("actualMs", actual);
+            result.addProperty("passed", actual <= limit);
+            results.add(result);
+            if (actual > limit) {
+                violations.add(phase + " p" + percentile + " is " + actual + " ms, over the budget of " + limit + " ms");
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Compares the median of every phase with the baseline summary, if there is one. A phase
+     * regressed if it is slower by more than the tolerance and by more than
+     * {@code benchmark.regression.min.ms}, so that short phases do not fail on jitter.
+     */
+    private static JsonArray checkBaseline(Map<String, ResultsQueries.Distribution> phases, List<String> violations)
+            throws IOException {
+        JsonArray results = new JsonArray();
+        Path baselineFile = Paths.get(ConfigManager.getProperty("benchmark.baseline", "benchmarks/suite-baseline.json"));
+        if (!Files.exists(baselineFile)) {
+            logger.info("No suite benchmark baseline at {}; copy a summary there to record one", baselineFile);
+            return results;
+        }
+        double tolerance = ConfigManager.getDoubleProperty("benchmark.regression.tolerance", 0.25);
+        long minMillis = ConfigManager.getIntProperty("benchmark.regression.min.ms", 100);
+        JsonObject baseline;
+        try (Reader reader = Files.newBufferedReader(baselineFile, StandardCharsets.UTF_8)) {
+            baseline = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonObject("phases");
+        }
+        phases.forEach((name, distribution) -> {
+            if (!baseline.has(name)) {
+                return;
+            }
+            long previous = baseline.getAsJsonObject(name).get("p50").getAsLong();
+            long current = distribution.getP50();
+            boolean regressed = current - previous > minMillis && current > previous * (1 + tolerance);
+            JsonObject result = new JsonObject();
+            result.addProperty("phase", name);
+            result.addProperty("baselineP50", previous);
+            result.addProperty("p50", current);
+            result.addProperty("regressed", regressed);
+            results.add(result);
+            if (regressed) {
+                violations.add(name + " median is " + current + " ms, up from " + previous + " ms in the baseline");
+            }
+        });
+        return results;
+    }
+}
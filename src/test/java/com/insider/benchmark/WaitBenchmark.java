@@ -0,0 +1,388 @@
+package com.insider.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.insider.config.ConfigManager;
+import com.insider.context.TestContext;
+import com.insider.driver.DriverManager;
+import com.insider.history.ResultsQueries;
+import com.insider.history.ResultsStore;
+import com.insider.metrics.CommandMetrics;
+import com.insider.utils.Helper;
+import com.insider.utils.WaitStrategy;
+import com.insider.utils.Waits;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Measures how quickly the waits of {@link Helper} and {@link WaitStrategy} notice that their
+ * condition became true. The pages of {@code fixtures/waits}, served by {@link FixtureServer}, make
+ * an element appear, a button clickable, an animation stop or a request complete a scripted delay
+ * after loading, and record when they did. For every scenario, delay and wait backend the benchmark
+ * reports:
+ * <ul>
+ *   <li>detection latency: from the condition becoming true until the wait returned;</li>
+ *   <li>round trips: WebDriver commands sent by the wait;</li>
+ *   <li>CPU cost: CPU time used during the wait by this JVM and by the browser processes it started.</li>
+ * </ul>
+ * A backend is a polling interval of {@link Waits}, with the driver's implicit wait switched off
+ * ({@code poll-<ms>}) or left at {@code default.timeout} ({@code implicit-poll-<ms>}). The backends
+ * take turns within each iteration, so that drift of the machine affects all of them alike. The
+ * CPU time of the browser includes the page's own work, e.g. the animation, which is the same for
+ * every backend.
+ * <p>
+ * The summary is written as JSON to {@code test-output/benchmarks/}. The run fails, with exit
+ * status 1, if a wait gave up or returned before its condition was true, since its latency would
+ * then be meaningless.
+ */
+public class WaitBenchmark {
+    static {
+        // Round trips are counted by the command metrics, so they must be on. Set before the
+        // logger, as the logging configuration is the first to read the configuration
+        System.setProperty("driver.command.metrics", "true");
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitBenchmark.class);
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+    private static final String FIXTURE_ROOT = "fixtures/waits";
+    private static final String OUTPUT_DIR = "test-output/benchmarks/";
+    private static final String POLL = "poll-";
+    private static final String IMPLICIT = "implicit-";
+    private static final By TARGET = By.id("target");
+    /** The page's clock and this JVM's clock may differ by this much. */
+    private static final long CLOCK_TOLERANCE_MICROS = 2000;
+
+    /**
+     * The wait under test of every page of the fixture, given the timeout in seconds.
+     */
+    private static final Map<String, IntConsumer> SCENARIOS = Map.of(
+        "appear", timeout -> WaitStrategy.waitForElementWithRetry(TARGET, timeout),
+        "clickable", timeout -> WaitStrategy.waitForClickableWithRetry(TARGET, 1),
+        "animation", Helper::waitForPageStability,
+        "xhr", timeout -> Helper.waitForAjaxToComplete());
+
+    private WaitBenchmark() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * A way of waiting: the polling interval of {@link Waits} and whether the driver's implicit wait is on.
+     */
+    static class Backend {
+        private final String name;
+        private final Duration pollInterval;
+        private final boolean implicitWait;
+
+        private Backend(String name, Duration pollInterval, boolean implicitWait) {
+            this.name = name;
+            this.pollInterval = pollInterval;
+            this.implicitWait = implicitWait;
+        }
+
+        /**
+         * @param name e.g. {@code poll-100} or {@code implicit-poll-500}
+         * @throws IllegalArgumentException if the name is not of either form
+         */
+        static Backend parse(String name) {
+            boolean implicitWait = name.startsWith(IMPLICIT);
+            String poll = implicitWait ? name.substring(IMPLICIT.length()) : name;
+            try {
+                if (!poll.startsWith(POLL)) {
+                    throw new NumberFormatException();
+                }
+                long millis = Long.parseLong(poll.substring(POLL.length()));
+                if (millis <= 0) {
+                    throw new NumberFormatException();
+                }
+                return new Backend(name, Duration.ofMillis(millis), implicitWait);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Wait backend must be poll-<ms> or implicit-poll-<ms>: " + name);
+            }
+        }
+
+        void apply(WebDriver driver) {
+            Waits.setPollInterval(pollInterval);
+            driver.manage().timeouts().implicitlyWait(
+                implicitWait ? Duration.ofSeconds(ConfigManager.getDefaultTimeout()) : Duration.ZERO);
+        }
+
+        String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * The measurements of one scenario, delay and backend. Latencies and CPU times are kept in
+     * microseconds.
+     */
+    static class Result {
+        private final String scenario;
+        private final int delayMillis;
+        private final String backend;
+        private final ResultsQueries.Distribution latency = new ResultsQueries.Distribution("latency");
+        private final ResultsQueries.Distribution roundTrips = new ResultsQueries.Distribution("roundTrips");
+        private final ResultsQueries.Distribution clientCpu = new ResultsQueries.Distribution("clientCpu");
+        private final ResultsQueries.Distribution browserCpu = new ResultsQueries.Distribution("browserCpu");
+        private int missed;
+        private int early;
+
+        Result(String scenario, int delayMillis, String backend) {
+            this.scenario = scenario;
+            this.delayMillis = delayMillis;
+            this.backend = backend;
+        }
+
+        /**
+         * @param latencyMicros time from the condition becoming true until the wait returned
+         * @param roundTrips commands sent by the wait
+         * @param clientCpuMicros CPU time of this JVM during the wait
+         * @param browserCpuMicros CPU time of the browser processes during the wait
+         */
+        void add(long latencyMicros, long roundTrips, long clientCpuMicros, long browserCpuMicros) {
+            if (latencyMicros < -CLOCK_TOLERANCE_MICROS) {
+                early++;
+                return;
+            }
+            latency.add(Math.max(0, latencyMicros));
+            this.roundTrips.add(roundTrips);
+            clientCpu.add(clientCpuMicros);
+            browserCpu.add(browserCpuMicros);
+        }
+
+        void addMissed() {
+            missed++;
+        }
+
+        int getFailures() {
+            return missed + early;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        FixtureServer fixture = FixtureServer.start(FIXTURE_ROOT);
+        int status;
+        try (TestContext context = TestContext.open("WaitBenchmark")) {
+            DriverManager.setup();
+            try {
+                status = summarize(run(fixture.getBaseUrl()), fixture.getBaseUrl());
+            } finally {
+                DriverManager.teardown();
+            }
+        } finally {
+            fixture.stop();
+        }
+        System.exit(status);
+    }
+
+    private static List<Result> run(String baseUrl) {
+        List<Backend> backends = list("benchmark.wait.backends", "poll-500").stream()
+            .map(Backend::parse).collect(Collectors.toList());
+        List<String> scenarios = list("benchmark.wait.scenarios", String.join(",", SCENARIOS.keySet()));
+        for (String scenario : scenarios) {
+            if (!SCENARIOS.containsKey(scenario)) {
+                throw new IllegalArgumentException("Unknown wait scenario '" + scenario + "', expected one of "
+                    + SCENARIOS.keySet());
+            }
+        }
+        List<Integer> delays = list("benchmark.wait.delays", "1000").stream()
+            .map(Integer::parseInt).collect(Collectors.toList());
+        int iterations = Math.max(1, ConfigManager.getIntProperty("benchmark.wait.iterations", 10));
+        int warmup = Math.max(0, ConfigManager.getIntProperty("benchmark.wait.warmup.iterations", 2));
+        int timeout = ConfigManager.getIntProperty("benchmark.wait.timeout.seconds", 10);
+        logger.info("Benchmarking waits against {}: scenarios {}, delays {} ms, backends {}, {} iterations",
+            baseUrl, scenarios, delays, backends.stream().map(Backend::getName).collect(Collectors.toList()),
+            iterations);
+
+        WebDriver driver = DriverManager.getDriver();
+        for (String scenario : scenarios) {
+            backends.get(0).apply(driver);
+            for (int i = 0; i < warmup; i++) {
+                measure(driver, baseUrl, scenario, delays.get(0), timeout, new Result(scenario, delays.get(0), "warmup"));
+            }
+        }
+        List<Result> results = new ArrayList<>();
+        for (String scenario : scenarios) {
+            for (int delay : delays) {
+                Map<Backend, Result> byBackend = new LinkedHashMap<>();
+                backends.forEach(backend -> byBackend.put(backend, new Result(scenario, delay, backend.getName())));
+                for (int i = 0; i < iterations; i++) {
+                    for (Map.Entry<Backend, Result> entry : byBackend.entrySet()) {
+                        entry.getKey().apply(driver);
+                        measure(driver, baseUrl, scenario, delay, timeout, entry.getValue());
+                    }
+                }
+                results.addAll(byBackend.values());
+            }
+        }
+        return results;
+    }
+
+    private static void measure(WebDriver driver, String baseUrl, String scenario, int delay, int timeout,
+                                Result result) {
+        driver.get(baseUrl + scenario + ".html?delay=" + delay);
+        long commandsBefore = CommandMetrics.getRunTotal().getCount();
+        long clientCpuBefore = clientCpuNanos();
+        long browserCpuBefore = browserCpuNanos();
+        try {
+            SCENARIOS.get(scenario).accept(timeout);
+        } catch (RuntimeException e) {
+            logger.warn("{} with {} failed: {}", scenario, result.backend, e.getMessage());
+            result.addMissed();
+            return;
+        }
+        Instant returned = Instant.now();
+        long roundTrips = CommandMetrics.getRunTotal().getCount() - commandsBefore;
+        long clientCpu = clientCpuNanos() - clientCpuBefore;
+        long browserCpu = Math.max(0, browserCpuNanos() - browserCpuBefore);
+
+        Object readyAt = ((JavascriptExecutor) driver).executeScript("return window.__readyAt;");
+        if (!(readyAt instanceof Number)) {
+            // Best-effort waits return without their condition when they time out
+            logger.warn("{} with {} returned before the page was ready", scenario, result.backend);
+            result.addMissed();
+            return;
+        }
+        long readyMicros = Math.round(((Number) readyAt).doubleValue() * 1000);
+        long returnedMicros = ChronoUnit.MICROS.between(Instant.EPOCH, returned);
+        result.add(returnedMicros - readyMicros, roundTrips, clientCpu / 1000, browserCpu / 1000);
+    }
+
+    /**
+     * @return CPU time of this JVM in nanoseconds, or 0 if the platform does not report it
+     */
+    private static long clientCpuNanos() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    /**
+     * @return CPU time of the driver and browser processes started by this JVM, in nanoseconds
+     */
+    private static long browserCpuNanos() {
+        return ProcessHandle.current().descendants()
+            .map(process -> process.info().totalCpuDuration())
+            .flatMap(Optional::stream)
+            .mapToLong(Duration::toNanos)
+            .sum();
+    }
+
+    private static List<String> list(String key, String defaultValue) {
+        return Arrays.stream(ConfigManager.getProperty(key, defaultValue).split(","))
+            .map(String::trim)
+            .filter(value -> !value.isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    static int summarize(List<Result> results, String target) throws IOException {
+        JsonArray resultsJson = new JsonArray();
+        Map<String, Result> byBackend = new LinkedHashMap<>();
+        int failures = 0;
+        for (Result result : results) {
+            failures += result.getFailures();
+            JsonObject json = new JsonObject();
+            json.addProperty("scenario", result.scenario);
+            json.addProperty("delayMs", result.delayMillis);
+            json.addProperty("backend", result.backend);
+            json.addProperty("waits", result.latency.getCount());
+            json.addProperty("missed", result.missed);
+            json.addProperty("early", result.early);
+            json.add("latencyMs", describe(result.latency, 1000.0));
+            json.add("roundTrips", describe(result.roundTrips, 1));
+            json.add("clientCpuMs", describe(result.clientCpu, 1000.0));
+            json.add("browserCpuMs", describe(result.browserCpu, 1000.0));
+            resultsJson.add(json);
+
+            Result total = byBackend.computeIfAbsent(result.backend, backend -> new Result("all", 0, backend));
+            total.missed += result.missed;
+            total.early += result.early;
+            total.latency.addAll(result.latency);
+            total.roundTrips.addAll(result.roundTrips);
+            total.clientCpu.addAll(result.clientCpu);
+            total.browserCpu.addAll(result.browserCpu);
+        }
+
+        JsonObject summary = new JsonObject();
+        summary.addProperty("runId", ResultsStore.RUN_ID);
+        summary.addProperty("target", target);
+        summary.addProperty("browser", ConfigManager.getBrowser());
+        summary.addProperty("headless", ConfigManager.isHeadless());
+        summary.add("results", resultsJson);
+        summary.addProperty("passed", failures == 0);
+        Path file = Paths.get(OUTPUT_DIR, "wait-benchmark_"
+            + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".json");
+        Files.createDirectories(file.getParent());
+        Files.write(file, gson.toJson(summary).getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder out = new StringBuilder();
+        String scenario = null;
+        for (Result result : results) {
+            String group = result.scenario + ", condition true after " + result.delayMillis + " ms";
+            if (!group.equals(scenario)) {
+                scenario = group;
+                out.append(System.lineSeparator()).append(group).append(System.lineSeparator());
+                appendHeader(out);
+            }
+            appendRow(out, result);
+        }
+        out.append(System.lineSeparator()).append("all scenarios").append(System.lineSeparator());
+        appendHeader(out);
+        byBackend.values().forEach(result -> appendRow(out, result));
+        logger.info("Wait benchmark written to {}:{}", file, out);
+        if (failures > 0) {
+            logger.error("Wait benchmark failed: {} waits gave up or returned before their condition was true",
+                failures);
+            return 1;
+        }
+        return 0;
+    }
+
+    private static JsonObject describe(ResultsQueries.Distribution distribution, double scale) {
+        JsonObject json = new JsonObject();
+        json.addProperty("p50", distribution.getP50() / scale);
+        json.addProperty("p90", distribution.getP90() / scale);
+        json.addProperty("p95", distribution.getP95() / scale);
+        json.addProperty("max", distribution.getMax() / scale);
+        return json;
+    }
+
+    private static void appendHeader(StringBuilder out) {
+        out.append(String.format("  %-20s %5s %6s %9s %9s %9s %7s %7s %9s %9s%n", "backend", "waits", "missed",
+            "p50 ms", "p95 ms", "max ms", "rt p50", "rt p95", "jvm cpu", "browser"));
+    }
+
+    private static void appendRow(StringBuilder out, Result result) {
+        out.append(String.format("  %-20s %5d %6d %9.1f %9.1f %9.1f %7d %7d %9.1f %9.1f%n", result.backend,
+            result.latency.getCount(), result.getFailures(), result.latency.getP50() / 1000.0,
+            result.latency.getP95() / 1000.0, result.latency.getMax() / 1000.0, result.roundTrips.getP50(),
+            result.roundTrips.getP95(), result.clientCpu.getP50() / 1000.0, result.browserCpu.getP50() / 1000.0));
+    }
+}
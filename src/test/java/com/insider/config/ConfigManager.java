@@ -1,84 +1,91 @@
 package com.insider.config;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Properties;
-
+/**
+ * Read access to the run's configuration. All values come from a {@link ConfigSnapshot} built once
+ * when this class is loaded, which documents the order in which defaults, {@code config.properties},
+ * the environment overlay, environment variables and system properties are merged. Reads take no
+ * locks and the convenience getters return values parsed up front.
+ */
 public class ConfigManager {
-    private static Properties properties;
-    
-    static {
-        loadProperties();
-    }
+    private static final ConfigSnapshot snapshot = ConfigSnapshot.load();
     
-    private static void loadProperties() {
-        properties = new Properties();
-        try (InputStream input = ConfigManager.class.getClassLoader()
-                .getResourceAsStream("config.properties")) {
-            if (input == null) {
-                throw new RuntimeException("config.properties file not found in classpath");
-            }
-            properties.load(input);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load config.properties", e);
-        }
+    /**
+     * @return the effective configuration, e.g. to list it in the report
+     */
+    public static ConfigSnapshot snapshot() {
+        return snapshot;
     }
     
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        return snapshot.get(key);
     }
     
     public static String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        String value = snapshot.get(key);
+        return value != null ? value : defaultValue;
     }
     
     public static int getIntProperty(String key, int defaultValue) {
-        String value = properties.getProperty(key);
-        if (value == null) {
-            return defaultValue;
-        }
-        try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
+        Integer value = snapshot.getInt(key);
+        return value != null ? value : defaultValue;
+    }
+    
+    public static double getDoubleProperty(String key, double defaultValue) {
+        Double value = snapshot.getDouble(key);
+        return value != null ? value : defaultValue;
     }
     
     public static boolean getBooleanProperty(String key, boolean defaultValue) {
-        String value = properties.getProperty(key);
-        if (value == null) {
-            return defaultValue;
-        }
-        return Boolean.parseBoolean(value);
+        Boolean value = snapshot.getBoolean(key);
+        return value != null ? value : defaultValue;
     }
     
     // Convenience methods for common configurations
     public static String getBrowser() {
-        return System.getProperty("browser", getProperty("browser", "chrome"));
+        return snapshot.getBrowser();
     }
     
     public static boolean isHeadless() {
-        return Boolean.parseBoolean(System.getProperty("headless", 
-            getProperty("headless", "false")));
+        return snapshot.isHeadless();
     }
     
     public static String getBaseUrl() {
-        return getProperty("base.url");
+        return snapshot.getBaseUrl();
     }
     
     public static String getCareersUrl() {
-        return getProperty("careers.url");
+        return snapshot.getCareersUrl();
     }
     
     public static int getDefaultTimeout() {
-        return getIntProperty("default.timeout", 10);
+        return snapshot.getDefaultTimeout();
     }
     
     public static int getExtendedTimeout() {
-        return getIntProperty("extended.timeout", 30);
+        return snapshot.getExtendedTimeout();
+    }
+    
+    public static int getPageLoadTimeout() {
+        return snapshot.getPageLoadTimeout();
+    }
+    
+    public static boolean isAdaptiveParallelism() {
+        return snapshot.isAdaptiveParallelism();
+    }
+    
+    public static int getShardIndex() {
+        return snapshot.getShardIndex();
+    }
+    
+    public static int getShardTotal() {
+        return snapshot.getShardTotal();
+    }
+    
+    public static boolean isIncrementalReport() {
+        return snapshot.isIncrementalReport();
     }
     
     public static boolean isScreenshotOnFailure() {
-        return getBooleanProperty("screenshot.on.failure", true);
+        return snapshot.isScreenshotOnFailure();
     }
 }
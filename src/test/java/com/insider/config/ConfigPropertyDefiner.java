@@ -0,0 +1,37 @@
+package com.insider.config;
+
+import ch.qos.logback.core.PropertyDefinerBase;
+
+/**
+ * Makes a setting of the effective configuration available to {@code logback-test.xml}, so that
+ * system properties, {@code QA_} environment variables and the environment overlay apply to the
+ * logging settings as they do to every other:
+ * <pre>
+ * &lt;define name="log.level" class="com.insider.config.ConfigPropertyDefiner"&gt;
+ *     &lt;key&gt;log.level&lt;/key&gt;
+ *     &lt;defaultValue&gt;INFO&lt;/defaultValue&gt;
+ * &lt;/define&gt;
+ * </pre>
+ */
+public class ConfigPropertyDefiner extends PropertyDefinerBase {
+    private String key;
+    private String defaultValue;
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public void setDefaultValue(String defaultValue) {
+        this.defaultValue = defaultValue;
+    }
+
+    @Override
+    public String getPropertyValue() {
+        if (key == null) {
+            addError("No key set for " + getClass().getSimpleName());
+            return defaultValue;
+        }
+        String value = ConfigManager.getProperty(key, defaultValue);
+        return value != null ? value.trim() : null;
+    }
+}
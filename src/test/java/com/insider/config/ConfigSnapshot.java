@@ -0,0 +1,354 @@
+package com.insider.config;
+
+import com.insider.exceptions.TestFrameworkException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * The effective configuration of the run, built once when {@link ConfigManager} is loaded and never
+ * changed afterwards, so it is read without locks. Layers are merged in this order, each overriding
+ * the ones before it:
+ * <ol>
+ *   <li>built-in defaults;</li>
+ *   <li>{@code config.properties} on the classpath;</li>
+ *   <li>the overlay {@code config-<environment>.properties} on the classpath, if present, where the
+ *   environment is the {@code environment} setting of the other layers;</li>
+ *   <li>environment variables named after a known key with a {@code QA_} prefix, upper case and
+ *   underscores, e.g. {@code QA_DEFAULT_TIMEOUT} for {@code default.timeout};</li>
+ *   <li>system properties named after a known key, e.g. {@code -Dbrowser=firefox}.</li>
+ * </ol>
+ * A key is known if one of the first three layers defines it. The core settings are parsed and
+ * validated when the snapshot is built; an invalid value fails the run before any test starts.
+ */
+public final class ConfigSnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigSnapshot.class);
+    private static final String ENV_PREFIX = "QA_";
+    private static final Pattern SECRET = Pattern.compile("(?i).*(password|secret|token|credential|api\\.?key).*");
+    private static final List<String> BROWSERS = List.of("chrome", "firefox", "edge");
+
+    /**
+     * Where an effective value came from.
+     */
+    public enum Source {
+        DEFAULT, FILE, OVERLAY, ENVIRONMENT, SYSTEM
+    }
+
+    private final Map<String, String> values;
+    private final Map<String, Source> sources;
+    private final Map<String, Integer> ints = new HashMap<>();
+    private final Map<String, Double> doubles = new HashMap<>();
+    private final Map<String, Boolean> booleans = new HashMap<>();
+    private final String environment;
+    private final String browser;
+    private final boolean headless;
+    private final String baseUrl;
+    private final String careersUrl;
+    private final int defaultTimeout;
+    private final int extendedTimeout;
+    private final int pageLoadTimeout;
+    private final boolean adaptiveParallelism;
+    private final int shardIndex;
+    private final int shardTotal;
+    private final boolean incrementalReport;
+    private final boolean screenshotOnFailure;
+
+    private ConfigSnapshot(Map<String, String> values, Map<String, Source> sources) {
+        this.values = Collections.unmodifiableMap(values);
+        this.sources = Collections.unmodifiableMap(sources);
+        // Parsed once, so that the typed getters on wait paths do not parse on every call
+        values.forEach((key, value) -> {
+            booleans.put(key, Boolean.parseBoolean(value.trim()));
+            try {
+                ints.put(key, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                // Not an integer
+            }
+            try {
+                doubles.put(key, Double.parseDouble(value.trim()));
+            } catch (NumberFormatException e) {
+                // Not a number
+            }
+        });
+
+        List<String> errors = new ArrayList<>();
+        this.environment = values.get("environment");
+        this.browser = oneOf(errors, "browser", BROWSERS);
+        this.headless = bool(errors, "headless");
+        this.baseUrl = url(errors, "base.url");
+        this.careersUrl = url(errors, "careers.url");
+        this.defaultTimeout = positiveInt(errors, "default.timeout");
+        this.extendedTimeout = positiveInt(errors, "extended.timeout");
+        this.pageLoadTimeout = positiveInt(errors, "page.load.timeout");
+        this.adaptiveParallelism = bool(errors, "adaptive.parallelism");
+        this.shardTotal = positiveInt(errors, "shard.total");
+        this.shardIndex = ints.getOrDefault("shard.index", -1);
+        if (shardIndex < 0 || shardIndex >= Math.max(1, shardTotal)) {
+            errors.add("shard.index must be between 0 and shard.total - 1 but is '" + values.get("shard.index") + "'");
+        }
+        this.incrementalReport = bool(errors, "report.incremental");
+        this.screenshotOnFailure = bool(errors, "screenshot.on.failure");
+        // Conventions of the remaining keys: switches are booleans, durations are whole numbers
+        values.forEach((key, value) -> {
+            if (key.endsWith(".enabled")) {
+                bool(errors, key);
+            } else if ((key.endsWith(".ms") || key.endsWith(".seconds") || key.endsWith("timeout"))
+                    && ints.getOrDefault(key, -1) < 0) {
+                errors.add(key + " must be a whole number of at least 0 but is '" + value + "'");
+            }
+        });
+        if (!errors.isEmpty()) {
+            String message = "Invalid configuration:\n  " + String.join("\n  ", errors);
+            // Logged as well, since the error surfaces as a class initialization failure
+            logger.error(message);
+            throw new TestFrameworkException(message);
+        }
+    }
+
+    /**
+     * Builds the snapshot from all layers.
+     *
+     * @throws TestFrameworkException if {@code config.properties} is missing or a value is invalid
+     */
+    static ConfigSnapshot load() {
+        Map<String, String> values = new HashMap<>();
+        Map<String, Source> sources = new HashMap<>();
+        merge(values, sources, defaults(), Source.DEFAULT);
+
+        Properties file = readResource("config.properties");
+        if (file == null) {
+            throw new TestFrameworkException("config.properties file not found in classpath");
+        }
+        merge(values, sources, file, Source.FILE);
+
+        // The environment decides the overlay, so it is resolved from the outer layers first
+        String environment = firstNonNull(System.getProperty("environment"), System.getenv(envName("environment")),
+            values.get("environment"));
+        Properties overlay = readResource("config-" + environment + ".properties");
+        if (overlay != null) {
+            merge(values, sources, overlay, Source.OVERLAY);
+        }
+
+        for (String key : new ArrayList<>(values.keySet())) {
+            String fromEnvironment = System.getenv(envName(key));
+            if (fromEnvironment != null) {
+                values.put(key, fromEnvironment);
+                sources.put(key, Source.ENVIRONMENT);
+            }
+            String fromSystem = System.getProperty(key);
+            if (fromSystem != null) {
+                values.put(key, fromSystem);
+                sources.put(key, Source.SYSTEM);
+            }
+        }
+        return new ConfigSnapshot(values, sources);
+    }
+
+    private static Properties defaults() {
+        Properties defaults = new Properties();
+        defaults.setProperty("environment", "dev");
+        defaults.setProperty("browser", "chrome");
+        defaults.setProperty("headless", "false");
+        defaults.setProperty("default.timeout", "10");
+        defaults.setProperty("extended.timeout", "30");
+        defaults.setProperty("page.load.timeout", "30");
+        defaults.setProperty("adaptive.parallelism", "false");
+        defaults.setProperty("shard.index", "0");
+        defaults.setProperty("shard.total", "1");
+        defaults.setProperty("report.incremental", "false");
+        defaults.setProperty("screenshot.on.failure", "true");
+        return defaults;
+    }
+
+    private static void merge(Map<String, String> values, Map<String, Source> sources, Properties layer, Source source) {
+        for (String key : layer.stringPropertyNames()) {
+            values.put(key, layer.getProperty(key));
+            sources.put(key, source);
+        }
+    }
+
+    private static Properties readResource(String name) {
+        try (InputStream input = ConfigSnapshot.class.getClassLoader().getResourceAsStream(name)) {
+            if (input == null) {
+                return null;
+            }
+            Properties properties = new Properties();
+            properties.load(input);
+            return properties;
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to load " + name, e);
+        }
+    }
+
+    private static String envName(String key) {
+        return ENV_PREFIX + key.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "_");
+    }
+
+    private static String firstNonNull(String... candidates) {
+        for (String candidate : candidates) {
+            if (candidate != null) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private String oneOf(List<String> errors, String key, List<String> allowed) {
+        String value = values.get(key).trim().toLowerCase(Locale.ROOT);
+        if (!allowed.contains(value)) {
+            errors.add(key + " must be one of " + allowed + " but is '" + values.get(key) + "'");
+        }
+        return value;
+    }
+
+    private boolean bool(List<String> errors, String key) {
+        String value = values.get(key).trim();
+        if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+            errors.add(key + " must be true or false but is '" + value + "'");
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private int positiveInt(List<String> errors, String key) {
+        int value = ints.getOrDefault(key, 0);
+        if (value <= 0) {
+            errors.add(key + " must be a whole number above 0 but is '" + values.get(key) + "'");
+        }
+        return value;
+    }
+
+    private String url(List<String> errors, String key) {
+        String value = values.get(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            URI uri = new URI(value.trim());
+            if (uri.getHost() == null || uri.getScheme() == null || !uri.getScheme().startsWith("http")) {
+                errors.add(key + " must be an http(s) URL but is '" + value + "'");
+            }
+        } catch (URISyntaxException e) {
+            errors.add(key + " is not a valid URL: " + e.getMessage());
+        }
+        return value.trim();
+    }
+
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * @return the parsed value, or null if the key is missing or not an integer
+     */
+    public Integer getInt(String key) {
+        return ints.get(key);
+    }
+
+    /**
+     * @return the parsed value, or null if the key is missing or not a number
+     */
+    public Double getDouble(String key) {
+        return doubles.get(key);
+    }
+
+    /**
+     * @return true if the value is {@code true} ignoring case, false for any other value, or null if the key is missing
+     */
+    public Boolean getBoolean(String key) {
+        return booleans.get(key);
+    }
+
+    public Source getSource(String key) {
+        return sources.get(key);
+    }
+
+    public String getEnvironment() {
+        return environment;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getCareersUrl() {
+        return careersUrl;
+    }
+
+    public int getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public int getExtendedTimeout() {
+        return extendedTimeout;
+    }
+
+    public int getPageLoadTimeout() {
+        return pageLoadTimeout;
+    }
+
+    public boolean isAdaptiveParallelism() {
+        return adaptiveParallelism;
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public int getShardTotal() {
+        return shardTotal;
+    }
+
+    public boolean isIncrementalReport() {
+        return incrementalReport;
+    }
+
+    public boolean isScreenshotOnFailure() {
+        return screenshotOnFailure;
+    }
+
+    /**
+     * @return every effective value by key, with secrets masked
+     */
+    public Map<String, String> describe() {
+        Map<String, String> described = new LinkedHashMap<>();
+        new TreeMap<>(values).forEach((key, value) -> described.put(key, SECRET.matcher(key).matches() ? "****" : value));
+        return described;
+    }
+
+    /**
+     * @return the values that were not taken from {@code config.properties} or the defaults, as
+     * {@code key=value (source)}
+     */
+    public List<String> describeOverrides() {
+        List<String> overrides = new ArrayList<>();
+        describe().forEach((key, value) -> {
+            Source source = sources.get(key);
+            if (source != Source.DEFAULT && source != Source.FILE) {
+                overrides.add(key + "=" + value + " (" + source.name().toLowerCase(Locale.ROOT) + ")");
+            }
+        });
+        return overrides;
+    }
+}
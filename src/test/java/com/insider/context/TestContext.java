@@ -0,0 +1,366 @@
+package com.insider.context;
+
+import com.insider.data.TestData;
+import com.insider.driver.SessionGovernor;
+import com.insider.evidence.NetworkRecorder;
+import com.insider.evidence.ScreencastRecorder;
+import com.insider.exceptions.TestFrameworkException;
+import com.insider.history.ResultsStore;
+import com.insider.metrics.CommandMetrics;
+import com.insider.metrics.WaitMetrics;
+import com.insider.reporting.ReportNode;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Per-test scope owning everything a single test invocation needs: its driver, test data,
+ * report node, the artifacts it produced and the time source of its waits.
+ * <p>
+ * A context is opened for the current thread by {@link com.insider.listeners.TestListener} before the
+ * first {@code @BeforeMethod} and closed after the last {@code @AfterMethod}. Closing removes the
+ * thread-local binding, so long parallel runs do not accumulate state, and quits any driver the test
+ * forgot to tear down. Contexts still open at the end of a {@code <test>} are reported as leaks.
+ */
+public class TestContext implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TestContext.class);
+    private static final ThreadLocal<TestContext> current = new ThreadLocal<>();
+    private static final Map<Long, TestContext> openContexts = new ConcurrentHashMap<>();
+    private static final AtomicLong ids = new AtomicLong();
+
+    private final long id;
+    private final String threadName;
+    private final long openedAt;
+    private final List<String> artifacts = new CopyOnWriteArrayList<>();
+    private final List<Consumer<ReportNode>> deferredReportActions = new ArrayList<>();
+    private final CommandMetrics commandMetrics = new CommandMetrics();
+    private final WaitMetrics waitMetrics = new WaitMetrics();
+    private final List<ResultsStore.Step> steps = new CopyOnWriteArrayList<>();
+    private volatile String testName;
+    private volatile boolean closed;
+    private volatile Clock clock = Clock.systemUTC();
+    private volatile Sleeper sleeper = Sleeper.SYSTEM_SLEEPER;
+    private WebDriver driver;
+    private WebElement focusElement;
+    private ScreencastRecorder screencast;
+    private NetworkRecorder network;
+    private TestData testData;
+    private ReportNode reportNode;
+    private int pendingAfterMethods;
+    private int domSnapshots;
+
+    private TestContext(String testName) {
+        this.id = ids.incrementAndGet();
+        this.testName = testName;
+        this.threadName = Thread.currentThread().getName();
+        this.openedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Opens a new context bound to the current thread. A context left open on this thread by an
+     * earlier test is closed first and reported as a leak.
+     *
+     * @param testName name of the test the context belongs to
+     * @return the new context
+     */
+    public static TestContext open(String testName) {
+        TestContext previous = current();
+        if (previous != null) {
+            logger.warn("Test context leak: '{}' was still open on thread {} when '{}' started",
+                previous.testName, previous.threadName, testName);
+            previous.close();
+        }
+        TestContext context = new TestContext(testName);
+        current.set(context);
+        openContexts.put(context.id, context);
+        logger.debug("Opened test context #{} for '{}'", context.id, testName);
+        return context;
+    }
+
+    /**
+     * @return the context bound to the current thread, or null if there is none
+     */
+    public static TestContext current() {
+        TestContext context = current.get();
+        if (context != null && context.closed) {
+            // Closed from another thread by the leak check, drop the stale binding
+            current.remove();
+            return null;
+        }
+        return context;
+    }
+
+    /**
+     * @return the context bound to the current thread
+     * @throws TestFrameworkException if no context is open on this thread
+     */
+    public static TestContext require() {
+        TestContext context = current();
+        if (context == null) {
+            throw new TestFrameworkException("No test context is open on thread "
+                + Thread.currentThread().getName());
+        }
+        return context;
+    }
+
+    /**
+     * Closes every context that is still open and returns a description of each.
+     * Intended to run once all tests of a {@code <test>} have finished.
+     *
+     * @return descriptions of the leaked contexts, empty if there were none
+     */
+    public static List<String> closeLeakedContexts() {
+        List<String> leaks = new ArrayList<>();
+        for (TestContext context : new ArrayList<>(openContexts.values())) {
+            String description = context.describe();
+            logger.warn("Test context leak: {}", description);
+            leaks.add(description);
+            context.close();
+        }
+        return leaks;
+    }
+
+    public static int getOpenCount() {
+        return openContexts.size();
+    }
+
+    /**
+     * Releases the context: quits a driver that was not torn down, and unbinds the context
+     * from its thread. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        openContexts.remove(id);
+        if (current.get() == this) {
+            current.remove();
+        }
+
+        WebDriver leakedDriver;
+        ScreencastRecorder leakedScreencast;
+        NetworkRecorder leakedNetwork;
+        synchronized (this) {
+            leakedDriver = driver;
+            leakedScreencast = screencast;
+            leakedNetwork = network;
+            driver = null;
+            screencast = null;
+            network = null;
+            focusElement = null;
+            deferredReportActions.clear();
+        }
+        if (leakedScreencast != null) {
+            leakedScreencast.stop();
+        }
+        if (leakedNetwork != null) {
+            leakedNetwork.stop();
+        }
+        if (leakedDriver != null) {
+            logger.warn("Driver of '{}' was not torn down, quitting it", testName);
+            try {
+                leakedDriver.quit();
+            } catch (Exception e) {
+                logger.warn("Error occurred while quitting leaked driver: {}", e.getMessage());
+            } finally {
+                SessionGovernor.release();
+            }
+        }
+        logger.debug("Closed test context #{} for '{}' after {} ms", id, testName,
+            System.currentTimeMillis() - openedAt);
+    }
+
+    /**
+     * @return an id that tells this test's log lines apart from those of other tests and runs
+     */
+    public String getCorrelationId() {
+        return ResultsStore.RUN_ID.substring(0, 8) + "-" + id;
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    public void setTestName(String testName) {
+        this.testName = testName;
+    }
+
+    public synchronized WebDriver getDriver() {
+        return driver;
+    }
+
+    public synchronized void setDriver(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * @return the clock the waits of this test measure their timeouts with
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return how the waits and sleeps of this test pass time
+     */
+    public Sleeper getSleeper() {
+        return sleeper;
+    }
+
+    /**
+     * Replaces the time source of this test's waits and sleeps, e.g. with a virtual clock that
+     * advances when slept on, so that timeouts can be tested without waiting for them.
+     */
+    public void useTime(Clock clock, Sleeper sleeper) {
+        this.clock = clock;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * @return the element the test last waited for, used to crop failure screenshots
+     */
+    public synchronized WebElement getFocusElement() {
+        return focusElement;
+    }
+
+    public synchronized void setFocusElement(WebElement focusElement) {
+        this.focusElement = focusElement;
+    }
+
+    public synchronized ScreencastRecorder getScreencast() {
+        return screencast;
+    }
+
+    public synchronized void setScreencast(ScreencastRecorder screencast) {
+        this.screencast = screencast;
+    }
+
+    public synchronized NetworkRecorder getNetwork() {
+        return network;
+    }
+
+    public synchronized void setNetwork(NetworkRecorder network) {
+        this.network = network;
+    }
+
+    public synchronized TestData getTestData() {
+        return testData;
+    }
+
+    public synchronized void setTestData(TestData testData) {
+        this.testData = testData;
+    }
+
+    public synchronized ReportNode getReportNode() {
+        return reportNode;
+    }
+
+    /**
+     * Attaches the report node and replays report entries that were made before it existed,
+     * for example from a {@code @BeforeMethod}.
+     */
+    public void setReportNode(ReportNode reportNode) {
+        List<Consumer<ReportNode>> deferred;
+        synchronized (this) {
+            this.reportNode = reportNode;
+            deferred = new ArrayList<>(deferredReportActions);
+            deferredReportActions.clear();
+        }
+        deferred.forEach(action -> action.accept(reportNode));
+    }
+
+    /**
+     * Applies the action to the report node, or defers it until the node is attached.
+     */
+    public void withReportNode(Consumer<ReportNode> action) {
+        ReportNode node;
+        synchronized (this) {
+            node = reportNode;
+            if (node == null) {
+                deferredReportActions.add(action);
+                return;
+            }
+        }
+        action.accept(node);
+    }
+
+    public void addArtifact(String path) {
+        artifacts.add(path);
+    }
+
+    public List<String> getArtifacts() {
+        return Collections.unmodifiableList(artifacts);
+    }
+
+    /**
+     * @return the number of DOM snapshots taken for this test, including the one about to be taken
+     */
+    public synchronized int incrementDomSnapshots() {
+        return ++domSnapshots;
+    }
+
+    /**
+     * @return the WebDriver commands sent by this test
+     */
+    public CommandMetrics getCommandMetrics() {
+        return commandMetrics;
+    }
+
+    /**
+     * @return the explicit waits run by this test
+     */
+    public WaitMetrics getWaitMetrics() {
+        return waitMetrics;
+    }
+
+    /**
+     * Records a finished page-object step for the results history.
+     */
+    public void addStep(ResultsStore.Step step) {
+        steps.add(step);
+    }
+
+    /**
+     * @return the page-object steps of this test, in the order they finished
+     */
+    public List<ResultsStore.Step> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Used by the listener to close the context after the last {@code @AfterMethod}.
+     *
+     * @return the number of after-method invocations still expected
+     */
+    public synchronized int afterMethodFinished() {
+        return --pendingAfterMethods;
+    }
+
+    public synchronized void expectAfterMethods(int count) {
+        this.pendingAfterMethods = count;
+    }
+
+    private String describe() {
+        return "#" + id + " '" + testName + "' opened on " + threadName + " "
+            + (System.currentTimeMillis() - openedAt) + " ms ago"
+            + (getDriver() != null ? " with an open driver" : "");
+    }
+}
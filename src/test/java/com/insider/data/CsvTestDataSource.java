@@ -0,0 +1,91 @@
+package com.insider.data;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Reads records from a CSV file whose first line names the fields, e.g.
+ * {@code location,department,expectedRedirectDomain,tags}. Fields may be quoted with {@code "} to
+ * contain commas, and a quote inside a quoted field is doubled. Quoted fields cannot span lines,
+ * so that the file is read one line at a time. Blank lines and lines starting with {@code #} are
+ * skipped.
+ */
+public class CsvTestDataSource implements TestDataSource {
+    private final URL url;
+
+    public CsvTestDataSource(URL url) {
+        this.url = url;
+    }
+
+    @Override
+    public Stream<Map<String, String>> records() {
+        BufferedReader reader = TestDataSources.openReader(url);
+        List<String> header;
+        try {
+            String first = reader.readLine();
+            while (first != null && isSkipped(first)) {
+                first = reader.readLine();
+            }
+            header = first == null ? List.of() : parseLine(first);
+        } catch (IOException e) {
+            TestDataSources.closeQuietly(reader);
+            throw new UncheckedIOException("Failed to read " + url, e);
+        }
+        return reader.lines()
+            .filter(line -> !isSkipped(line))
+            .map(line -> toRecord(header, parseLine(line)))
+            .onClose(() -> TestDataSources.closeQuietly(reader));
+    }
+
+    private static boolean isSkipped(String line) {
+        return line.trim().isEmpty() || line.startsWith("#");
+    }
+
+    private static Map<String, String> toRecord(List<String> header, List<String> values) {
+        Map<String, String> record = new LinkedHashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            record.put(header.get(i).trim(), values.get(i));
+        }
+        return record;
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    @Override
+    public String describe() {
+        return "csv:" + url;
+    }
+}
@@ -0,0 +1,97 @@
+package com.insider.data;
+
+import com.insider.exceptions.TestFrameworkException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the records of all {@code .csv} and {@code .jsonl} files in a directory, file by file in
+ * name order. A file is opened only once the records of the previous one are used up, and closed
+ * then, so that only one file is open at a time. Subdirectories and other files are ignored.
+ */
+public class DirectoryTestDataSource implements TestDataSource {
+    private final Path directory;
+
+    public DirectoryTestDataSource(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Stream<Map<String, String>> records() {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                .filter(Files::isRegularFile)
+                .filter(TestDataSources::isSupportedFile)
+                .sorted()
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to list test data directory " + directory, e);
+        }
+        FileRecords records = new FileRecords(files.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED), false)
+            .onClose(records::close);
+    }
+
+    @Override
+    public String describe() {
+        return "dir:" + directory;
+    }
+
+    /**
+     * The records of the files in turn, read through the iterator of each file's stream rather than
+     * {@code flatMap}, which reads a whole file into its buffer before handing out the first record.
+     */
+    private static class FileRecords implements Iterator<Map<String, String>> {
+        private final Iterator<Path> files;
+        private Stream<Map<String, String>> current;
+        private Iterator<Map<String, String>> currentRecords;
+
+        FileRecords(Iterator<Path> files) {
+            this.files = files;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (currentRecords == null || !currentRecords.hasNext()) {
+                close();
+                if (!files.hasNext()) {
+                    return false;
+                }
+                current = TestDataSources.forFile(files.next()).records();
+                currentRecords = current.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Map<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentRecords.next();
+        }
+
+        /**
+         * Closes the file being read, if any.
+         */
+        void close() {
+            if (current != null) {
+                current.close();
+                current = null;
+                currentRecords = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.insider.data;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.insider.exceptions.TestFrameworkException;
+
+import java.io.BufferedReader;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads records from a JSON-lines file, one JSON object per line, e.g.
+ * {@code {"location": "London, UK", "department": "Engineering", "tags": ["smoke", "emea"]}}.
+ * Array values are joined with {@code ;}, nested objects are kept as JSON. Blank lines are skipped.
+ */
+public class JsonLinesTestDataSource implements TestDataSource {
+    private final URL url;
+
+    public JsonLinesTestDataSource(URL url) {
+        this.url = url;
+    }
+
+    @Override
+    public Stream<Map<String, String>> records() {
+        BufferedReader reader = TestDataSources.openReader(url);
+        return reader.lines()
+            .filter(line -> !line.trim().isEmpty())
+            .map(this::toRecord)
+            .onClose(() -> TestDataSources.closeQuietly(reader));
+    }
+
+    private Map<String, String> toRecord(String line) {
+        JsonElement element;
+        try {
+            element = JsonParser.parseString(line);
+        } catch (RuntimeException e) {
+            throw new TestFrameworkException("Invalid JSON line in " + url + ": " + line, e);
+        }
+        if (!element.isJsonObject()) {
+            throw new TestFrameworkException("Expected a JSON object per line in " + url + ": " + line);
+        }
+        Map<String, String> record = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> field : ((JsonObject) element).entrySet()) {
+            record.put(field.getKey(), text(field.getValue()));
+        }
+        return record;
+    }
+
+    private static String text(JsonElement value) {
+        if (value.isJsonNull()) {
+            return null;
+        }
+        if (value.isJsonPrimitive()) {
+            return value.getAsString();
+        }
+        if (value.isJsonArray()) {
+            return StreamSupport.stream(value.getAsJsonArray().spliterator(), false)
+                .map(JsonLinesTestDataSource::text)
+                .collect(Collectors.joining(";"));
+        }
+        return value.toString();
+    }
+
+    @Override
+    public String describe() {
+        return "jsonl:" + url;
+    }
+}
@@ -0,0 +1,33 @@
+package com.insider.data;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Test data from {@code test-data.properties}, for runs without an external data file. The default
+ * source is the single row of {@code test.location} and {@code expected.department}; the matrix
+ * combines every location of {@code test.locations} with every department of {@code test.departments}.
+ */
+public class PropertiesTestDataSource implements TestDataSource {
+    private final boolean matrix;
+
+    public PropertiesTestDataSource(boolean matrix) {
+        this.matrix = matrix;
+    }
+
+    @Override
+    public Stream<Map<String, String>> records() {
+        if (!matrix) {
+            // Every field missing, so the row keeps the defaults of test-data.properties
+            return Stream.of(Map.of());
+        }
+        return TestDataManager.getTestLocations().stream()
+            .flatMap(location -> TestDataManager.getTestDepartments().stream()
+                .map(department -> Map.of("location", location, "department", department)));
+    }
+
+    @Override
+    public String describe() {
+        return matrix ? "properties:test.locations x test.departments" : "properties:test.location";
+    }
+}
@@ -1,14 +1,24 @@
 package com.insider.data;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 public class TestData {
     private final String location;
     private final String department;
     private final String expectedRedirectDomain;
+    private final Set<String> tags;
     
-    public TestData(String location, String department, String expectedRedirectDomain) {
+    public TestData(String location, String department, String expectedRedirectDomain, Set<String> tags) {
         this.location = location;
         this.department = department;
         this.expectedRedirectDomain = expectedRedirectDomain;
+        this.tags = Collections.unmodifiableSet(new LinkedHashSet<>(tags));
+    }
+    
+    public TestData(String location, String department, String expectedRedirectDomain) {
+        this(location, department, expectedRedirectDomain, Collections.emptySet());
     }
     
     public TestData(String location, String department) {
@@ -27,6 +37,14 @@ public class TestData {
         return expectedRedirectDomain;
     }
     
+    /**
+     * @return labels of the record in its data source, used to filter rows, e.g. {@code smoke}
+     */
+    public Set<String> getTags() {
+        return tags;
+    }
+    
+    // Tags are left out, so that retagging a row keeps its results history
     @Override
     public String toString() {
         return "TestData{" +
@@ -1,9 +1,15 @@
 package com.insider.data;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 public class TestDataBuilder {
     private String location = TestDataManager.getTestLocation();
     private String department = TestDataManager.getExpectedDepartment();
     private String expectedRedirectDomain = TestDataManager.getExpectedRedirectDomain();
+    private final Set<String> tags = new LinkedHashSet<>();
     
     public TestDataBuilder withLocation(String location) {
         this.location = location;
@@ -20,8 +26,45 @@ public class TestDataBuilder {
         return this;
     }
     
+    public TestDataBuilder withTags(String... tags) {
+        this.tags.addAll(Arrays.asList(tags));
+        return this;
+    }
+    
     public TestData build() {
-        return new TestData(location, department, expectedRedirectDomain);
+        return new TestData(location, department, expectedRedirectDomain, tags);
+    }
+    
+    /**
+     * Builds test data from one record of a {@link TestDataSource}. Missing or blank fields keep the
+     * defaults from {@code test-data.properties}; {@code tags} is a list separated by {@code ;} or
+     * {@code ,}.
+     *
+     * @param fields the record's fields by name
+     * @return the test data
+     */
+    public static TestData fromRecord(Map<String, String> fields) {
+        TestDataBuilder builder = new TestDataBuilder();
+        if (isPresent(fields.get("location"))) {
+            builder.withLocation(fields.get("location").trim());
+        }
+        if (isPresent(fields.get("department"))) {
+            builder.withDepartment(fields.get("department").trim());
+        }
+        if (isPresent(fields.get("expectedRedirectDomain"))) {
+            builder.withExpectedRedirectDomain(fields.get("expectedRedirectDomain").trim());
+        }
+        if (isPresent(fields.get("tags"))) {
+            Arrays.stream(fields.get("tags").split("[;,]"))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .forEach(builder::withTags);
+        }
+        return builder.build();
+    }
+    
+    private static boolean isPresent(String value) {
+        return value != null && !value.trim().isEmpty();
     }
     
     // Convenience method for default test data
@@ -2,12 +2,14 @@ package com.insider.data;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
 public class TestDataManager {
     private static Properties properties;
+    private static List<String> testLocations;
+    private static List<String> testDepartments;
     
     static {
         loadProperties();
@@ -24,6 +26,14 @@ public class TestDataManager {
         } catch (IOException e) {
             throw new RuntimeException("Failed to load test-data.properties", e);
         }
+        // Split once, the lists are read for every data provider row
+        testLocations = splitList("test.locations");
+        testDepartments = splitList("test.departments");
+    }
+    
+    private static List<String> splitList(String key) {
+        String value = properties.getProperty(key);
+        return value == null ? Collections.emptyList() : List.of(value.split("\\|"));
     }
     
     public static String getProperty(String key) {
@@ -98,12 +108,10 @@ public class TestDataManager {
     
     // Data-driven testing support
     public static List<String> getTestLocations() {
-        String locations = getProperty("test.locations");
-        return Arrays.asList(locations.split("\\|"));
+        return testLocations;
     }
     
     public static List<String> getTestDepartments() {
-        String departments = getProperty("test.departments");
-        return Arrays.asList(departments.split("\\|"));
+        return testDepartments;
     }
 }
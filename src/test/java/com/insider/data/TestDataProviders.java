@@ -0,0 +1,75 @@
+package com.insider.data;
+
+import org.testng.annotations.DataProvider;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * TestNG data providers backed by {@link TestDataSources}. Rows are handed to TestNG one at a time
+ * as an iterator, so a source of any size is run with a bounded memory footprint. The providers are
+ * not parallel, since TestNG collects all rows of a parallel data provider before running them; the
+ * rows of a sharded run are still split across shards by {@link com.insider.sharding.Shard}.
+ * <p>
+ * {@code @Test(dataProvider = "testData", dataProviderClass = TestDataProviders.class)}
+ */
+public class TestDataProviders {
+
+    private TestDataProviders() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * @return one {@link TestData} argument per row of the configured source
+     */
+    @DataProvider(name = "testData")
+    public static Iterator<Object[]> testData() {
+        return new ClosingIterator(TestDataSources.configured());
+    }
+
+    /**
+     * Closes the stream, and with it the source file, once the last row has been read.
+     */
+    private static class ClosingIterator implements Iterator<Object[]> {
+        private final Stream<TestData> rows;
+        private final Iterator<TestData> iterator;
+        private boolean closed;
+
+        ClosingIterator(Stream<TestData> rows) {
+            this.rows = rows;
+            this.iterator = rows.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            boolean hasNext;
+            try {
+                hasNext = iterator.hasNext();
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            if (!hasNext) {
+                close();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return new Object[] {iterator.next()};
+        }
+
+        private void close() {
+            closed = true;
+            rows.close();
+        }
+    }
+}
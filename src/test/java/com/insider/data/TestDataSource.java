@@ -0,0 +1,24 @@
+package com.insider.data;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * A source of test data records, read lazily so that a source can hold more rows than fit in memory.
+ * Each record is a map of field names to values, turned into {@link TestData} by
+ * {@link TestDataBuilder#fromRecord}. See {@link TestDataSources} for the available sources.
+ */
+public interface TestDataSource {
+
+    /**
+     * Opens the source. Every call starts from the first record.
+     *
+     * @return the records in source order; must be closed to release the underlying file
+     */
+    Stream<Map<String, String>> records();
+
+    /**
+     * @return where the records come from, for logs
+     */
+    String describe();
+}
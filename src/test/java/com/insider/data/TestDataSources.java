@@ -0,0 +1,185 @@
+package com.insider.data;
+
+import com.insider.config.ConfigManager;
+import com.insider.exceptions.TestFrameworkException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Opens the test data source named by {@code test.data.source} and selects rows from it:
+ * <ul>
+ *   <li>{@code properties}: the single default row of {@code test-data.properties};</li>
+ *   <li>{@code properties:matrix}: locations times departments of {@code test-data.properties};</li>
+ *   <li>{@code classpath:<resource>} or a file path ending in {@code .csv} or {@code .jsonl};</li>
+ *   <li>{@code classpath:<directory>} or a directory path, for all such files in it.</li>
+ * </ul>
+ * Rows are filtered by {@code test.data.tags}, sampled by {@code test.data.sample.rate} and capped
+ * at {@code test.data.limit} while they are read, so only the row being run is held in memory.
+ * Sampling hashes each row with {@code test.data.sample.seed}, so the same seed selects the same
+ * rows in every run and on every shard.
+ */
+public class TestDataSources {
+    private static final Logger logger = LoggerFactory.getLogger(TestDataSources.class);
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private TestDataSources() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * @return the rows of the configured source that pass the configured tag filter, sample and limit
+     */
+    public static Stream<TestData> configured() {
+        TestDataSource source = open(ConfigManager.getProperty("test.data.source", "properties"));
+        Set<String> tags = parseTags(ConfigManager.getProperty("test.data.tags", ""));
+        double sampleRate = ConfigManager.getDoubleProperty("test.data.sample.rate", 1.0);
+        long seed = ConfigManager.getIntProperty("test.data.sample.seed", 0);
+        int limit = ConfigManager.getIntProperty("test.data.limit", 0);
+        logger.info("Reading test data from {} (tags: {}, sample rate: {}, limit: {})",
+            source.describe(), tags.isEmpty() ? "all" : tags, sampleRate, limit > 0 ? limit : "none");
+        return select(source, tags, sampleRate, seed, limit);
+    }
+
+    /**
+     * @param spec {@code properties}, {@code properties:matrix}, {@code classpath:<path>} or a file system path
+     * @return the source
+     * @throws TestFrameworkException if the file does not exist or its type is not supported
+     */
+    public static TestDataSource open(String spec) {
+        String trimmed = spec.trim();
+        if ("properties".equals(trimmed) || "properties:matrix".equals(trimmed)) {
+            return new PropertiesTestDataSource(trimmed.endsWith(":matrix"));
+        }
+        if (trimmed.startsWith(CLASSPATH_PREFIX)) {
+            String resource = trimmed.substring(CLASSPATH_PREFIX.length());
+            URL url = TestDataSources.class.getClassLoader().getResource(resource);
+            if (url == null) {
+                throw new TestFrameworkException("Test data resource not found in classpath: " + resource);
+            }
+            // Directories can be listed only when the classpath is not packaged
+            if ("file".equals(url.getProtocol())) {
+                return forPath(toPath(url));
+            }
+            return forUrl(url, resource);
+        }
+        Path path = Paths.get(trimmed);
+        if (!Files.exists(path)) {
+            throw new TestFrameworkException("Test data file not found: " + path.toAbsolutePath());
+        }
+        return forPath(path);
+    }
+
+    /**
+     * Selects rows of a source while it is read.
+     *
+     * @param source the source to read
+     * @param tags tags of which a row needs at least one, or that it must not have when prefixed
+     * with {@code !}; empty for all rows
+     * @param sampleRate share of the rows to keep, between 0 and 1
+     * @param seed varies which rows the sample keeps
+     * @param limit maximum number of rows, 0 for no limit
+     * @return the selected rows; must be closed
+     */
+    public static Stream<TestData> select(TestDataSource source, Set<String> tags, double sampleRate, long seed,
+                                          int limit) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new TestFrameworkException("test.data.sample.rate must be between 0 and 1 but is " + sampleRate);
+        }
+        Set<String> required = tags.stream().filter(tag -> !tag.startsWith("!")).collect(Collectors.toSet());
+        Set<String> excluded = tags.stream().filter(tag -> tag.startsWith("!"))
+            .map(tag -> tag.substring(1)).collect(Collectors.toSet());
+        Stream<TestData> rows = source.records()
+            .map(TestDataBuilder::fromRecord)
+            .filter(row -> required.isEmpty() || row.getTags().stream().anyMatch(required::contains))
+            .filter(row -> row.getTags().stream().noneMatch(excluded::contains));
+        if (sampleRate < 1) {
+            rows = rows.filter(row -> isSampled(row, sampleRate, seed));
+        }
+        return limit > 0 ? rows.limit(limit) : rows;
+    }
+
+    static Set<String> parseTags(String tags) {
+        return Arrays.stream(tags.split(","))
+            .map(String::trim)
+            .filter(tag -> !tag.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
+    private static boolean isSampled(TestData row, double sampleRate, long seed) {
+        CRC32 crc = new CRC32();
+        crc.update((seed + ":" + row).getBytes(StandardCharsets.UTF_8));
+        return crc.getValue() < sampleRate * (1L << 32);
+    }
+
+    private static TestDataSource forPath(Path path) {
+        if (Files.isDirectory(path)) {
+            return new DirectoryTestDataSource(path);
+        }
+        return forFile(path);
+    }
+
+    static TestDataSource forFile(Path file) {
+        try {
+            return forUrl(file.toUri().toURL(), file.getFileName().toString());
+        } catch (MalformedURLException e) {
+            throw new TestFrameworkException("Invalid test data path " + file, e);
+        }
+    }
+
+    private static TestDataSource forUrl(URL url, String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            return new CsvTestDataSource(url);
+        }
+        if (lower.endsWith(".jsonl")) {
+            return new JsonLinesTestDataSource(url);
+        }
+        throw new TestFrameworkException("Unsupported test data file, expected .csv or .jsonl: " + name);
+    }
+
+    static boolean isSupportedFile(Path file) {
+        String lower = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return lower.endsWith(".csv") || lower.endsWith(".jsonl");
+    }
+
+    private static Path toPath(URL url) {
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new TestFrameworkException("Invalid test data resource " + url, e);
+        }
+    }
+
+    static BufferedReader openReader(URL url) {
+        try {
+            return new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to open test data " + url, e);
+        }
+    }
+
+    static void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close test data reader: {}", e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package com.insider.driver;
 
 import com.insider.config.ConfigManager;
+import com.insider.context.TestContext;
+import com.insider.evidence.NetworkRecorder;
+import com.insider.evidence.ScreencastRecorder;
+import com.insider.metrics.CommandMetrics;
+import com.insider.metrics.CommandMetricsListener;
+import com.insider.tracing.DriverCommandTracer;
+import com.insider.tracing.Tracer;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
@@ -9,54 +16,89 @@ import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * Manages WebDriver instances with thread safety for parallel test execution.
+ * Manages WebDriver instances for parallel test execution. Each driver is owned by the
+ * {@link TestContext} of the test that created it.
  * Provides centralized driver lifecycle management and browser configuration.
  */
 public class DriverManager {
     private static final Logger logger = LoggerFactory.getLogger(DriverManager.class);
     
-    // Using ThreadLocal for thread safety, which is a best practice for parallel execution
-    private static final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
-
     private DriverManager() {
         // Private constructor to prevent instantiation
     }
 
     /**
-     * Gets the current WebDriver instance for the current thread.
+     * Gets the WebDriver instance owned by the current thread's test context.
      * 
-     * @return WebDriver instance for the current thread, or null if not initialized
+     * @return WebDriver instance for the current test, or null if not initialized
      */
     public static WebDriver getDriver() {
-        return driver.get();
+        TestContext context = TestContext.current();
+        return context != null ? context.getDriver() : null;
     }
 
     /**
      * Initializes and configures a new WebDriver instance based on configuration.
      * Sets up browser options, timeouts, and other driver settings.
+     * Waits for a free session slot first when adaptive parallelism is enabled.
+     * The driver is owned by the current {@link TestContext}, which must be open.
      */
     public static void setup() {
+        TestContext context = TestContext.require();
         String browser = ConfigManager.getBrowser();
         boolean headless = ConfigManager.isHeadless();
         
         logger.info("Setting up {} browser (headless: {})", browser, headless);
         
-        WebDriver webDriver = createDriver(browser, headless);
-        driver.set(webDriver);
+        SessionGovernor.acquire();
+        WebDriver webDriver;
+        try {
+            webDriver = createDriver(browser, headless);
+        } catch (RuntimeException e) {
+            SessionGovernor.release();
+            throw e;
+        }
+        // The recorders listen to CDP events of the raw driver; everything else goes through the decorator
+        context.setScreencast(ScreencastRecorder.start(webDriver));
+        context.setNetwork(NetworkRecorder.start(webDriver));
+        webDriver = decorate(webDriver);
+        context.setDriver(webDriver);
         
         // Configure timeouts
         webDriver.manage().timeouts().implicitlyWait(
             java.time.Duration.ofSeconds(ConfigManager.getDefaultTimeout()));
         webDriver.manage().timeouts().pageLoadTimeout(
-            java.time.Duration.ofSeconds(ConfigManager.getIntProperty("page.load.timeout", 30)));
+            java.time.Duration.ofSeconds(ConfigManager.getPageLoadTimeout()));
         
         logger.info("Driver setup completed successfully");
     }
     
+    /**
+     * Wraps the driver with the listeners that observe its commands, if any are enabled.
+     */
+    private static WebDriver decorate(WebDriver webDriver) {
+        List<WebDriverListener> listeners = new ArrayList<>();
+        if (Tracer.isEnabled()) {
+            listeners.add(new DriverCommandTracer());
+        }
+        if (CommandMetrics.isEnabled()) {
+            listeners.add(new CommandMetricsListener());
+        }
+        if (listeners.isEmpty()) {
+            return webDriver;
+        }
+        return new EventFiringDecorator<>(listeners.toArray(new WebDriverListener[0])).decorate(webDriver);
+    }
+
     private static WebDriver createDriver(String browser, boolean headless) {
         switch (browser.toLowerCase()) {
             case "chrome":
@@ -127,18 +169,31 @@ public class DriverManager {
 
     /**
      * Closes the current WebDriver instance and cleans up resources.
-     * Safely handles any exceptions during teardown and removes the driver from ThreadLocal.
+     * Safely handles any exceptions during teardown and detaches the driver from the test context.
      */
     public static void teardown() {
-        WebDriver currentDriver = driver.get();
+        TestContext context = TestContext.current();
+        WebDriver currentDriver = context != null ? context.getDriver() : null;
         if (currentDriver != null) {
             logger.info("Tearing down driver");
+            ScreencastRecorder screencast = context.getScreencast();
+            if (screencast != null) {
+                // The buffer is only persisted on failure, which has been handled by now
+                screencast.stop();
+                context.setScreencast(null);
+            }
+            NetworkRecorder network = context.getNetwork();
+            if (network != null) {
+                network.stop();
+                context.setNetwork(null);
+            }
             try {
                 currentDriver.quit();
             } catch (Exception e) {
                 logger.warn("Error occurred during driver teardown: {}", e.getMessage());
             } finally {
-                driver.remove();
+                context.setDriver(null);
+                SessionGovernor.release();
             }
         }
     }
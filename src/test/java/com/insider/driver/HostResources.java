@@ -0,0 +1,137 @@
+package com.insider.driver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Point-in-time measurements of host memory, CPU load and the resident memory of
+ * browser and driver processes launched by this JVM.
+ */
+public class HostResources {
+    private static final Logger logger = LoggerFactory.getLogger(HostResources.class);
+    private static final long MB = 1024L * 1024L;
+
+    private final long freeMemoryMb;
+    private final long totalMemoryMb;
+    private final double cpuLoad;
+    private final long browserRssMb;
+
+    private HostResources(long freeMemoryMb, long totalMemoryMb, double cpuLoad, long browserRssMb) {
+        this.freeMemoryMb = freeMemoryMb;
+        this.totalMemoryMb = totalMemoryMb;
+        this.cpuLoad = cpuLoad;
+        this.browserRssMb = browserRssMb;
+    }
+
+    /**
+     * Samples the current host state. Values that cannot be measured on this platform are reported as -1.
+     *
+     * @return a snapshot of host resources
+     */
+    @SuppressWarnings("deprecation") // getFreePhysicalMemorySize/getSystemCpuLoad keep Java 11 compatibility
+    public static HostResources sample() {
+        long free = -1;
+        long total = -1;
+        double cpu = -1;
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            com.sun.management.OperatingSystemMXBean sunOs = (com.sun.management.OperatingSystemMXBean) os;
+            free = sunOs.getFreePhysicalMemorySize() / MB;
+            total = sunOs.getTotalPhysicalMemorySize() / MB;
+            cpu = sunOs.getSystemCpuLoad();
+        }
+        return new HostResources(readAvailableMemoryMb(free), total, cpu, measureBrowserRssMb());
+    }
+
+    public static int availableProcessors() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    public long getFreeMemoryMb() {
+        return freeMemoryMb;
+    }
+
+    public long getTotalMemoryMb() {
+        return totalMemoryMb;
+    }
+
+    /**
+     * @return system CPU load between 0.0 and 1.0, or a negative value if unavailable
+     */
+    public double getCpuLoad() {
+        return cpuLoad;
+    }
+
+    /**
+     * @return combined resident memory of all descendant processes in MB, or -1 if unavailable
+     */
+    public long getBrowserRssMb() {
+        return browserRssMb;
+    }
+
+    /**
+     * Prefers MemAvailable from /proc/meminfo on Linux, since "free" memory excludes reclaimable page cache.
+     */
+    private static long readAvailableMemoryMb(long fallback) {
+        Path meminfo = Paths.get("/proc/meminfo");
+        if (!Files.isReadable(meminfo)) {
+            return fallback;
+        }
+        try {
+            for (String line : Files.readAllLines(meminfo)) {
+                if (line.startsWith("MemAvailable:")) {
+                    return parseKb(line) / 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.debug("Could not read /proc/meminfo: {}", e.getMessage());
+        }
+        return fallback;
+    }
+
+    private static long measureBrowserRssMb() {
+        if (!Files.isDirectory(Paths.get("/proc/self"))) {
+            return -1;
+        }
+        long totalKb = ProcessHandle.current().descendants()
+            .mapToLong(process -> readRssKb(process.pid()))
+            .filter(kb -> kb > 0)
+            .sum();
+        return totalKb / 1024;
+    }
+
+    private static long readRssKb(long pid) {
+        try {
+            List<String> lines = Files.readAllLines(Paths.get("/proc", String.valueOf(pid), "status"));
+            for (String line : lines) {
+                if (line.startsWith("VmRSS:")) {
+                    return parseKb(line);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Process exited between listing and reading, ignore it
+        }
+        return -1;
+    }
+
+    private static long parseKb(String line) {
+        return Long.parseLong(line.replaceAll("[^0-9]", ""));
+    }
+
+    @Override
+    public String toString() {
+        return "HostResources{" +
+                "freeMemoryMb=" + freeMemoryMb +
+                ", totalMemoryMb=" + totalMemoryMb +
+                ", cpuLoad=" + String.format("%.2f", cpuLoad) +
+                ", browserRssMb=" + browserRssMb +
+                '}';
+    }
+}
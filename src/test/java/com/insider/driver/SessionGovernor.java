@@ -0,0 +1,212 @@
+package com.insider.driver;
+
+import com.insider.config.ConfigManager;
+import com.insider.exceptions.TestFrameworkException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of concurrently open driver sessions.
+ * In adaptive mode a background sampler adjusts the limit between the configured bounds from
+ * host memory headroom, CPU load and the measured memory footprint of the browsers already running,
+ * and new sessions wait while memory is below the configured reserve.
+ * When adaptive mode is off the governor only counts sessions and never blocks.
+ */
+public class SessionGovernor {
+    private static final Logger logger = LoggerFactory.getLogger(SessionGovernor.class);
+    private static final Object lock = new Object();
+
+    private static int activeSessions;
+    private static int peakSessions;
+    private static int targetSessions = Integer.MAX_VALUE;
+    private static int minTarget = Integer.MAX_VALUE;
+    private static int maxTarget;
+    private static long totalWaitMillis;
+    private static HostResources lastSample;
+    private static ScheduledExecutorService sampler;
+
+    private SessionGovernor() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Computes the initial session limit from the current host state and, if adaptive mode is on,
+     * starts periodic re-evaluation.
+     *
+     * @return the initial session limit
+     */
+    public static int start() {
+        synchronized (lock) {
+            if (!ConfigManager.isAdaptiveParallelism()) {
+                return targetSessions;
+            }
+            if (sampler == null) {
+                HostResources resources = HostResources.sample();
+                targetSessions = computeTarget(resources);
+                lastSample = resources;
+                minTarget = targetSessions;
+                maxTarget = targetSessions;
+                logger.info("Adaptive parallelism started with {} sessions ({})", targetSessions, resources);
+
+                long interval = ConfigManager.getIntProperty("adaptive.sample.interval.ms", 2000);
+                sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "session-governor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                sampler.scheduleWithFixedDelay(SessionGovernor::resample, interval, interval, TimeUnit.MILLISECONDS);
+            }
+            return targetSessions;
+        }
+    }
+
+    /**
+     * Stops the background sampler and logs a summary of the run.
+     */
+    public static void stop() {
+        synchronized (lock) {
+            if (sampler != null) {
+                sampler.shutdownNow();
+                sampler = null;
+                logger.info("Adaptive parallelism stopped: {}", summary());
+            }
+        }
+    }
+
+    /**
+     * Blocks until a new driver session may be opened. Must be paired with {@link #release()}.
+     *
+     * @throws TestFrameworkException if no session slot frees up within the configured timeout
+     */
+    public static void acquire() {
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(
+            ConfigManager.getIntProperty("adaptive.acquire.timeout.seconds", 300));
+        long start = System.currentTimeMillis();
+        synchronized (lock) {
+            while (mustWait()) {
+                long remaining = timeoutMillis - (System.currentTimeMillis() - start);
+                if (remaining <= 0) {
+                    throw new TestFrameworkException("Timed out waiting for a driver session slot after "
+                        + timeoutMillis + " ms (active: " + activeSessions + ", limit: " + targetSessions + ")");
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TestFrameworkException("Interrupted while waiting for a driver session slot", e);
+                }
+            }
+            activeSessions++;
+            peakSessions = Math.max(peakSessions, activeSessions);
+            long waited = System.currentTimeMillis() - start;
+            totalWaitMillis += waited;
+            if (waited > 0) {
+                logger.info("Driver session slot acquired after {} ms (active: {}, limit: {})",
+                    waited, activeSessions, targetSessions);
+            }
+        }
+    }
+
+    /**
+     * Releases a slot obtained through {@link #acquire()} and wakes up waiting threads.
+     */
+    public static void release() {
+        synchronized (lock) {
+            if (activeSessions > 0) {
+                activeSessions--;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    public static int getActiveSessions() {
+        synchronized (lock) {
+            return activeSessions;
+        }
+    }
+
+    public static int getTargetSessions() {
+        synchronized (lock) {
+            return targetSessions;
+        }
+    }
+
+    public static String summary() {
+        synchronized (lock) {
+            return "peak sessions " + peakSessions + ", limit range " + minTarget + "-" + maxTarget
+                + ", total wait " + totalWaitMillis + " ms, last sample " + lastSample;
+        }
+    }
+
+    private static boolean mustWait() {
+        if (activeSessions == 0 || sampler == null) {
+            // Always allow one session so a starved host still makes progress
+            return false;
+        }
+        return activeSessions >= targetSessions || isMemoryTight(lastSample);
+    }
+
+    private static void resample() {
+        try {
+            HostResources resources = HostResources.sample();
+            synchronized (lock) {
+                int previous = targetSessions;
+                targetSessions = computeTarget(resources);
+                lastSample = resources;
+                minTarget = Math.min(minTarget, targetSessions);
+                maxTarget = Math.max(maxTarget, targetSessions);
+                if (previous != targetSessions) {
+                    logger.info("Session limit changed from {} to {} ({})", previous, targetSessions, resources);
+                }
+                lock.notifyAll();
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to sample host resources: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Memory-bound limit: sessions already running plus as many more as fit into the free memory above
+     * the reserve, using the measured per-browser footprint once browsers are running.
+     * CPU adjusts the limit by one step at a time around the current value to avoid oscillation.
+     */
+    private static int computeTarget(HostResources resources) {
+        int min = Math.max(1, ConfigManager.getIntProperty("adaptive.min.sessions", 1));
+        int max = Math.max(min, ConfigManager.getIntProperty("adaptive.max.sessions",
+            HostResources.availableProcessors()));
+        long reserveMb = ConfigManager.getIntProperty("adaptive.memory.reserve.mb", 1024);
+        long perSessionMb = ConfigManager.getIntProperty("adaptive.session.memory.mb", 600);
+        if (resources.getBrowserRssMb() > 0 && activeSessions > 0) {
+            perSessionMb = Math.max(perSessionMb / 2, resources.getBrowserRssMb() / activeSessions);
+        }
+
+        int memoryBound = max;
+        if (resources.getFreeMemoryMb() >= 0) {
+            long headroom = resources.getFreeMemoryMb() - reserveMb;
+            memoryBound = activeSessions + (int) Math.max(0, headroom / perSessionMb);
+        }
+
+        // The first CPU sample after JVM start is unreliable, so the initial limit is sized by cores only
+        boolean initial = targetSessions == Integer.MAX_VALUE;
+        int cpuBound = initial ? HostResources.availableProcessors() : targetSessions;
+        double cpuLoad = resources.getCpuLoad();
+        if (!initial && cpuLoad >= 0) {
+            if (cpuLoad > ConfigManager.getDoubleProperty("adaptive.cpu.high.watermark", 0.85)) {
+                cpuBound--;
+            } else if (cpuLoad < ConfigManager.getDoubleProperty("adaptive.cpu.low.watermark", 0.60)) {
+                cpuBound++;
+            }
+        }
+
+        return Math.max(min, Math.min(max, Math.min(memoryBound, cpuBound)));
+    }
+
+    private static boolean isMemoryTight(HostResources resources) {
+        return resources != null && resources.getFreeMemoryMb() >= 0
+            && resources.getFreeMemoryMb() < ConfigManager.getIntProperty("adaptive.memory.reserve.mb", 1024);
+    }
+}
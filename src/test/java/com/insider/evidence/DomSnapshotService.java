@@ -0,0 +1,134 @@
+package com.insider.evidence;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.insider.artifacts.ArtifactStore;
+import com.insider.config.ConfigManager;
+import com.insider.context.TestContext;
+import com.insider.driver.DriverManager;
+import com.insider.reporting.ReportManager;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Captures the page behind a locator miss, so that the miss can be diagnosed offline.
+ * <p>
+ * On Chromium browsers the page is serialized as MHTML through CDP {@code Page.captureSnapshot},
+ * which keeps styles and images; other browsers fall back to the page source. At the same moment
+ * the locator and its relaxed variants from {@link LocatorDiagnostics} are evaluated in the page,
+ * which shows the last step of the locator that still matched. Only the browser calls run on the
+ * test thread; storing both files happens on the evidence pool. The number of snapshots per test
+ * is capped.
+ */
+public class DomSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(DomSnapshotService.class);
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+
+    private static final String COUNT_MATCHES_SCRIPT =
+        "var variants = arguments[0], counts = [];"
+            + "for (var i = 0; i < variants.length; i++) {"
+            + "  try {"
+            + "    counts.push(variants[i][0] === 'xpath'"
+            + "      ? document.evaluate(variants[i][1], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null)"
+            + "          .snapshotLength"
+            + "      : document.querySelectorAll(variants[i][1]).length);"
+            + "  } catch (e) { counts.push(-1); }"
+            + "}"
+            + "return counts;";
+
+    private DomSnapshotService() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("dom.snapshot.on.locator.miss", true);
+    }
+
+    /**
+     * Captures a DOM snapshot and locator diagnostics for a locator that did not match. Never throws:
+     * diagnostics must not hide the original failure.
+     *
+     * @param locator the locator that did not match
+     */
+    public static void captureLocatorMiss(By locator) {
+        WebDriver driver = DriverManager.getDriver();
+        TestContext context = TestContext.current();
+        if (!isEnabled() || driver == null || context == null) {
+            return;
+        }
+        int maxPerTest = ConfigManager.getIntProperty("dom.snapshot.max.per.test", 3);
+        if (context.incrementDomSnapshots() > maxPerTest) {
+            logger.debug("DOM snapshot limit of {} reached for '{}'", maxPerTest, context.getTestName());
+            return;
+        }
+        try {
+            String extension = driver instanceof HasCdp ? "mhtml" : "html";
+            byte[] snapshot = (driver instanceof HasCdp
+                ? captureMhtml((HasCdp) driver) : driver.getPageSource()).getBytes(StandardCharsets.UTF_8);
+            byte[] diagnostics = gson.toJson(diagnose(driver, locator)).getBytes(StandardCharsets.UTF_8);
+
+            String snapshotPath = EvidenceService.store(snapshot, extension, "dom-snapshot");
+            String diagnosticsPath = EvidenceService.store(diagnostics, "json", "locator-diagnostics");
+            ReportManager.logInfo("Locator miss " + locator + ": "
+                + ReportManager.link(snapshotPath, "DOM snapshot") + ", "
+                + ReportManager.link(diagnosticsPath, "locator diagnostics"));
+        } catch (Exception e) {
+            logger.warn("Failed to capture DOM snapshot for {}: {}", locator, e.getMessage());
+        }
+    }
+
+    private static String captureMhtml(HasCdp driver) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("format", "mhtml");
+        return (String) driver.executeCdpCommand("Page.captureSnapshot", params).get("data");
+    }
+
+    private static JsonObject diagnose(WebDriver driver, By locator) {
+        JsonObject result = new JsonObject();
+        result.addProperty("locator", locator.toString());
+        result.addProperty("url", driver.getCurrentUrl());
+        result.addProperty("title", driver.getTitle());
+        result.addProperty("capturedAt", System.currentTimeMillis());
+
+        List<LocatorDiagnostics.Variant> variants = LocatorDiagnostics.relax(locator);
+        List<List<String>> arguments = new ArrayList<>();
+        for (LocatorDiagnostics.Variant variant : variants) {
+            List<String> argument = new ArrayList<>();
+            argument.add(variant.getType());
+            argument.add(variant.getExpression());
+            arguments.add(argument);
+        }
+        List<?> counts = variants.isEmpty() ? new ArrayList<>()
+            : (List<?>) ((JavascriptExecutor) driver).executeScript(COUNT_MATCHES_SCRIPT, arguments);
+
+        JsonArray steps = new JsonArray();
+        String lastMatching = null;
+        for (int i = 0; i < variants.size(); i++) {
+            long matches = ((Number) counts.get(i)).longValue();
+            JsonObject step = new JsonObject();
+            step.addProperty("type", variants.get(i).getType());
+            step.addProperty("expression", variants.get(i).getExpression());
+            // -1 marks an expression the browser could not evaluate
+            step.addProperty("matches", matches);
+            steps.add(step);
+            if (matches > 0) {
+                lastMatching = variants.get(i).getExpression();
+            }
+        }
+        result.add("variants", steps);
+        result.addProperty("lastMatchingVariant", lastMatching);
+        return result;
+    }
+}
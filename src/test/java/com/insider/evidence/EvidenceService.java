@@ -0,0 +1,351 @@
+package com.insider.evidence;
+
+import com.insider.artifacts.ArtifactStore;
+import com.insider.config.ConfigManager;
+import com.insider.context.TestContext;
+import com.insider.driver.DriverManager;
+import com.insider.exceptions.ElementNotFoundException;
+import com.insider.exceptions.TestFrameworkException;
+import com.insider.reporting.ReportEvent;
+import com.insider.reporting.ReportJournal;
+import com.insider.reporting.ReportManager;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.awt.Rectangle;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single entry point for capturing failure evidence.
+ * <p>
+ * The screenshot is fetched from the driver as bytes on the test thread, which is the only part that
+ * needs the browser. Storing it happens on a small background pool, so the test thread is released as
+ * soon as the browser has answered; this includes re-encoding by {@link ScreenshotEncoder}. Screenshots
+ * are kept in the {@link ArtifactStore} under the SHA-256 of their content: identical images are stored
+ * once, and attached to a test's report only once.
+ */
+public class EvidenceService {
+    private static final Logger logger = LoggerFactory.getLogger(EvidenceService.class);
+
+    private static final Set<String> writtenHashes = ConcurrentHashMap.newKeySet();
+    private static final Queue<Future<?>> pendingWrites = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger captures = new AtomicInteger();
+    private static final AtomicInteger duplicates = new AtomicInteger();
+    private static final AtomicLong capturedBytes = new AtomicLong();
+    private static final AtomicLong storedBytes = new AtomicLong();
+    private static ThreadPoolExecutor writer;
+    private static ExecutorService encoder;
+
+    private EvidenceService() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Captures evidence for a test failure and attaches it to the current test's report. If the
+     * failure was caused by a locator that did not match, the page is captured with a
+     * {@link DomSnapshotService DOM snapshot} as well.
+     *
+     * @param label short description of the capture, used in the log
+     * @param failure what failed the test, or null if not known
+     * @return the path of the screenshot, or null if nothing was captured
+     */
+    public static String captureFailure(String label, Throwable failure) {
+        try {
+            By missedLocator = missedLocator(failure);
+            if (missedLocator != null) {
+                DomSnapshotService.captureLocatorMiss(missedLocator);
+            }
+            captureScreencast(label);
+            captureNetwork(label + "_FAILURE");
+            return capture(label + "_FAILURE");
+        } catch (Exception e) {
+            logger.error("Failed to capture failure evidence for {}", label, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the locator of the first {@link ElementNotFoundException} in the cause chain that knows
+     * its locator, or null if there is none; page objects often wrap the exception
+     */
+    private static By missedLocator(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ElementNotFoundException && ((ElementNotFoundException) cause).getLocator() != null) {
+                return ((ElementNotFoundException) cause).getLocator();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Persists the screencast frames recorded for the current test as an animated GIF and attaches it
+     * to the report. The frames are copied on the calling thread and encoded in the background.
+     *
+     * @param label short description of the capture, used in the log
+     * @return the path of the animation, or null if the test has no recorded frames
+     */
+    public static String captureScreencast(String label) {
+        TestContext context = TestContext.current();
+        ScreencastRecorder recorder = context != null ? context.getScreencast() : null;
+        List<ScreencastRecorder.Frame> frames = recorder != null ? recorder.snapshot() : Collections.emptyList();
+        if (frames.isEmpty()) {
+            return null;
+        }
+
+        String hash;
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            for (ScreencastRecorder.Frame frame : frames) {
+                sha256.update(frame.getJpeg());
+            }
+            hash = hex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new TestFrameworkException("SHA-256 is not available", e);
+        }
+        String filePath = ArtifactStore.blobPath(hash, "gif");
+        String testName = context.getTestName();
+        context.addArtifact(filePath);
+        context.withReportNode(node -> ReportJournal.append(ReportEvent.attachment(node, filePath)));
+        pendingWrites.add(writer().submit(() -> {
+            if (!ArtifactStore.exists(filePath)) {
+                ArtifactStore.put(hash, "gif", ScreenshotEncoder.encodeAnimation(frames, encoder()), testName,
+                    "screencast");
+            } else {
+                ArtifactStore.record(filePath, testName, "screencast");
+            }
+        }));
+        long seconds = (frames.get(frames.size() - 1).getTimestamp() - frames.get(0).getTimestamp()) / 1000;
+        logger.info("Screencast captured ({}): {} frames, {} s: {}", label, frames.size(), seconds, filePath);
+        return filePath;
+    }
+
+    /**
+     * Persists the network requests recorded for the current test as a HAR file and links it from the
+     * report.
+     *
+     * @param label short description of the capture, used in the log
+     * @return the path of the HAR file, or null if the test has no recorded requests
+     */
+    public static String captureNetwork(String label) {
+        TestContext context = TestContext.current();
+        NetworkRecorder recorder = context != null ? context.getNetwork() : null;
+        List<NetworkRecorder.Entry> entries = recorder != null ? recorder.snapshot() : Collections.emptyList();
+        if (entries.isEmpty()) {
+            return null;
+        }
+        String filePath = store(HarWriter.write(entries), "har", "har");
+        ReportManager.logInfo("Network capture: " + entries.size() + " requests, "
+            + ReportManager.link(filePath, "HAR"));
+        logger.info("Network captured ({}): {} requests: {}", label, entries.size(), filePath);
+        return filePath;
+    }
+
+    /**
+     * Captures a screenshot of the current driver. The returned path is final immediately, although
+     * the file itself may still be in the process of being written; see {@link #awaitPending(long)}.
+     *
+     * @param label short description of the capture, used in the log
+     * @return the path of the screenshot, or null if screenshots are disabled or there is no driver
+     */
+    public static String capture(String label) {
+        WebDriver driver = DriverManager.getDriver();
+        if (!ConfigManager.isScreenshotOnFailure() || driver == null) {
+            return null;
+        }
+
+        byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        captures.incrementAndGet();
+        TestContext context = TestContext.current();
+        Rectangle crop = ScreenshotEncoder.isCropToElement() && context != null
+            ? elementRegion(driver, context.getFocusElement()) : null;
+        // Encoding is deterministic, so the capture plus the encoder settings identify the stored image
+        String hash = ScreenshotEncoder.isPassThrough() && crop == null
+            ? sha256(png, "") : sha256(png, ScreenshotEncoder.describeSettings() + crop);
+        String extension = ScreenshotEncoder.getFormat();
+        String filePath = ArtifactStore.blobPath(hash, extension);
+        boolean firstCapture = writtenHashes.add(hash);
+        if (!firstCapture) {
+            duplicates.incrementAndGet();
+        }
+
+        String testName = context != null ? context.getTestName() : label;
+        if (context != null) {
+            if (context.getArtifacts().contains(filePath)) {
+                logger.debug("Screenshot {} is identical to one already attached to '{}'", label, testName);
+                return filePath;
+            }
+            context.addArtifact(filePath);
+            context.withReportNode(node -> ReportJournal.append(ReportEvent.attachment(node, filePath)));
+        }
+        pendingWrites.add(writer().submit(() -> {
+            if (firstCapture && !ArtifactStore.exists(filePath)) {
+                byte[] encoded = ScreenshotEncoder.encode(png, crop);
+                capturedBytes.addAndGet(png.length);
+                storedBytes.addAndGet(encoded.length);
+                ArtifactStore.put(hash, extension, encoded, testName, "screenshot");
+            } else {
+                ArtifactStore.record(filePath, testName, "screenshot");
+            }
+        }));
+        logger.info("Screenshot captured ({}): {}", label, filePath);
+        return filePath;
+    }
+
+    /**
+     * @return the viewport region of the element in screenshot pixels, or null if it cannot be located
+     */
+    private static Rectangle elementRegion(WebDriver driver, WebElement element) {
+        if (element == null) {
+            return null;
+        }
+        try {
+            Object result = ((JavascriptExecutor) driver).executeScript(
+                "var r = arguments[0].getBoundingClientRect();"
+                    + "return [r.left, r.top, r.width, r.height, window.devicePixelRatio || 1];", element);
+            List<?> values = (List<?>) result;
+            double ratio = ((Number) values.get(4)).doubleValue();
+            return new Rectangle(
+                (int) Math.floor(((Number) values.get(0)).doubleValue() * ratio),
+                (int) Math.floor(((Number) values.get(1)).doubleValue() * ratio),
+                (int) Math.ceil(((Number) values.get(2)).doubleValue() * ratio),
+                (int) Math.ceil(((Number) values.get(3)).doubleValue() * ratio));
+        } catch (Exception e) {
+            // Typically a stale element after navigation; keep the full screenshot
+            logger.debug("Cannot crop to focus element: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores a piece of evidence for the current test in the background, e.g. a DOM snapshot.
+     *
+     * @param content the content to store
+     * @param extension file extension of the stored file
+     * @param kind kind of artifact, recorded in the artifact index
+     * @return the path the content is stored at, final immediately
+     */
+    public static String store(byte[] content, String extension, String kind) {
+        String hash = sha256(content, "");
+        String filePath = ArtifactStore.blobPath(hash, extension);
+        TestContext context = TestContext.current();
+        String testName = context != null ? context.getTestName() : kind;
+        if (context != null) {
+            context.addArtifact(filePath);
+        }
+        pendingWrites.add(writer().submit(() -> ArtifactStore.put(hash, extension, content, testName, kind)));
+        return filePath;
+    }
+
+    /**
+     * Waits for screenshots that are still being written, so that the report does not reference
+     * missing files.
+     *
+     * @param timeoutMillis maximum time to wait
+     */
+    public static void awaitPending(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        Iterator<Future<?>> iterator = pendingWrites.iterator();
+        while (iterator.hasNext()) {
+            Future<?> write = iterator.next();
+            try {
+                write.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("Timed out waiting for {} screenshot writes", pendingWrites.size());
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Failed to write screenshot", e.getCause());
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * @return a one-line summary of the captures made so far
+     */
+    public static String summary() {
+        long captured = capturedBytes.get();
+        long saved = captured - storedBytes.get();
+        return captures.get() + " screenshots captured, " + duplicates.get() + " duplicates skipped, "
+            + saved / 1024 + " KB saved by encoding"
+            + (captured > 0 ? " (" + Math.round(100.0 * saved / captured) + "%)" : "");
+    }
+
+    // Frames are decoded on a separate pool, since the writer task that encodes an animation waits for them
+    private static synchronized ExecutorService encoder() {
+        if (encoder == null) {
+            int threads = ConfigManager.getIntProperty("evidence.encoder.threads",
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+            AtomicInteger threadNumber = new AtomicInteger();
+            encoder = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "evidence-encoder-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return encoder;
+    }
+
+    private static synchronized ThreadPoolExecutor writer() {
+        if (writer == null) {
+            int threads = ConfigManager.getIntProperty("evidence.writer.threads", 2);
+            int queueSize = ConfigManager.getIntProperty("evidence.writer.queue.size", 32);
+            AtomicInteger threadNumber = new AtomicInteger();
+            // A full queue makes the capturing thread write the file itself instead of buffering without limit
+            writer = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "evidence-writer-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+            writer.allowCoreThreadTimeOut(true);
+        }
+        return writer;
+    }
+
+    private static String hex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    static String sha256(byte[] content, String salt) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(content);
+            sha256.update(salt.getBytes(StandardCharsets.UTF_8));
+            return hex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new TestFrameworkException("SHA-256 is not available", e);
+        }
+    }
+}
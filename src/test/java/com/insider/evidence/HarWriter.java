@@ -0,0 +1,182 @@
+package com.insider.evidence;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.insider.config.ConfigManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes requests recorded by {@link NetworkRecorder} in the HTTP Archive (HAR 1.2) format, which
+ * browser devtools and HAR viewers show as a request waterfall. Requests are grouped into one page
+ * per document URL. Bodies are not recorded, so content sizes are the transferred sizes.
+ * <p>
+ * HAR files are attached to reports that are shared, so the values of headers carrying session
+ * cookies or credentials are replaced by {@code [redacted]} unless
+ * {@code network.har.redact.headers=false}.
+ */
+public class HarWriter {
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+    private static final Set<String> REDACTED_HEADERS = Set.of("cookie", "set-cookie", "authorization", "proxy-authorization");
+    private static final String REDACTED = "[redacted]";
+
+    private HarWriter() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * @param entries the recorded requests, in the order they were sent
+     * @return the HAR document as UTF-8 JSON
+     */
+    public static byte[] write(List<NetworkRecorder.Entry> entries) {
+        boolean redact = ConfigManager.getBooleanProperty("network.har.redact.headers", true);
+        Map<String, String> pageIds = new LinkedHashMap<>();
+        JsonArray pages = new JsonArray();
+        JsonArray harEntries = new JsonArray();
+        for (NetworkRecorder.Entry entry : entries) {
+            String pageId = pageIds.get(entry.getDocumentUrl());
+            if (pageId == null) {
+                pageId = "page_" + (pageIds.size() + 1);
+                pageIds.put(entry.getDocumentUrl(), pageId);
+                JsonObject page = new JsonObject();
+                page.addProperty("startedDateTime", Instant.ofEpochMilli(entry.getStartedMillis()).toString());
+                page.addProperty("id", pageId);
+                page.addProperty("title", entry.getDocumentUrl());
+                JsonObject pageTimings = new JsonObject();
+                pageTimings.addProperty("onContentLoad", -1);
+                pageTimings.addProperty("onLoad", -1);
+                page.add("pageTimings", pageTimings);
+                pages.add(page);
+            }
+            harEntries.add(entry(entry, pageId, redact));
+        }
+
+        JsonObject creator = new JsonObject();
+        creator.addProperty("name", "insider-qa-test");
+        creator.addProperty("version", "1.0");
+        JsonObject log = new JsonObject();
+        log.addProperty("version", "1.2");
+        log.add("creator", creator);
+        log.add("pages", pages);
+        log.add("entries", harEntries);
+        JsonObject har = new JsonObject();
+        har.add("log", log);
+        return gson.toJson(har).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static JsonObject entry(NetworkRecorder.Entry entry, String pageId, boolean redact) {
+        JsonObject request = new JsonObject();
+        request.addProperty("method", entry.getMethod());
+        request.addProperty("url", entry.getUrl());
+        request.addProperty("httpVersion", entry.getProtocol());
+        request.add("cookies", new JsonArray());
+        request.add("headers", headers(entry.getRequestHeaders(), redact));
+        request.add("queryString", new JsonArray());
+        request.addProperty("headersSize", -1);
+        request.addProperty("bodySize", -1);
+
+        JsonObject content = new JsonObject();
+        content.addProperty("size", Math.max(0, entry.getEncodedBytes()));
+        content.addProperty("mimeType", entry.getMimeType());
+        JsonObject response = new JsonObject();
+        response.addProperty("status", entry.getStatus());
+        response.addProperty("statusText", entry.getStatusText());
+        response.addProperty("httpVersion", entry.getProtocol());
+        response.add("cookies", new JsonArray());
+        response.add("headers", headers(entry.getResponseHeaders(), redact));
+        response.add("content", content);
+        response.addProperty("redirectURL", header(entry.getResponseHeaders(), "location"));
+        response.addProperty("headersSize", -1);
+        response.addProperty("bodySize", entry.getEncodedBytes());
+        if (entry.getError() != null) {
+            response.addProperty("_error", entry.getError());
+        }
+
+        JsonObject harEntry = new JsonObject();
+        harEntry.addProperty("pageref", pageId);
+        harEntry.addProperty("startedDateTime", Instant.ofEpochMilli(entry.getStartedMillis()).toString());
+        harEntry.addProperty("time", Math.max(0, entry.getDurationMillis()));
+        harEntry.add("request", request);
+        harEntry.add("response", response);
+        harEntry.add("cache", new JsonObject());
+        harEntry.add("timings", timings(entry));
+        harEntry.addProperty("_resourceType", entry.getType());
+        harEntry.addProperty("_priority", entry.getPriority());
+        harEntry.addProperty("_fromCache", entry.isFromCache());
+        return harEntry;
+    }
+
+    /**
+     * Converts the browser's ResourceTiming, whose phases are offsets in milliseconds from
+     * {@code requestTime} in seconds, into HAR phase durations, where -1 marks a phase that did not apply.
+     */
+    private static JsonObject timings(NetworkRecorder.Entry entry) {
+        Map<String, Object> timing = entry.getTiming();
+        double total = Math.max(0, entry.getDurationMillis());
+        JsonObject timings = new JsonObject();
+        if (timing.isEmpty()) {
+            timings.addProperty("send", 0);
+            timings.addProperty("wait", total);
+            timings.addProperty("receive", 0);
+            return timings;
+        }
+        // requestTime is when the request was started, possibly after the request was queued
+        double queued = Math.max(0, (number(timing, "requestTime") - entry.getStartTimestamp()) * 1000);
+        double dnsStart = number(timing, "dnsStart");
+        double connectStart = number(timing, "connectStart");
+        double sendStart = number(timing, "sendStart");
+        double sendEnd = number(timing, "sendEnd");
+        double headersEnd = number(timing, "receiveHeadersEnd");
+        double firstPhase = dnsStart >= 0 ? dnsStart : connectStart >= 0 ? connectStart : sendStart;
+
+        timings.addProperty("blocked", queued + Math.max(0, firstPhase));
+        timings.addProperty("dns", phase(dnsStart, number(timing, "dnsEnd")));
+        timings.addProperty("connect", phase(connectStart, number(timing, "connectEnd")));
+        timings.addProperty("ssl", phase(number(timing, "sslStart"), number(timing, "sslEnd")));
+        timings.addProperty("send", Math.max(0, sendEnd - sendStart));
+        timings.addProperty("wait", Math.max(0, headersEnd - sendEnd));
+        timings.addProperty("receive", Math.max(0, total - queued - headersEnd));
+        return timings;
+    }
+
+    private static double phase(double start, double end) {
+        return start < 0 || end < 0 ? -1 : end - start;
+    }
+
+    private static JsonArray headers(Map<String, Object> headers, boolean redact) {
+        JsonArray array = new JsonArray();
+        headers.forEach((name, value) -> {
+            JsonObject header = new JsonObject();
+            header.addProperty("name", name);
+            boolean redacted = redact && REDACTED_HEADERS.contains(name.toLowerCase(Locale.ROOT));
+            header.addProperty("value", redacted ? REDACTED : String.valueOf(value));
+            array.add(header);
+        });
+        return array;
+    }
+
+    /**
+     * @return the value of the header, whose name the browser may send in any case, or an empty string
+     */
+    private static String header(Map<String, Object> headers, String name) {
+        for (Map.Entry<String, Object> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return String.valueOf(header.getValue());
+            }
+        }
+        return "";
+    }
+
+    private static double number(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : -1;
+    }
+}
@@ -0,0 +1,211 @@
+package com.insider.evidence;
+
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Breaks a locator into progressively relaxed variants, from the shortest prefix to the full
+ * expression, so that counting the matches of each variant shows which step of the locator stopped
+ * matching. XPath expressions are split at their location steps, with the last step also tried
+ * without predicates and with each condition of an {@code and} predicate on its own; CSS selectors
+ * are split at their combinators.
+ */
+public class LocatorDiagnostics {
+
+    private LocatorDiagnostics() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * A variant of the locator, in a form that can be evaluated in the page.
+     */
+    public static class Variant {
+        private final String type;
+        private final String expression;
+
+        Variant(String type, String expression) {
+            this.type = type;
+            this.expression = expression;
+        }
+
+        /**
+         * @return {@code xpath} or {@code css}
+         */
+        public String getType() {
+            return type;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+    }
+
+    /**
+     * @param locator the locator that did not match
+     * @return relaxed variants ending with the full locator, or an empty list for unknown locator types
+     */
+    public static List<Variant> relax(By locator) {
+        String description = locator.toString();
+        int separator = description.indexOf(": ");
+        if (separator < 0) {
+            return new ArrayList<>();
+        }
+        String strategy = description.substring(0, separator);
+        String value = description.substring(separator + 2);
+        switch (strategy) {
+            case "By.xpath":
+                return relaxXPath(value);
+            case "By.cssSelector":
+                return relaxCss(value);
+            case "By.id":
+                return single("css", "[id=\"" + value + "\"]");
+            case "By.name":
+                return single("css", "[name=\"" + value + "\"]");
+            case "By.className":
+                return single("css", "." + value);
+            case "By.tagName":
+                return single("css", value);
+            case "By.linkText":
+                return single("xpath", "//a[normalize-space(.)=" + xpathLiteral(value) + "]");
+            case "By.partialLinkText":
+                return single("xpath", "//a[contains(., " + xpathLiteral(value) + ")]");
+            default:
+                return new ArrayList<>();
+        }
+    }
+
+    static List<Variant> relaxXPath(String xpath) {
+        List<Variant> variants = new ArrayList<>();
+        List<Integer> stepEnds = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < xpath.length(); i++) {
+            char c = xpath.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[' || c == '(') {
+                depth++;
+            } else if (c == ']' || c == ')') {
+                depth--;
+            } else if (c == '/' && depth == 0 && i > 0 && xpath.charAt(i - 1) != '/') {
+                stepEnds.add(i);
+            }
+        }
+        for (int end : stepEnds) {
+            String prefix = xpath.substring(0, end);
+            if (!prefix.isEmpty() && !prefix.endsWith("/")) {
+                variants.add(new Variant("xpath", prefix));
+            }
+        }
+        String withoutPredicates = stripTrailingPredicates(xpath);
+        if (!withoutPredicates.equals(xpath) && !withoutPredicates.endsWith("/")) {
+            variants.add(new Variant("xpath", withoutPredicates));
+            // Try each condition of a predicate like [a and b] on its own
+            String predicate = xpath.substring(withoutPredicates.length());
+            List<String> conditions = splitConditions(predicate.substring(1, predicate.length() - 1));
+            if (predicate.indexOf('[', 1) < 0 && conditions.size() > 1) {
+                for (String condition : conditions) {
+                    variants.add(new Variant("xpath", withoutPredicates + "[" + condition + "]"));
+                }
+            }
+        }
+        variants.add(new Variant("xpath", xpath));
+        return variants;
+    }
+
+    static List<Variant> relaxCss(String css) {
+        List<Variant> variants = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < css.length(); i++) {
+            char c = css.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[' || c == '(') {
+                depth++;
+            } else if (c == ']' || c == ')') {
+                depth--;
+            } else if (depth == 0 && (c == ' ' || c == '>' || c == '+' || c == '~')) {
+                String prefix = css.substring(0, i).trim();
+                if (!prefix.isEmpty() && !prefix.endsWith(">") && !prefix.endsWith("+") && !prefix.endsWith("~")
+                        && (variants.isEmpty() || !variants.get(variants.size() - 1).getExpression().equals(prefix))) {
+                    variants.add(new Variant("css", prefix));
+                }
+            }
+        }
+        variants.add(new Variant("css", css));
+        return variants;
+    }
+
+    private static List<String> splitConditions(String predicate) {
+        List<String> conditions = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < predicate.length(); i++) {
+            char c = predicate.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[' || c == '(') {
+                depth++;
+            } else if (c == ']' || c == ')') {
+                depth--;
+            } else if (depth == 0 && predicate.startsWith(" and ", i)) {
+                conditions.add(predicate.substring(start, i).trim());
+                start = i + 5;
+            }
+        }
+        conditions.add(predicate.substring(start).trim());
+        return conditions;
+    }
+
+    // Removes the predicates of the last location step, e.g. //li[@id='x' and text()='y'] becomes //li
+    private static String stripTrailingPredicates(String xpath) {
+        String result = xpath;
+        while (result.endsWith("]")) {
+            int depth = 0;
+            int start = -1;
+            for (int i = result.length() - 1; i >= 0; i--) {
+                char c = result.charAt(i);
+                if (c == ']') {
+                    depth++;
+                } else if (c == '[' && --depth == 0) {
+                    start = i;
+                    break;
+                }
+            }
+            if (start <= 0) {
+                break;
+            }
+            result = result.substring(0, start);
+        }
+        return result;
+    }
+
+    private static List<Variant> single(String type, String expression) {
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant(type, expression));
+        return variants;
+    }
+
+    private static String xpathLiteral(String value) {
+        if (!value.contains("'")) {
+            return "'" + value + "'";
+        }
+        return "concat('" + value.replace("'", "', \"'\", '") + "')";
+    }
+}
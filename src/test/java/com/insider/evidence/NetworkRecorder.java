@@ -0,0 +1,370 @@
+package com.insider.evidence;
+
+import com.insider.config.ConfigManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Records the network requests of a browser session into a bounded in-memory buffer, using the
+ * Chrome DevTools {@code Network} domain. Like {@link ScreencastRecorder}, nothing is written while
+ * the test runs: the buffer is written as a HAR file by {@link EvidenceService#captureNetwork} for
+ * failed or slow tests, and is summarized per page for the weight budgets of
+ * {@link com.insider.performance.PagePerformance}.
+ * <p>
+ * Browsers without DevTools support are not recorded.
+ */
+public class NetworkRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(NetworkRecorder.class);
+
+    private static final Event<Map<String, Object>> REQUEST_WILL_BE_SENT = event("Network.requestWillBeSent");
+    private static final Event<Map<String, Object>> RESPONSE_RECEIVED = event("Network.responseReceived");
+    private static final Event<Map<String, Object>> LOADING_FINISHED = event("Network.loadingFinished");
+    private static final Event<Map<String, Object>> LOADING_FAILED = event("Network.loadingFailed");
+
+    private final DevTools devTools;
+    private final Map<String, Entry> entries;
+    private int redirects;
+    private volatile boolean recording;
+
+    /**
+     * One request and its response, as far as they were received.
+     */
+    public static class Entry {
+        private final String url;
+        private final String method;
+        private final String documentUrl;
+        private final String type;
+        private final String priority;
+        private final Map<String, Object> requestHeaders;
+        private final long startedMillis;
+        private final double startTimestamp;
+        private int status;
+        private String statusText = "";
+        private String protocol = "";
+        private String mimeType = "";
+        private Map<String, Object> responseHeaders = Collections.emptyMap();
+        private Map<String, Object> timing = Collections.emptyMap();
+        private boolean fromCache;
+        private long encodedBytes = -1;
+        private double endTimestamp = -1;
+        private String error;
+
+        Entry(Map<String, Object> event) {
+            Map<String, Object> request = map(event.get("request"));
+            this.url = String.valueOf(request.get("url"));
+            this.method = String.valueOf(request.get("method"));
+            this.requestHeaders = map(request.get("headers"));
+            this.documentUrl = String.valueOf(event.get("documentURL"));
+            this.type = String.valueOf(event.getOrDefault("type", "Other"));
+            this.priority = String.valueOf(request.getOrDefault("initialPriority", ""));
+            this.startedMillis = Math.round(number(event.get("wallTime")) * 1000);
+            this.startTimestamp = number(event.get("timestamp"));
+        }
+
+        void respond(Map<String, Object> response) {
+            status = (int) number(response.get("status"));
+            statusText = String.valueOf(response.getOrDefault("statusText", ""));
+            protocol = String.valueOf(response.getOrDefault("protocol", ""));
+            mimeType = String.valueOf(response.getOrDefault("mimeType", ""));
+            responseHeaders = map(response.get("headers"));
+            timing = map(response.get("timing"));
+            fromCache = Boolean.TRUE.equals(response.get("fromDiskCache"))
+                || Boolean.TRUE.equals(response.get("fromPrefetchCache"));
+        }
+
+        void finish(double timestamp, long encodedBytes, String error) {
+            this.endTimestamp = timestamp;
+            this.encodedBytes = encodedBytes;
+            this.error = error;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return URL of the document the request belongs to
+         */
+        public String getDocumentUrl() {
+            return documentUrl;
+        }
+
+        /**
+         * @return resource type as reported by the browser, e.g. {@code Document} or {@code Script}
+         */
+        public String getType() {
+            return type;
+        }
+
+        public String getPriority() {
+            return priority;
+        }
+
+        public Map<String, Object> getRequestHeaders() {
+            return requestHeaders;
+        }
+
+        public long getStartedMillis() {
+            return startedMillis;
+        }
+
+        /**
+         * @return total time of the request in milliseconds, or -1 if it has not finished
+         */
+        public double getDurationMillis() {
+            return endTimestamp < 0 ? -1 : (endTimestamp - startTimestamp) * 1000;
+        }
+
+        public double getStartTimestamp() {
+            return startTimestamp;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getStatusText() {
+            return statusText;
+        }
+
+        public String getProtocol() {
+            return protocol;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        public Map<String, Object> getResponseHeaders() {
+            return responseHeaders;
+        }
+
+        /**
+         * @return the browser's {@code ResourceTiming} of the response, empty if none was received
+         */
+        public Map<String, Object> getTiming() {
+            return timing;
+        }
+
+        public boolean isFromCache() {
+            return fromCache;
+        }
+
+        /**
+         * @return bytes transferred over the network, or -1 if the request has not finished
+         */
+        public long getEncodedBytes() {
+            return encodedBytes;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Request count, transferred bytes and critical-path duration of the requests of one page.
+     */
+    public static class PageWeight {
+        private final int requests;
+        private final long bytes;
+        private final double criticalPathMillis;
+
+        PageWeight(int requests, long bytes, double criticalPathMillis) {
+            this.requests = requests;
+            this.bytes = bytes;
+            this.criticalPathMillis = criticalPathMillis;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return time from the page's first request until its last high-priority request finished
+         */
+        public double getCriticalPathMillis() {
+            return criticalPathMillis;
+        }
+    }
+
+    private NetworkRecorder(DevTools devTools) {
+        this.devTools = devTools;
+        int maxEntries = ConfigManager.getIntProperty("network.max.entries", 2000);
+        this.entries = new LinkedHashMap<String, Entry>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("network.capture.enabled", false);
+    }
+
+    /**
+     * Starts recording the driver's network traffic if network capture is enabled and the browser
+     * supports it.
+     *
+     * @param driver the driver to record
+     * @return the running recorder, or null if the session is not recorded
+     */
+    public static NetworkRecorder start(WebDriver driver) {
+        if (!isEnabled() || !(driver instanceof HasDevTools)) {
+            return null;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            NetworkRecorder recorder = new NetworkRecorder(devTools);
+            devTools.addListener(REQUEST_WILL_BE_SENT, recorder::onRequest);
+            devTools.addListener(RESPONSE_RECEIVED, recorder::onResponse);
+            devTools.addListener(LOADING_FINISHED, recorder::onFinished);
+            devTools.addListener(LOADING_FAILED, recorder::onFailed);
+            devTools.send(new Command<>("Network.enable", new HashMap<>()));
+            recorder.recording = true;
+            logger.debug("Network recording started");
+            return recorder;
+        } catch (Exception e) {
+            logger.warn("Network recording is not available: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void onRequest(Map<String, Object> event) {
+        if (!recording) {
+            return;
+        }
+        String requestId = String.valueOf(event.get("requestId"));
+        synchronized (entries) {
+            // A redirect reuses the request id; the hop that was redirected is complete
+            Object redirectResponse = event.get("redirectResponse");
+            Entry redirected = redirectResponse != null ? entries.remove(requestId) : null;
+            if (redirected != null) {
+                redirected.respond(map(redirectResponse));
+                redirected.finish(number(event.get("timestamp")), 0, null);
+                entries.put(requestId + "#redirect" + (++redirects), redirected);
+            }
+            entries.put(requestId, new Entry(event));
+        }
+    }
+
+    private void onResponse(Map<String, Object> event) {
+        withEntry(event, entry -> entry.respond(map(event.get("response"))));
+    }
+
+    private void onFinished(Map<String, Object> event) {
+        withEntry(event, entry ->
+            entry.finish(number(event.get("timestamp")), (long) number(event.get("encodedDataLength")), null));
+    }
+
+    private void onFailed(Map<String, Object> event) {
+        withEntry(event, entry -> entry.finish(number(event.get("timestamp")), 0, String.valueOf(event.get("errorText"))));
+    }
+
+    private void withEntry(Map<String, Object> event, Consumer<Entry> update) {
+        if (!recording) {
+            return;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(String.valueOf(event.get("requestId")));
+            if (entry != null) {
+                update.accept(entry);
+            }
+        }
+    }
+
+    /**
+     * @return a copy of the recorded requests, in the order they were sent
+     */
+    public List<Entry> snapshot() {
+        synchronized (entries) {
+            List<Entry> copy = new ArrayList<>(entries.values());
+            copy.sort((a, b) -> Double.compare(a.getStartTimestamp(), b.getStartTimestamp()));
+            return copy;
+        }
+    }
+
+    /**
+     * Sums up the recorded requests whose document matches the filter, e.g. all requests of one page.
+     *
+     * @param document selects the document URLs to include
+     * @return the weight of those requests
+     */
+    public PageWeight weigh(Predicate<String> document) {
+        int requests = 0;
+        long bytes = 0;
+        double firstStart = Double.MAX_VALUE;
+        double criticalEnd = -1;
+        for (Entry entry : snapshot()) {
+            if (!document.test(entry.getDocumentUrl())) {
+                continue;
+            }
+            requests++;
+            bytes += Math.max(0, entry.getEncodedBytes());
+            firstStart = Math.min(firstStart, entry.getStartTimestamp());
+            // The document and its render-blocking scripts and stylesheets are requested at high priority
+            if (entry.getEncodedBytes() >= 0
+                    && ("VeryHigh".equals(entry.getPriority()) || "High".equals(entry.getPriority()))) {
+                criticalEnd = Math.max(criticalEnd, entry.endTimestamp);
+            }
+        }
+        double criticalPath = criticalEnd < 0 ? 0 : (criticalEnd - firstStart) * 1000;
+        return new PageWeight(requests, bytes, criticalPath);
+    }
+
+    /**
+     * Stops recording and drops the buffered requests.
+     */
+    public void stop() {
+        if (!recording) {
+            return;
+        }
+        recording = false;
+        try {
+            devTools.send(new Command<>("Network.disable", new HashMap<>()));
+        } catch (Exception e) {
+            logger.debug("Failed to disable network recording: {}", e.getMessage());
+        }
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private static Event<Map<String, Object>> event(String name) {
+        return new Event<>(name, input -> input.read(Json.MAP_TYPE));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
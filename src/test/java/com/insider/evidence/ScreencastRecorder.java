@@ -0,0 +1,154 @@
+package com.insider.evidence;
+
+import com.insider.config.ConfigManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the last seconds of a browser session into a bounded in-memory ring buffer, using the
+ * Chrome DevTools {@code Page.startScreencast} command. Frames are small JPEGs that the browser only
+ * sends when the page changes. Nothing is written while the test runs: the buffer is encoded to an
+ * animated GIF when the test fails, and simply dropped otherwise.
+ * <p>
+ * The raw CDP command names are used rather than a versioned devtools binding, so the recorder does
+ * not depend on the browser version. Browsers without DevTools support are not recorded.
+ */
+public class ScreencastRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(ScreencastRecorder.class);
+
+    private static final Event<Map<String, Object>> SCREENCAST_FRAME =
+        new Event<>("Page.screencastFrame", input -> input.read(Json.MAP_TYPE));
+
+    private final DevTools devTools;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private final long windowMillis;
+    private final int maxFrames;
+    private volatile boolean recording;
+
+    /**
+     * A frame of the screencast: a JPEG and the time it was received.
+     */
+    public static class Frame {
+        private final long timestamp;
+        private final byte[] jpeg;
+
+        Frame(long timestamp, byte[] jpeg) {
+            this.timestamp = timestamp;
+            this.jpeg = jpeg;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public byte[] getJpeg() {
+            return jpeg;
+        }
+    }
+
+    private ScreencastRecorder(DevTools devTools) {
+        this.devTools = devTools;
+        this.windowMillis = ConfigManager.getIntProperty("screencast.buffer.seconds", 10) * 1000L;
+        this.maxFrames = ConfigManager.getIntProperty("screencast.max.frames", 150);
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("screencast.enabled", false);
+    }
+
+    /**
+     * Starts recording the driver's session if screencasts are enabled and the browser supports them.
+     *
+     * @param driver the driver to record
+     * @return the running recorder, or null if the session is not recorded
+     */
+    public static ScreencastRecorder start(WebDriver driver) {
+        if (!isEnabled() || !(driver instanceof HasDevTools)) {
+            return null;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            ScreencastRecorder recorder = new ScreencastRecorder(devTools);
+            devTools.addListener(SCREENCAST_FRAME, recorder::onFrame);
+
+            Map<String, Object> params = new HashMap<>();
+            params.put("format", "jpeg");
+            params.put("quality", ConfigManager.getIntProperty("screencast.quality", 50));
+            params.put("maxWidth", ConfigManager.getIntProperty("screencast.max.width", 800));
+            params.put("maxHeight", ConfigManager.getIntProperty("screencast.max.height", 600));
+            params.put("everyNthFrame", ConfigManager.getIntProperty("screencast.every.nth.frame", 1));
+            devTools.send(new Command<>("Page.startScreencast", params));
+            recorder.recording = true;
+            logger.debug("Screencast recording started");
+            return recorder;
+        } catch (Exception e) {
+            logger.warn("Screencast recording is not available: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void onFrame(Map<String, Object> event) {
+        if (!recording) {
+            return;
+        }
+        Object sessionId = event.get("sessionId");
+        byte[] jpeg = Base64.getDecoder().decode((String) event.get("data"));
+        long now = System.currentTimeMillis();
+        synchronized (frames) {
+            frames.addLast(new Frame(now, jpeg));
+            while (frames.size() > maxFrames || now - frames.peekFirst().getTimestamp() > windowMillis) {
+                frames.removeFirst();
+            }
+        }
+        // The browser sends the next frame only once this one has been acknowledged
+        try {
+            Map<String, Object> ack = new HashMap<>();
+            ack.put("sessionId", sessionId);
+            devTools.send(new Command<>("Page.screencastFrameAck", ack));
+        } catch (Exception e) {
+            logger.debug("Failed to acknowledge screencast frame: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return a copy of the frames currently in the buffer, oldest first
+     */
+    public List<Frame> snapshot() {
+        synchronized (frames) {
+            return new ArrayList<>(frames);
+        }
+    }
+
+    /**
+     * Stops recording and drops the buffered frames.
+     */
+    public void stop() {
+        if (!recording) {
+            return;
+        }
+        recording = false;
+        try {
+            devTools.send(new Command<>("Page.stopScreencast", new HashMap<>()));
+        } catch (Exception e) {
+            logger.debug("Failed to stop screencast: {}", e.getMessage());
+        }
+        synchronized (frames) {
+            frames.clear();
+        }
+    }
+}
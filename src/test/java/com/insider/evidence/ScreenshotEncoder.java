@@ -0,0 +1,271 @@
+package com.insider.evidence;
+
+import com.insider.config.ConfigManager;
+import com.insider.exceptions.TestFrameworkException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Re-encodes the PNG screenshots returned by the driver before they are stored, and turns screencast
+ * frames into animated GIFs.
+ * <p>
+ * Depending on configuration an image is cropped to a region of interest (with some padding),
+ * downscaled to a maximum width, and written as PNG, JPEG or a 256-colour palette GIF.
+ * With the default settings the image is stored exactly as captured.
+ */
+public class ScreenshotEncoder {
+
+    private ScreenshotEncoder() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static String getFormat() {
+        String format = ConfigManager.getProperty("screenshot.format", "png").toLowerCase(Locale.ROOT);
+        switch (format) {
+            case "jpg":
+            case "jpeg":
+                return "jpg";
+            case "gif":
+            case "palette":
+                return "gif";
+            default:
+                return "png";
+        }
+    }
+
+    /**
+     * @return a short description of the settings, included in the content hash so that the same
+     *         capture stored under different settings does not collide
+     */
+    public static String describeSettings() {
+        return getFormat() + "/" + getMaxWidth() + "/" + getJpegQuality() + "/" + isCropToElement()
+            + "/" + getCropPadding();
+    }
+
+    public static boolean isCropToElement() {
+        return ConfigManager.getBooleanProperty("screenshot.crop.to.element", false);
+    }
+
+    /**
+     * @return true if images are stored as captured, without decoding them
+     */
+    public static boolean isPassThrough() {
+        return "png".equals(getFormat()) && getMaxWidth() <= 0 && !isCropToElement();
+    }
+
+    /**
+     * Encodes one screenshot.
+     *
+     * @param png the screenshot as returned by the driver
+     * @param crop region to keep in image pixels, or null to keep the whole image
+     * @return the encoded image
+     */
+    public static byte[] encode(byte[] png, Rectangle crop) {
+        if (isPassThrough() && crop == null) {
+            return png;
+        }
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            if (image == null) {
+                return png;
+            }
+            if (crop != null) {
+                image = crop(image, crop);
+            }
+            int maxWidth = getMaxWidth();
+            if (maxWidth > 0 && image.getWidth() > maxWidth) {
+                image = scale(image, maxWidth);
+            }
+            return write(image, getFormat());
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to encode screenshot", e);
+        }
+    }
+
+    /**
+     * Encodes screencast frames as an animated GIF that loops forever, each frame shown until the next
+     * one was received. Frames are decoded in parallel on the given pool.
+     *
+     * @param frames the frames, oldest first
+     * @param pool bounded pool to decode on
+     * @return the animated GIF
+     */
+    public static byte[] encodeAnimation(List<ScreencastRecorder.Frame> frames, ExecutorService pool) {
+        List<Future<BufferedImage>> decoded = new ArrayList<>(frames.size());
+        for (ScreencastRecorder.Frame frame : frames) {
+            decoded.add(pool.submit(() -> ImageIO.read(new ByteArrayInputStream(frame.getJpeg()))));
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+            for (int i = 0; i < frames.size(); i++) {
+                BufferedImage image = decoded.get(i).get();
+                if (image == null) {
+                    continue;
+                }
+                long delayMillis = i + 1 < frames.size()
+                    ? frames.get(i + 1).getTimestamp() - frames.get(i).getTimestamp() : 1000;
+                IIOMetadata metadata = writer.getDefaultImageMetadata(
+                    ImageTypeSpecifier.createFromRenderedImage(image), null);
+                setFrameMetadata(metadata, delayMillis, i == 0);
+                writer.writeToSequence(new IIOImage(image, null, metadata), null);
+            }
+            writer.endWriteSequence();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestFrameworkException("Interrupted while encoding screencast", e);
+        } catch (ExecutionException | IOException e) {
+            throw new TestFrameworkException("Failed to encode screencast", e);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private static void setFrameMetadata(IIOMetadata metadata, long delayMillis, boolean first)
+            throws IIOInvalidTreeException {
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+
+        IIOMetadataNode control = child(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        // GIF delays are in hundredths of a second
+        control.setAttribute("delayTime", String.valueOf(Math.max(2, Math.min(65535, delayMillis / 10))));
+        control.setAttribute("transparentColorIndex", "0");
+
+        if (first) {
+            IIOMetadataNode extensions = child(root, "ApplicationExtensions");
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[] {1, 0, 0});
+            extensions.appendChild(loop);
+        }
+        metadata.setFromTree(format, root);
+    }
+
+    private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+        for (int i = 0; i < parent.getLength(); i++) {
+            if (parent.item(i).getNodeName().equals(name)) {
+                return (IIOMetadataNode) parent.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        parent.appendChild(node);
+        return node;
+    }
+
+    private static BufferedImage crop(BufferedImage image, Rectangle region) {
+        int padding = getCropPadding();
+        Rectangle padded = new Rectangle(region.x - padding, region.y - padding,
+            region.width + 2 * padding, region.height + 2 * padding)
+            .intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+        if (padded.isEmpty()) {
+            return image;
+        }
+        return image.getSubimage(padded.x, padded.y, padded.width, padded.height);
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width) {
+        int height = Math.max(1, (int) Math.round(image.getHeight() * (double) width / image.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static byte[] write(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        switch (format) {
+            case "jpg":
+                writeJpeg(toRgb(image), output);
+                break;
+            case "gif":
+                ImageIO.write(toIndexed(image), "gif", output);
+                break;
+            default:
+                ImageIO.write(image, "png", output);
+                break;
+        }
+        return output.toByteArray();
+    }
+
+    private static void writeJpeg(BufferedImage image, ByteArrayOutputStream output) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality((float) getJpegQuality());
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // JPEG has no alpha channel, and PNG screenshots usually have one
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        return convert(image, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static BufferedImage toIndexed(BufferedImage image) {
+        return convert(image, BufferedImage.TYPE_BYTE_INDEXED);
+    }
+
+    private static BufferedImage convert(BufferedImage image, int type) {
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), type);
+        Graphics2D graphics = converted.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return converted;
+    }
+
+    private static int getCropPadding() {
+        return ConfigManager.getIntProperty("screenshot.crop.padding", 40);
+    }
+
+    private static int getMaxWidth() {
+        return ConfigManager.getIntProperty("screenshot.max.width", 0);
+    }
+
+    private static double getJpegQuality() {
+        return ConfigManager.getDoubleProperty("screenshot.jpeg.quality", 0.75);
+    }
+}
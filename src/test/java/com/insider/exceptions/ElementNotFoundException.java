@@ -1,12 +1,28 @@
 package com.insider.exceptions;
 
+import org.openqa.selenium.By;
+
 public class ElementNotFoundException extends TestFrameworkException {
     
+    private final transient By locator;
+    
     public ElementNotFoundException(String message) {
-        super(message);
+        this(message, null, null);
     }
     
     public ElementNotFoundException(String message, Throwable cause) {
+        this(message, null, cause);
+    }
+    
+    public ElementNotFoundException(String message, By locator, Throwable cause) {
         super(message, cause);
+        this.locator = locator;
+    }
+    
+    /**
+     * @return the locator that did not match, or null if it is not known
+     */
+    public By getLocator() {
+        return locator;
     }
 }
@@ -0,0 +1,338 @@
+package com.insider.fakes;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An element of a {@link FakeWebDriver}'s page, whose state follows a declared timeline, e.g.
+ * <pre>
+ * driver.element(By.id("apply"))
+ *     .appearsAt(Duration.ofMillis(800))
+ *     .enabledAt(Duration.ofSeconds(2))
+ *     .text("Apply");
+ * </pre>
+ * An element is present, displayed and enabled from time zero unless declared otherwise. Using an
+ * element while it is not present throws {@link StaleElementReferenceException}, as a browser does
+ * for an element that was removed from the page.
+ */
+public class FakeElement implements WebElement {
+    private static final Rectangle RECT = new Rectangle(100, 200, 40, 120);
+
+    private final FakeWebDriver driver;
+    private final FakeElement parent;
+    private final List<By> locators;
+    private final Timeline<Boolean> present = new Timeline<>(true);
+    private final Timeline<Boolean> displayed = new Timeline<>(true);
+    private final Timeline<Boolean> enabled = new Timeline<>(true);
+    private final Timeline<Boolean> selected = new Timeline<>(false);
+    private final Timeline<Boolean> intercepted = new Timeline<>(false);
+    private final Timeline<String> text = new Timeline<>("");
+    private final Map<String, Timeline<String>> attributes = new HashMap<>();
+    private final List<Consumer<FakeWebDriver>> clickActions = new ArrayList<>();
+    private String tagName = "div";
+    private int clicks;
+
+    FakeElement(FakeWebDriver driver, FakeElement parent, List<By> locators) {
+        this.driver = driver;
+        this.parent = parent;
+        this.locators = locators;
+    }
+
+    // --- Declaration ---
+
+    /**
+     * Declares a child element, found by this element's {@code findElement} as well as the driver's.
+     */
+    public FakeElement element(By... locators) {
+        return driver.register(this, locators);
+    }
+
+    /**
+     * The element is missing from the page until the given time.
+     */
+    public FakeElement appearsAt(Duration time) {
+        present.at(Duration.ZERO, false).at(time, true);
+        return this;
+    }
+
+    public FakeElement disappearsAt(Duration time) {
+        present.at(time, false);
+        return this;
+    }
+
+    /**
+     * The element is on the page but not displayed until the given time.
+     */
+    public FakeElement hiddenUntil(Duration time) {
+        displayed.at(Duration.ZERO, false).at(time, true);
+        return this;
+    }
+
+    public FakeElement hiddenAt(Duration time) {
+        displayed.at(time, false);
+        return this;
+    }
+
+    /**
+     * The element is disabled until the given time.
+     */
+    public FakeElement enabledAt(Duration time) {
+        enabled.at(Duration.ZERO, false).at(time, true);
+        return this;
+    }
+
+    public FakeElement selectedAt(Duration time) {
+        selected.at(time, true);
+        return this;
+    }
+
+    /**
+     * Clicks on the element are intercepted, e.g. by an overlay, until the given time.
+     */
+    public FakeElement interceptedUntil(Duration time) {
+        intercepted.at(Duration.ZERO, true).at(time, false);
+        return this;
+    }
+
+    public FakeElement text(String value) {
+        text.at(Duration.ZERO, value);
+        return this;
+    }
+
+    public FakeElement textAt(Duration time, String value) {
+        text.at(time, value);
+        return this;
+    }
+
+    public FakeElement attribute(String name, String value) {
+        return attributeAt(Duration.ZERO, name, value);
+    }
+
+    public FakeElement attributeAt(Duration time, String name, String value) {
+        attributes.computeIfAbsent(name, key -> new Timeline<>(null)).at(time, value);
+        return this;
+    }
+
+    public FakeElement tagName(String value) {
+        this.tagName = value;
+        return this;
+    }
+
+    /**
+     * Runs the action on every successful click, e.g. to navigate or open a window.
+     */
+    public FakeElement onClick(Consumer<FakeWebDriver> action) {
+        clickActions.add(action);
+        return this;
+    }
+
+    // --- Inspection by the test ---
+
+    public int getClicks() {
+        return clicks;
+    }
+
+    boolean matches(By locator) {
+        return locators.contains(locator);
+    }
+
+    boolean isDescendantOf(FakeElement ancestor) {
+        for (FakeElement node = parent; node != null; node = node.parent) {
+            if (node == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isPresentAt(Duration time) {
+        return present.valueAt(time) && (parent == null || parent.isPresentAt(time));
+    }
+
+    /**
+     * @return the earliest time after {@code time} at which this element or one of its ancestors
+     * changes presence, or null if none ever does
+     */
+    Duration nextPresenceChangeAfter(Duration time) {
+        Duration next = present.nextChangeAfter(time);
+        Duration parentNext = parent != null ? parent.nextPresenceChangeAfter(time) : null;
+        if (next == null || (parentNext != null && parentNext.compareTo(next) < 0)) {
+            return parentNext;
+        }
+        return next;
+    }
+
+    /**
+     * Clicks like JavaScript does: without checks for visibility or overlays.
+     */
+    void clickByScript() {
+        attached();
+        clicks++;
+        clickActions.forEach(action -> action.accept(driver));
+    }
+
+    private Duration attached() {
+        Duration now = driver.now();
+        if (!isPresentAt(now)) {
+            throw new StaleElementReferenceException("Element is no longer attached to the page: " + this);
+        }
+        return now;
+    }
+
+    // --- WebElement ---
+
+    @Override
+    public void click() {
+        driver.command("WebElement.click");
+        Duration now = attached();
+        if (!displayed.valueAt(now)) {
+            throw new ElementNotInteractableException("Element is not displayed: " + this);
+        }
+        if (intercepted.valueAt(now)) {
+            throw new ElementClickInterceptedException("Element click intercepted: " + this);
+        }
+        if (enabled.valueAt(now)) {
+            clickByScript();
+        }
+    }
+
+    @Override
+    public void submit() {
+        click();
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        driver.command("WebElement.sendKeys");
+        Duration now = attached();
+        StringBuilder value = new StringBuilder(String.valueOf(getAttributeAt(now, "value")));
+        for (CharSequence keys : keysToSend) {
+            value.append(keys);
+        }
+        attributeAt(now, "value", value.toString());
+    }
+
+    @Override
+    public void clear() {
+        driver.command("WebElement.clear");
+        attributeAt(attached(), "value", "");
+    }
+
+    @Override
+    public String getTagName() {
+        driver.command("WebElement.getTagName");
+        attached();
+        return tagName;
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        driver.command("WebElement.getAttribute");
+        return getAttributeAt(attached(), name);
+    }
+
+    @Override
+    public String getDomAttribute(String name) {
+        return getAttribute(name);
+    }
+
+    @Override
+    public String getDomProperty(String name) {
+        return getAttribute(name);
+    }
+
+    private String getAttributeAt(Duration time, String name) {
+        Timeline<String> values = attributes.get(name);
+        String value = values != null ? values.valueAt(time) : null;
+        return value == null && "value".equals(name) ? "" : value;
+    }
+
+    @Override
+    public boolean isSelected() {
+        driver.command("WebElement.isSelected");
+        return selected.valueAt(attached());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        driver.command("WebElement.isEnabled");
+        return enabled.valueAt(attached());
+    }
+
+    @Override
+    public String getText() {
+        driver.command("WebElement.getText");
+        Duration now = attached();
+        return displayed.valueAt(now) ? text.valueAt(now) : "";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        driver.command("WebElement.findElements");
+        attached();
+        return driver.find(by, this);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        driver.command("WebElement.findElement");
+        attached();
+        return driver.findFirst(by, this);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        driver.command("WebElement.isDisplayed");
+        return displayed.valueAt(attached());
+    }
+
+    @Override
+    public Point getLocation() {
+        return getRect().getPoint();
+    }
+
+    @Override
+    public Dimension getSize() {
+        return getRect().getDimension();
+    }
+
+    @Override
+    public Rectangle getRect() {
+        driver.command("WebElement.getRect");
+        attached();
+        return RECT;
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        driver.command("WebElement.getCssValue");
+        String value = getAttributeAt(attached(), propertyName);
+        return value != null ? value : "";
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        driver.command("WebElement.getScreenshotAs");
+        attached();
+        return target.convertFromPngBytes(FakeWebDriver.PNG);
+    }
+
+    @Override
+    public String toString() {
+        return "FakeElement" + locators;
+    }
+}
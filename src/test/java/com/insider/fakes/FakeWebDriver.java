@@ -0,0 +1,501 @@
+package com.insider.fakes;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchFrameException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * An in-memory {@link WebDriver} whose page is declared as a timeline of element states on a
+ * {@link VirtualClock}, so that the waits of {@link com.insider.utils.Helper},
+ * {@link com.insider.utils.WaitStrategy} and the page objects can be tested without a browser:
+ * <pre>
+ * VirtualClock clock = new VirtualClock();
+ * FakeWebDriver driver = new FakeWebDriver(clock);
+ * driver.element(By.id("jobs")).appearsAt(Duration.ofSeconds(2));
+ * TestContext.require().setDriver(driver);
+ * TestContext.require().useTime(clock, clock);
+ * </pre>
+ * Every command counts as one round trip and advances the clock by the command latency, zero by
+ * default. {@code findElement} honours the implicit wait the way a browser does, by returning as
+ * soon as a matching element appears. Scripts are answered by handlers chosen by a fragment of the
+ * script's text; the scripts of {@code Helper} have handlers for a loaded, idle page, which a test
+ * can override with {@link #onScript} or {@link #scriptResult}.
+ */
+public class FakeWebDriver implements WebDriver, JavascriptExecutor, TakesScreenshot {
+    static final byte[] PNG = blankPng();
+    private static final String MAIN_WINDOW = "main";
+
+    private final VirtualClock clock;
+    private final List<FakeElement> elements = new ArrayList<>();
+    private final List<ScriptHandler> scripts = new ArrayList<>();
+    private final Set<String> windows = new LinkedHashSet<>();
+    private final Timeline<String> title = new Timeline<>("");
+    private final List<String> commands = new ArrayList<>();
+    private Duration commandLatency = Duration.ZERO;
+    private Duration implicitWait = Duration.ZERO;
+    private String currentUrl = "about:blank";
+    private String currentWindow = MAIN_WINDOW;
+    private boolean quit;
+
+    private static class ScriptHandler {
+        private final String fragment;
+        private final Function<Object[], Object> handler;
+
+        ScriptHandler(String fragment, Function<Object[], Object> handler) {
+            this.fragment = fragment;
+            this.handler = handler;
+        }
+    }
+
+    public FakeWebDriver(VirtualClock clock) {
+        this.clock = clock;
+        windows.add(MAIN_WINDOW);
+        onScript("document.readyState", args -> "complete");
+        onScript("jQuery", args -> true);
+        onScript("getComputedStyle", args -> true);
+        onScript("window.scrollY", args -> 0L);
+        onScript("scrollIntoView", args -> null);
+        onScript("dispatchEvent", args -> null);
+        onScript("arguments[0].click()", args -> {
+            ((FakeElement) args[0]).clickByScript();
+            return null;
+        });
+    }
+
+    // --- Declaration ---
+
+    /**
+     * Declares an element of the page that any of the locators find.
+     */
+    public FakeElement element(By... locators) {
+        return register(null, locators);
+    }
+
+    FakeElement register(FakeElement parent, By... locators) {
+        FakeElement element = new FakeElement(this, parent, List.of(locators));
+        elements.add(element);
+        return element;
+    }
+
+    /**
+     * Answers every script that contains the fragment. Handlers declared later take precedence.
+     *
+     * @param handler receives the script's arguments and returns its result, e.g. a {@code Long} for a number
+     */
+    public FakeWebDriver onScript(String fragment, Function<Object[], Object> handler) {
+        scripts.add(0, new ScriptHandler(fragment, handler));
+        return this;
+    }
+
+    /**
+     * Answers every script that contains the fragment with the value the timeline has at the time
+     * of the call, e.g. {@code jQuery.active} going idle after two seconds.
+     */
+    public FakeWebDriver scriptResult(String fragment, Timeline<?> result) {
+        return onScript(fragment, args -> result.valueAt(now()));
+    }
+
+    public FakeWebDriver titleAt(Duration time, String value) {
+        title.at(time, value);
+        return this;
+    }
+
+    /**
+     * Opens a window, as a link with {@code target="_blank"} does; usually called from {@link FakeElement#onClick}.
+     */
+    public FakeWebDriver openWindow(String handle) {
+        windows.add(handle);
+        return this;
+    }
+
+    /**
+     * @param latency time every command takes, added to the clock
+     */
+    public FakeWebDriver commandLatency(Duration latency) {
+        this.commandLatency = latency;
+        return this;
+    }
+
+    // --- Inspection by the test ---
+
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return names of the commands received so far, e.g. {@code WebDriver.findElement}
+     */
+    public List<String> getCommands() {
+        return Collections.unmodifiableList(commands);
+    }
+
+    public int getCommandCount() {
+        return commands.size();
+    }
+
+    public String getCurrentWindow() {
+        return currentWindow;
+    }
+
+    public boolean isQuit() {
+        return quit;
+    }
+
+    Duration now() {
+        return clock.elapsed();
+    }
+
+    void command(String name) {
+        if (quit) {
+            throw new NoSuchWindowException("The driver has quit");
+        }
+        commands.add(name);
+        clock.advance(commandLatency);
+    }
+
+    /**
+     * @param scope element whose descendants to search, or null for the whole page
+     */
+    List<WebElement> find(By by, FakeElement scope) {
+        Duration now = now();
+        return elements.stream()
+            .filter(element -> element.matches(by) && element.isPresentAt(now)
+                && (scope == null || element.isDescendantOf(scope)))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the first match, waiting up to the implicit wait for one to appear.
+     */
+    WebElement findFirst(By by, FakeElement scope) {
+        Duration deadline = now().plus(implicitWait);
+        while (true) {
+            List<WebElement> found = find(by, scope);
+            if (!found.isEmpty()) {
+                return found.get(0);
+            }
+            Duration next = nextPresenceChange(by);
+            if (next == null || next.compareTo(deadline) > 0) {
+                clock.advance(implicitWait.isZero() ? Duration.ZERO : deadline.minus(now()));
+                throw new NoSuchElementException("Unable to locate element: " + by);
+            }
+            clock.advance(next.minus(now()));
+        }
+    }
+
+    private Duration nextPresenceChange(By by) {
+        Duration now = now();
+        Duration next = null;
+        for (FakeElement element : elements) {
+            Duration change = element.matches(by) ? element.nextPresenceChangeAfter(now) : null;
+            if (change != null && (next == null || change.compareTo(next) < 0)) {
+                next = change;
+            }
+        }
+        return next;
+    }
+
+    // --- WebDriver ---
+
+    @Override
+    public void get(String url) {
+        command("WebDriver.get");
+        currentUrl = url;
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        command("WebDriver.getCurrentUrl");
+        return currentUrl;
+    }
+
+    @Override
+    public String getTitle() {
+        command("WebDriver.getTitle");
+        return title.valueAt(now());
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        command("WebDriver.findElements");
+        // A browser waits for at least one match, but returns an empty list after the implicit wait
+        try {
+            findFirst(by, null);
+        } catch (NoSuchElementException e) {
+            return new ArrayList<>();
+        }
+        return find(by, null);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        command("WebDriver.findElement");
+        return findFirst(by, null);
+    }
+
+    @Override
+    public String getPageSource() {
+        command("WebDriver.getPageSource");
+        Duration now = now();
+        return elements.stream().filter(element -> element.isPresentAt(now)).map(FakeElement::toString)
+            .collect(Collectors.joining("\n", "<html><body>\n", "\n</body></html>"));
+    }
+
+    @Override
+    public void close() {
+        command("WebDriver.close");
+        windows.remove(currentWindow);
+    }
+
+    @Override
+    public void quit() {
+        quit = true;
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        command("WebDriver.getWindowHandles");
+        return new LinkedHashSet<>(windows);
+    }
+
+    @Override
+    public String getWindowHandle() {
+        command("WebDriver.getWindowHandle");
+        return currentWindow;
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        return new FakeTargetLocator();
+    }
+
+    @Override
+    public Navigation navigate() {
+        return new FakeNavigation();
+    }
+
+    @Override
+    public Options manage() {
+        return new FakeOptions();
+    }
+
+    // --- JavascriptExecutor ---
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        command("JavascriptExecutor.executeScript");
+        for (ScriptHandler handler : scripts) {
+            if (script.contains(handler.fragment)) {
+                return handler.handler.apply(args);
+            }
+        }
+        throw new JavascriptException("No fake handler for script: " + script);
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        return executeScript(script, args);
+    }
+
+    // --- TakesScreenshot ---
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        command("TakesScreenshot.getScreenshotAs");
+        return target.convertFromPngBytes(PNG);
+    }
+
+    private static byte[] blankPng() {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private class FakeTargetLocator implements TargetLocator {
+        @Override
+        public WebDriver frame(int index) {
+            command("TargetLocator.frame");
+            throw new NoSuchFrameException("The fake page has no frames");
+        }
+
+        @Override
+        public WebDriver frame(String nameOrId) {
+            return frame(0);
+        }
+
+        @Override
+        public WebDriver frame(WebElement frameElement) {
+            return frame(0);
+        }
+
+        @Override
+        public WebDriver parentFrame() {
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebDriver window(String nameOrHandle) {
+            command("TargetLocator.window");
+            if (!windows.contains(nameOrHandle)) {
+                throw new NoSuchWindowException("No window " + nameOrHandle);
+            }
+            currentWindow = nameOrHandle;
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebDriver newWindow(WindowType typeHint) {
+            String handle = "window-" + windows.size();
+            openWindow(handle);
+            return window(handle);
+        }
+
+        @Override
+        public WebDriver defaultContent() {
+            return FakeWebDriver.this;
+        }
+
+        @Override
+        public WebElement activeElement() {
+            throw new NoSuchElementException("The fake page has no active element");
+        }
+
+        @Override
+        public Alert alert() {
+            command("TargetLocator.alert");
+            throw new NoAlertPresentException();
+        }
+    }
+
+    private class FakeNavigation implements Navigation {
+        @Override
+        public void back() {
+            command("Navigation.back");
+        }
+
+        @Override
+        public void forward() {
+            command("Navigation.forward");
+        }
+
+        @Override
+        public void to(String url) {
+            get(url);
+        }
+
+        @Override
+        public void to(URL url) {
+            get(url.toString());
+        }
+
+        @Override
+        public void refresh() {
+            command("Navigation.refresh");
+        }
+    }
+
+    private class FakeOptions implements Options {
+        @Override
+        public void addCookie(Cookie cookie) {
+            command("Options.addCookie");
+        }
+
+        @Override
+        public void deleteCookieNamed(String name) {
+            command("Options.deleteCookieNamed");
+        }
+
+        @Override
+        public void deleteCookie(Cookie cookie) {
+            command("Options.deleteCookie");
+        }
+
+        @Override
+        public void deleteAllCookies() {
+            command("Options.deleteAllCookies");
+        }
+
+        @Override
+        public Set<Cookie> getCookies() {
+            command("Options.getCookies");
+            return new LinkedHashSet<>();
+        }
+
+        @Override
+        public Cookie getCookieNamed(String name) {
+            command("Options.getCookieNamed");
+            return null;
+        }
+
+        @Override
+        public Timeouts timeouts() {
+            return new FakeTimeouts();
+        }
+
+        @Override
+        public Window window() {
+            throw new UnsupportedOperationException("The fake driver has no window geometry");
+        }
+
+        @Override
+        public org.openqa.selenium.logging.Logs logs() {
+            throw new UnsupportedOperationException("The fake driver has no logs");
+        }
+    }
+
+    private class FakeTimeouts implements Timeouts {
+        @Override
+        public Timeouts implicitlyWait(Duration duration) {
+            command("Timeouts.implicitlyWait");
+            implicitWait = duration;
+            return this;
+        }
+
+        @Override
+        public Duration getImplicitWaitTimeout() {
+            return implicitWait;
+        }
+
+        @Override
+        public Timeouts scriptTimeout(Duration duration) {
+            command("Timeouts.scriptTimeout");
+            return this;
+        }
+
+        @Override
+        public Timeouts pageLoadTimeout(Duration duration) {
+            command("Timeouts.pageLoadTimeout");
+            return this;
+        }
+    }
+}
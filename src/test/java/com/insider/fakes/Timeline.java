@@ -0,0 +1,48 @@
+package com.insider.fakes;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A value that changes at given points of virtual time, e.g. whether an element is displayed.
+ * Times are offsets from the start of the {@link VirtualClock}.
+ *
+ * @param <T> type of the value
+ */
+public class Timeline<T> {
+    private final NavigableMap<Duration, T> changes = new TreeMap<>();
+
+    /**
+     * @param initial the value from time zero until the first change
+     */
+    public Timeline(T initial) {
+        changes.put(Duration.ZERO, initial);
+    }
+
+    /**
+     * Sets the value from the given time until the next change. A later call for the same time wins.
+     *
+     * @return this timeline
+     */
+    public Timeline<T> at(Duration time, T value) {
+        if (time.isNegative()) {
+            throw new IllegalArgumentException("Time must not be negative: " + time);
+        }
+        changes.put(time, value);
+        return this;
+    }
+
+    public T valueAt(Duration time) {
+        return changes.floorEntry(time).getValue();
+    }
+
+    /**
+     * @return the earliest time after {@code time} at which the value changes, or null if it never does
+     */
+    public Duration nextChangeAfter(Duration time) {
+        Map.Entry<Duration, T> next = changes.higherEntry(time);
+        return next != null ? next.getKey() : null;
+    }
+}
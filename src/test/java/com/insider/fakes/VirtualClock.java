@@ -0,0 +1,83 @@
+package com.insider.fakes;
+
+import org.openqa.selenium.support.ui.Sleeper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A clock that only moves when it is slept on or advanced, so that waits with timeouts of seconds
+ * finish in microseconds. Install it on a test with
+ * {@link com.insider.context.TestContext#useTime(Clock, Sleeper)}; {@link FakeWebDriver} also
+ * advances it by its command latency. Not thread-safe: a clock belongs to a single test.
+ */
+public class VirtualClock extends Clock implements Sleeper {
+    private static final Instant ORIGIN = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final Instant origin;
+    private final ZoneId zone;
+    private Duration elapsed = Duration.ZERO;
+    private int sleeps;
+
+    public VirtualClock() {
+        this(ORIGIN, ZoneOffset.UTC);
+    }
+
+    private VirtualClock(Instant origin, ZoneId zone) {
+        this.origin = origin;
+        this.zone = zone;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * @return a clock in the given zone that shares nothing with this one but its current time
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        VirtualClock clock = new VirtualClock(origin, zone);
+        clock.elapsed = elapsed;
+        return clock;
+    }
+
+    @Override
+    public Instant instant() {
+        return origin.plus(elapsed);
+    }
+
+    /**
+     * Passes the time at once.
+     */
+    @Override
+    public void sleep(Duration duration) {
+        sleeps++;
+        advance(duration);
+    }
+
+    public void advance(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Time cannot go back: " + duration);
+        }
+        elapsed = elapsed.plus(duration);
+    }
+
+    /**
+     * @return time passed since the clock was created
+     */
+    public Duration elapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return number of times the clock was slept on
+     */
+    public int getSleeps() {
+        return sleeps;
+    }
+}
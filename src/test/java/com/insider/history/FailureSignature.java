@@ -0,0 +1,75 @@
+package com.insider.history;
+
+/**
+ * Reduces a test failure to a short signature that stays the same across runs, so that recurring
+ * failures can be recognized in the results history. The signature is the exception type, the first
+ * frame in the project's own code and the first line of the message with numbers, quoted values and
+ * object ids replaced, e.g. {@code TimeoutException@JobsPage.filterByLocation: Expected condition failed: waiting for #}.
+ */
+public class FailureSignature {
+    private static final int MAX_MESSAGE_LENGTH = 120;
+    private static final String PROJECT_PACKAGE = "com.insider.";
+
+    private FailureSignature() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * @param failure the failure, may be null
+     * @return the signature, or an empty string if there is no failure
+     */
+    public static String of(Throwable failure) {
+        if (failure == null) {
+            return "";
+        }
+        // The framework's own exceptions wrap the failure that identifies the problem
+        Throwable root = failure;
+        while (root.getCause() != null && root.getClass().getName().startsWith(PROJECT_PACKAGE)) {
+            root = root.getCause();
+        }
+        StringBuilder signature = new StringBuilder(root.getClass().getSimpleName());
+        String location = location(failure);
+        if (location != null) {
+            signature.append('@').append(location);
+        }
+        String message = normalize(root.getMessage());
+        if (!message.isEmpty()) {
+            signature.append(": ").append(message);
+        }
+        return signature.toString();
+    }
+
+    // Innermost project frame outside the framework's own waits, tracing and page steps
+    private static String location(Throwable failure) {
+        for (StackTraceElement frame : failure.getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith(PROJECT_PACKAGE) && !className.startsWith(PROJECT_PACKAGE + "utils.")
+                    && !className.startsWith(PROJECT_PACKAGE + "tracing.")
+                    && !className.equals(PROJECT_PACKAGE + "pages.BasePage")) {
+                String simpleName = className.substring(className.lastIndexOf('.') + 1);
+                int nested = simpleName.indexOf('$');
+                String method = frame.getMethodName();
+                if (method.startsWith("lambda$")) {
+                    int end = method.indexOf('$', "lambda$".length());
+                    method = end > 0 ? method.substring("lambda$".length(), end) : method;
+                }
+                return (nested > 0 ? simpleName.substring(0, nested) : simpleName) + "." + method;
+            }
+        }
+        return null;
+    }
+
+    private static String normalize(String message) {
+        if (message == null) {
+            return "";
+        }
+        String firstLine = message.split("\\R", 2)[0].trim();
+        String normalized = firstLine
+            .replaceAll("'[^']*'|\"[^\"]*\"", "''")
+            .replaceAll("@[0-9a-fA-F]+", "")
+            .replaceAll("\\$\\$Lambda[$/\\w]*", "")
+            .replaceAll("\\d+", "#")
+            .replaceAll("\\s+", " ");
+        return normalized.length() > MAX_MESSAGE_LENGTH ? normalized.substring(0, MAX_MESSAGE_LENGTH) : normalized;
+    }
+}
@@ -0,0 +1,310 @@
+package com.insider.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Answers questions about the results history kept by {@link ResultsStore}: how flaky each test is,
+ * how its duration is distributed, which page-object steps are slowest and which failure signatures
+ * are known to go away on their own. Only the most recent runs are considered, so that fixed
+ * problems age out of the answers. Can be run on demand to print a summary:
+ * <p>
+ * {@code ResultsQueries [flaky|durations|steps] [window]}
+ */
+public class ResultsQueries {
+    private static final Logger logger = LoggerFactory.getLogger(ResultsQueries.class);
+    private static final String RETRY = "RETRY";
+
+    private final Map<String, Flakiness> flakiness = new LinkedHashMap<>();
+    private final Map<String, Distribution> durations = new LinkedHashMap<>();
+    private final Map<String, Distribution> steps = new LinkedHashMap<>();
+    private final Map<String, Integer> flakySignatures = new HashMap<>();
+
+    /**
+     * How often a test changed its outcome between runs, or failed and then passed within a run.
+     */
+    public static class Flakiness {
+        private final String key;
+        private int runs;
+        private int failedRuns;
+        private int flips;
+        private int passedOnRetry;
+        private String lastOutcome;
+
+        Flakiness(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return the test key and dataset, see {@link ResultsStore#key}
+         */
+        public String getKey() {
+            return key;
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        public int getFailedRuns() {
+            return failedRuns;
+        }
+
+        /**
+         * @return number of consecutive runs whose final outcome differed
+         */
+        public int getFlips() {
+            return flips;
+        }
+
+        /**
+         * @return number of runs in which the test failed at first and passed when retried
+         */
+        public int getPassedOnRetry() {
+            return passedOnRetry;
+        }
+
+        /**
+         * @return share of the runs that showed the test to be flaky, between 0 and 1
+         */
+        public double getRate() {
+            return runs == 0 ? 0 : Math.min(1.0, (double) (flips + passedOnRetry) / runs);
+        }
+    }
+
+    /**
+     * Percentiles of a series of durations, in milliseconds.
+     */
+    public static class Distribution {
+        private final String name;
+        private final List<Long> values = new ArrayList<>();
+        private boolean sorted;
+
+        public Distribution(String name) {
+            this.name = name;
+        }
+
+        public void add(long value) {
+            values.add(value);
+            sorted = false;
+        }
+
+        public void addAll(Distribution other) {
+            values.addAll(other.values);
+            sorted = false;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return values.size();
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return the nearest-rank percentile, or 0 if there are no values
+         */
+        public long getPercentile(double percentile) {
+            if (values.isEmpty()) {
+                return 0;
+            }
+            if (!sorted) {
+                Collections.sort(values);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * values.size());
+            return values.get(Math.max(0, Math.min(values.size() - 1, rank - 1)));
+        }
+
+        public long getP50() {
+            return getPercentile(50);
+        }
+
+        public long getP90() {
+            return getPercentile(90);
+        }
+
+        public long getP95() {
+            return getPercentile(95);
+        }
+
+        public long getMax() {
+            return getPercentile(100);
+        }
+    }
+
+    /**
+     * Reads the history and answers all queries over the most recent runs.
+     *
+     * @param window number of most recent runs to consider
+     * @return the answers
+     */
+    public static ResultsQueries load(int window) {
+        ResultsQueries queries = new ResultsQueries();
+        Set<String> runs;
+        List<ResultsStore.Record> records;
+        try (Stream<ResultsStore.Record> all = ResultsStore.readAll()) {
+            records = all.collect(Collectors.toList());
+        }
+        runs = recentRuns(records.stream().map(ResultsStore.Record::getRunId), window);
+        queries.analyzeRecords(records.stream()
+            .filter(record -> runs.contains(record.getRunId()))
+            .collect(Collectors.toList()));
+        try (Stream<ResultsStore.Step> all = ResultsStore.readSteps()) {
+            all.filter(step -> runs.contains(step.getRunId()))
+                .forEach(step -> queries.steps.computeIfAbsent(step.getName(), Distribution::new)
+                    .add(step.getDurationMillis()));
+        }
+        logger.debug("Loaded {} records and {} step names from the last {} runs",
+            records.size(), queries.steps.size(), runs.size());
+        return queries;
+    }
+
+    private void analyzeRecords(List<ResultsStore.Record> records) {
+        // Attempts per test per run; a run's outcome is that of its last attempt
+        Map<String, Map<String, List<ResultsStore.Record>>> attempts = new LinkedHashMap<>();
+        for (ResultsStore.Record record : records) {
+            String key = ResultsStore.key(record.getTestKey(), record.getDataset());
+            attempts.computeIfAbsent(key, k -> new LinkedHashMap<>())
+                .computeIfAbsent(record.getRunId(), k -> new ArrayList<>()).add(record);
+            if ("PASS".equals(record.getStatus()) || "FAIL".equals(record.getStatus())) {
+                durations.computeIfAbsent(key, Distribution::new).add(record.getDurationMillis());
+            }
+        }
+
+        attempts.forEach((key, byRun) -> {
+            Flakiness stats = flakiness.computeIfAbsent(key, Flakiness::new);
+            List<String> pendingSignatures = new ArrayList<>();
+            for (List<ResultsStore.Record> run : byRun.values()) {
+                run.sort(Comparator.comparingLong(ResultsStore.Record::getTimestamp));
+                String outcome = run.get(run.size() - 1).getStatus();
+                if (!"PASS".equals(outcome) && !"FAIL".equals(outcome)) {
+                    continue;
+                }
+                stats.runs++;
+                boolean retried = run.stream().anyMatch(record -> RETRY.equals(record.getStatus()));
+                if ("PASS".equals(outcome)) {
+                    if (retried) {
+                        stats.passedOnRetry++;
+                    }
+                    // Failures that went away on a retry or by the next run are flaky
+                    run.stream().filter(record -> RETRY.equals(record.getStatus()))
+                        .forEach(record -> pendingSignatures.add(record.getFailureSignature()));
+                    pendingSignatures.stream().filter(signature -> !signature.isEmpty())
+                        .forEach(signature -> flakySignatures.merge(signature, 1, Integer::sum));
+                    pendingSignatures.clear();
+                } else {
+                    stats.failedRuns++;
+                    pendingSignatures.add(run.get(run.size() - 1).getFailureSignature());
+                }
+                if (stats.lastOutcome != null && !stats.lastOutcome.equals(outcome)) {
+                    stats.flips++;
+                }
+                stats.lastOutcome = outcome;
+            }
+        });
+    }
+
+    private static Set<String> recentRuns(Stream<String> runIds, int window) {
+        List<String> ordered = new ArrayList<>(runIds.collect(Collectors.toCollection(LinkedHashSet::new)));
+        return new LinkedHashSet<>(ordered.subList(Math.max(0, ordered.size() - window), ordered.size()));
+    }
+
+    /**
+     * @param key the test key and dataset, see {@link ResultsStore#key}
+     * @return the flakiness of the test, or null if it has no history
+     */
+    public Flakiness getFlakiness(String key) {
+        return flakiness.get(key);
+    }
+
+    /**
+     * @param minRate the lowest flakiness rate to include
+     * @return tests at or above the rate, flakiest first
+     */
+    public List<Flakiness> getFlakyTests(double minRate) {
+        return flakiness.values().stream()
+            .filter(stats -> stats.getRate() > 0 && stats.getRate() >= minRate)
+            .sorted(Comparator.comparingDouble(Flakiness::getRate).reversed())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @return duration distributions of all tests, slowest p95 first
+     */
+    public List<Distribution> getDurations() {
+        return sortedByP95(durations);
+    }
+
+    /**
+     * @param limit maximum number of steps to return
+     * @return the page-object steps with the highest p95 duration
+     */
+    public List<Distribution> getSlowestSteps(int limit) {
+        List<Distribution> sorted = sortedByP95(steps);
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * A signature is known to be flaky when a failure with it was followed by a pass of the same test,
+     * either on a retry or in the next run, at least the given number of times.
+     *
+     * @param signature the failure signature, see {@link FailureSignature}
+     * @param minOccurrences how often the failure must have gone away on its own
+     */
+    public boolean isKnownFlakySignature(String signature, int minOccurrences) {
+        return signature != null && !signature.isEmpty()
+            && flakySignatures.getOrDefault(signature, 0) >= minOccurrences;
+    }
+
+    private static List<Distribution> sortedByP95(Map<String, Distribution> distributions) {
+        return distributions.values().stream()
+            .sorted(Comparator.comparingLong(Distribution::getP95).reversed())
+            .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) {
+        String query = args.length > 0 ? args[0] : "flaky";
+        int window = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        ResultsQueries queries = load(window);
+        StringBuilder out = new StringBuilder();
+        switch (query) {
+            case "flaky":
+                out.append(String.format("%-70s %5s %6s %5s %7s %6s%n", "test", "runs", "failed", "flips", "retried", "rate"));
+                queries.getFlakyTests(0).forEach(stats -> out.append(String.format("%-70s %5d %6d %5d %7d %5.0f%%%n",
+                    stats.getKey(), stats.getRuns(), stats.getFailedRuns(), stats.getFlips(), stats.getPassedOnRetry(),
+                    stats.getRate() * 100)));
+                break;
+            case "durations":
+                appendDistributions(out, "test", queries.getDurations());
+                break;
+            case "steps":
+                appendDistributions(out, "step", queries.getSlowestSteps(Integer.MAX_VALUE));
+                break;
+            default:
+                throw new IllegalArgumentException("Usage: ResultsQueries [flaky|durations|steps] [window]");
+        }
+        logger.info("Results history, last {} runs:{}{}", window, System.lineSeparator(), out);
+    }
+
+    private static void appendDistributions(StringBuilder out, String label, List<Distribution> distributions) {
+        out.append(String.format("%-70s %5s %8s %8s %8s%n", label, "count", "p50 ms", "p95 ms", "max ms"));
+        distributions.forEach(distribution -> out.append(String.format("%-70s %5d %8d %8d %8d%n",
+            distribution.getName(), distribution.getCount(), distribution.getP50(), distribution.getP95(),
+            distribution.getMax())));
+    }
+}
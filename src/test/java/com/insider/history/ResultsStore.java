@@ -0,0 +1,400 @@
+package com.insider.history;
+
+import com.insider.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ITestResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, file-based store of historical test results.
+ * Each completed test is written as one tab-separated line so that runs can be
+ * appended cheaply and the file can be read back without any external database.
+ * The page-object steps of every test are kept the same way in a second file.
+ * {@link ResultsQueries} answers questions about the history, such as flakiness and duration trends.
+ */
+public class ResultsStore {
+    private static final Logger logger = LoggerFactory.getLogger(ResultsStore.class);
+    private static final String RESULTS_FILE = "results.tsv";
+    private static final String STEPS_FILE = "steps.tsv";
+
+    /** Result attribute holding the time the test spent in explicit waits, in milliseconds. */
+    public static final String WAIT_MILLIS_ATTRIBUTE = "results.wait.ms";
+    /** Result attribute holding the part of the wait time spent in waits whose failure was ignored. */
+    public static final String SWALLOWED_WAIT_MILLIS_ATTRIBUTE = "results.swallowed.wait.ms";
+
+    /** Identifies all records written by this JVM. */
+    public static final String RUN_ID = UUID.randomUUID().toString();
+
+    private ResultsStore() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * A single test execution as recorded in the store.
+     */
+    public static class Record {
+        private final String runId;
+        private final long timestamp;
+        private final String testKey;
+        private final String dataset;
+        private final String status;
+        private final long durationMillis;
+        private final String failureSignature;
+        private final long waitMillis;
+        private final long swallowedWaitMillis;
+
+        public Record(String runId, long timestamp, String testKey, String dataset,
+                      String status, long durationMillis) {
+            this(runId, timestamp, testKey, dataset, status, durationMillis, "", 0, 0);
+        }
+
+        public Record(String runId, long timestamp, String testKey, String dataset, String status,
+                      long durationMillis, String failureSignature, long waitMillis, long swallowedWaitMillis) {
+            this.runId = runId;
+            this.timestamp = timestamp;
+            this.testKey = testKey;
+            this.dataset = dataset;
+            this.status = status;
+            this.durationMillis = durationMillis;
+            this.failureSignature = failureSignature;
+            this.waitMillis = waitMillis;
+            this.swallowedWaitMillis = swallowedWaitMillis;
+        }
+
+        public String getRunId() {
+            return runId;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getTestKey() {
+            return testKey;
+        }
+
+        public String getDataset() {
+            return dataset;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * @return a short description of the failure, see {@link FailureSignature}; empty for passed tests
+         */
+        public String getFailureSignature() {
+            return failureSignature;
+        }
+
+        public long getWaitMillis() {
+            return waitMillis;
+        }
+
+        public long getSwallowedWaitMillis() {
+            return swallowedWaitMillis;
+        }
+
+        /**
+         * Creates the record of a finished test. A failed attempt that was retried is recorded as
+         * {@code RETRY}, so that a later pass in the same run shows the test to be flaky.
+         */
+        public static Record of(String runId, ITestResult result) {
+            boolean failed = result.getStatus() == ITestResult.FAILURE || result.wasRetried();
+            return new Record(runId, result.getStartMillis(), TestKeys.of(result.getMethod()),
+                TestKeys.dataset(result.getParameters()), result.wasRetried() ? "RETRY" : statusName(result.getStatus()),
+                result.getEndMillis() - result.getStartMillis(),
+                failed ? FailureSignature.of(result.getThrowable()) : "",
+                longAttribute(result, WAIT_MILLIS_ATTRIBUTE), longAttribute(result, SWALLOWED_WAIT_MILLIS_ATTRIBUTE));
+        }
+
+        String toLine() {
+            return String.join("\t", runId, String.valueOf(timestamp), sanitize(testKey),
+                sanitize(dataset), status, String.valueOf(durationMillis), sanitize(failureSignature),
+                String.valueOf(waitMillis), String.valueOf(swallowedWaitMillis));
+        }
+
+        static Record fromLine(String line) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length < 6) {
+                return null;
+            }
+            try {
+                // Lines written before failure signatures and wait times were recorded have six fields
+                if (fields.length < 9) {
+                    return new Record(fields[0], Long.parseLong(fields[1]), fields[2], fields[3],
+                        fields[4], Long.parseLong(fields[5]));
+                }
+                return new Record(fields[0], Long.parseLong(fields[1]), fields[2], fields[3],
+                    fields[4], Long.parseLong(fields[5]), fields[6], Long.parseLong(fields[7]),
+                    Long.parseLong(fields[8]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static long longAttribute(ITestResult result, String name) {
+            Object value = result.getAttribute(name);
+            return value instanceof Number ? ((Number) value).longValue() : 0;
+        }
+    }
+
+    /**
+     * A page-object step of a test, e.g. {@code JobsPage.filterByLocation}, as recorded in the store.
+     */
+    public static class Step {
+        private final String runId;
+        private final long timestamp;
+        private final String testKey;
+        private final String dataset;
+        private final String name;
+        private final long durationMillis;
+        private final String status;
+
+        /**
+         * Creates a step of the current test; the test's key is added when it is appended.
+         */
+        public Step(String name, long timestamp, long durationMillis, String status) {
+            this(RUN_ID, timestamp, "", "", name, durationMillis, status);
+        }
+
+        public Step(String runId, long timestamp, String testKey, String dataset, String name,
+                    long durationMillis, String status) {
+            this.runId = runId;
+            this.timestamp = timestamp;
+            this.testKey = testKey;
+            this.dataset = dataset;
+            this.name = name;
+            this.durationMillis = durationMillis;
+            this.status = status;
+        }
+
+        public String getRunId() {
+            return runId;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getTestKey() {
+            return testKey;
+        }
+
+        public String getDataset() {
+            return dataset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * @return {@code PASS} or {@code FAIL}
+         */
+        public String getStatus() {
+            return status;
+        }
+
+        String toLine(String testKey, String dataset) {
+            return String.join("\t", runId, String.valueOf(timestamp), sanitize(testKey), sanitize(dataset),
+                sanitize(name), String.valueOf(durationMillis), status);
+        }
+
+        static Step fromLine(String line) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length < 7) {
+                return null;
+            }
+            try {
+                return new Step(fields[0], Long.parseLong(fields[1]), fields[2], fields[3], fields[4],
+                    Long.parseLong(fields[5]), fields[6]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    public static Path getHistoryDir() {
+        return Paths.get(ConfigManager.getProperty("history.dir", "test-output/history"));
+    }
+
+    /**
+     * Appends the given records to the store in a single write.
+     *
+     * @param records the records to persist
+     */
+    public static void append(Collection<Record> records) {
+        appendTo(getHistoryDir().resolve(RESULTS_FILE), records);
+    }
+
+    /**
+     * Appends the given records to an arbitrary results file in a single write.
+     *
+     * @param file the results file to append to; parent directories are created as needed
+     * @param records the records to persist
+     */
+    public static synchronized void appendTo(Path file, Collection<Record> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Record record : records) {
+                    writer.write(record.toLine());
+                    writer.newLine();
+                }
+            }
+            logger.debug("Appended {} records to {}", records.size(), file);
+        } catch (IOException e) {
+            logger.warn("Failed to append results to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Estimates the duration of every known test key and dataset as the mean of its most recent runs.
+     *
+     * @param window number of most recent executions to average per key
+     * @return map of "testKey|dataset" to estimated duration in milliseconds
+     */
+    public static Map<String, Long> estimateDurations(int window) {
+        Map<String, Deque<Long>> recent = new HashMap<>();
+        try (Stream<Record> records = readAll()) {
+            records.forEach(record -> {
+                Deque<Long> durations = recent.computeIfAbsent(
+                    key(record.getTestKey(), record.getDataset()), k -> new ArrayDeque<>());
+                durations.addLast(record.getDurationMillis());
+                if (durations.size() > window) {
+                    durations.removeFirst();
+                }
+            });
+        }
+
+        Map<String, Long> estimates = new HashMap<>();
+        recent.forEach((key, durations) -> estimates.put(key,
+            (long) durations.stream().mapToLong(Long::longValue).average().orElse(0)));
+        return estimates;
+    }
+
+    /**
+     * Streams all records in the store in the order they were written.
+     * Malformed lines are skipped. The caller must close the stream.
+     */
+    public static Stream<Record> readAll() {
+        return readFrom(getHistoryDir().resolve(RESULTS_FILE));
+    }
+
+    /**
+     * Streams all records of an arbitrary results file. The caller must close the stream.
+     */
+    public static Stream<Record> readFrom(Path file) {
+        if (!Files.exists(file)) {
+            return Stream.empty();
+        }
+        try {
+            return Files.lines(file, StandardCharsets.UTF_8)
+                .map(Record::fromLine)
+                .filter(record -> record != null);
+        } catch (IOException e) {
+            logger.warn("Failed to read results from {}: {}", file, e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Appends the steps of one test in a single write.
+     *
+     * @param testKey key of the test, see {@link TestKeys#of}
+     * @param dataset dataset of the test, see {@link TestKeys#dataset}
+     * @param steps the steps, in the order they ran
+     */
+    public static synchronized void appendSteps(String testKey, String dataset, Collection<Step> steps) {
+        if (steps.isEmpty()) {
+            return;
+        }
+        Path file = getHistoryDir().resolve(STEPS_FILE);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Step step : steps) {
+                    writer.write(step.toLine(testKey, dataset));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to append steps to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Streams all recorded steps in the order they were written. The caller must close the stream.
+     */
+    public static Stream<Step> readSteps() {
+        Path file = getHistoryDir().resolve(STEPS_FILE);
+        if (!Files.exists(file)) {
+            return Stream.empty();
+        }
+        try {
+            return Files.lines(file, StandardCharsets.UTF_8)
+                .map(Step::fromLine)
+                .filter(step -> step != null);
+        } catch (IOException e) {
+            logger.warn("Failed to read steps from {}: {}", file, e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    public static String key(String testKey, String dataset) {
+        return testKey + "|" + dataset;
+    }
+
+    public static List<String> splitKey(String key) {
+        int separator = key.indexOf('|');
+        return List.of(key.substring(0, separator), key.substring(separator + 1));
+    }
+
+    public static String statusName(int status) {
+        switch (status) {
+            case ITestResult.SUCCESS:
+                return "PASS";
+            case ITestResult.FAILURE:
+                return "FAIL";
+            case ITestResult.SKIP:
+                return "SKIP";
+            default:
+                return "UNKNOWN";
+        }
+    }
+
+    private static String sanitize(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
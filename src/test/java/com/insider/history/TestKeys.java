@@ -0,0 +1,24 @@
+package com.insider.history;
+
+import org.testng.ITestNGMethod;
+
+import java.util.Arrays;
+
+/**
+ * Stable identifiers for test methods and data provider rows, shared by scheduling,
+ * sharding and the results store so that all of them agree on what "the same test" is.
+ */
+public class TestKeys {
+
+    private TestKeys() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static String of(ITestNGMethod method) {
+        return method.getRealClass().getName() + "." + method.getMethodName();
+    }
+
+    public static String dataset(Object[] parameters) {
+        return parameters == null || parameters.length == 0 ? "" : Arrays.toString(parameters);
+    }
+}
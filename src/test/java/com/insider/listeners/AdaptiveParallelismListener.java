@@ -0,0 +1,56 @@
+package com.insider.listeners;
+
+import com.insider.config.ConfigManager;
+import com.insider.driver.SessionGovernor;
+import com.insider.reporting.ReportManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IAlterSuiteListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+/**
+ * Enables adaptive parallelism when {@code adaptive.parallelism=true}.
+ * The TestNG thread pool is sized once to the configured upper bound, and {@link SessionGovernor}
+ * decides how many of those threads may hold a driver session at any time.
+ */
+public class AdaptiveParallelismListener implements IAlterSuiteListener, ISuiteListener, ITestListener {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveParallelismListener.class);
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        if (!ConfigManager.isAdaptiveParallelism()) {
+            return;
+        }
+        int maxSessions = ConfigManager.getIntProperty("adaptive.max.sessions",
+            Runtime.getRuntime().availableProcessors());
+        for (XmlSuite suite : suites) {
+            logger.info("Adaptive parallelism: raising thread-count of '{}' from {} to {}",
+                suite.getName(), suite.getThreadCount(), maxSessions);
+            suite.setThreadCount(maxSessions);
+            suite.setDataProviderThreadCount(maxSessions);
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        SessionGovernor.start();
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        if (ConfigManager.isAdaptiveParallelism()) {
+            ReportManager.setSystemInfo("Adaptive Parallelism", SessionGovernor.summary());
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        SessionGovernor.stop();
+    }
+}
@@ -0,0 +1,59 @@
+package com.insider.listeners;
+
+import com.insider.benchmark.SuiteBenchmark;
+import com.insider.context.TestContext;
+import org.testng.IAnnotationTransformer;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import org.testng.annotations.ITestAnnotation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+/**
+ * Times the phases of every invocation of a test for {@link SuiteBenchmark}: the
+ * {@code @BeforeMethod} as driver startup, the page-object steps of the test body and the
+ * {@code @AfterMethod} as teardown. Also makes every test run as often as the benchmark asks for.
+ * Added by {@link SuiteBenchmark} only, not by {@code testng.xml}.
+ */
+public class BenchmarkListener implements IAnnotationTransformer, IInvokedMethodListener {
+    private static final ThreadLocal<SuiteBenchmark.Iteration> iteration = new ThreadLocal<>();
+    private static final ThreadLocal<Long> started = new ThreadLocal<>();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        annotation.setInvocationCount(SuiteBenchmark.getInvocationCount());
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.getTestMethod().isBeforeMethodConfiguration()) {
+            iteration.set(new SuiteBenchmark.Iteration());
+        }
+        started.set(System.currentTimeMillis());
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        SuiteBenchmark.Iteration current = iteration.get();
+        Long start = started.get();
+        if (current == null || start == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (method.getTestMethod().isBeforeMethodConfiguration()) {
+            current.add(SuiteBenchmark.DRIVER_STARTUP, now - start);
+        } else if (method.isTestMethod()) {
+            TestContext context = TestContext.current();
+            current.addSteps(context != null ? context.getSteps() : Collections.emptyList(), start, now);
+            current.setPassed(testResult.isSuccess());
+        } else if (method.getTestMethod().isAfterMethodConfiguration()) {
+            current.add(SuiteBenchmark.TEARDOWN, now - start);
+            SuiteBenchmark.record(current);
+            iteration.remove();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.insider.listeners;
+
+import com.insider.config.ConfigManager;
+import com.insider.history.ResultsQueries;
+import com.insider.history.ResultsStore;
+import com.insider.history.TestKeys;
+import com.insider.reporting.ReportManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Orders test methods longest-processing-time-first using durations recorded in previous runs,
+ * so that long data-driven methods start early instead of stretching the end of a parallel run.
+ * A data-driven method is estimated as the sum of its datasets; the rows themselves keep the order
+ * of their source, since the rows of a non-parallel data provider run one after another anyway.
+ * Tests that have been flaky are expected to take longer, since they are likely to be retried.
+ * After each &lt;test&gt; it records the observed durations and reports predicted and actual makespan.
+ */
+public class DurationAwareScheduler implements IMethodInterceptor, ITestListener {
+    private static final Logger logger = LoggerFactory.getLogger(DurationAwareScheduler.class);
+
+    private final Map<String, Long> predictedMakespans = new ConcurrentHashMap<>();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!ConfigManager.getBooleanProperty("scheduling.enabled", true)) {
+            return methods;
+        }
+
+        Map<String, Long> methodEstimates = estimateMethodDurations();
+        long fallback = fallbackEstimate(methodEstimates);
+
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        ordered.sort(Comparator.comparingLong((IMethodInstance m) ->
+            methodEstimates.getOrDefault(TestKeys.of(m.getMethod()), fallback)).reversed());
+
+        List<Long> estimates = ordered.stream()
+            .map(m -> methodEstimates.getOrDefault(TestKeys.of(m.getMethod()), fallback))
+            .collect(Collectors.toList());
+        int workers = Math.max(1, context.getSuite().getXmlSuite().getThreadCount());
+        if (methodEstimates.isEmpty()) {
+            logger.info("No duration history yet, keeping declaration order for {} methods", ordered.size());
+            return ordered;
+        }
+        long predicted = predictMakespan(estimates, workers);
+        predictedMakespans.put(context.getName(), predicted);
+
+        logger.info("Scheduled {} methods longest-first on {} workers, predicted makespan {} ms",
+            ordered.size(), workers, predicted);
+        return ordered;
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        List<ITestResult> results = new ArrayList<>();
+        results.addAll(context.getPassedTests().getAllResults());
+        results.addAll(context.getFailedTests().getAllResults());
+        results.addAll(context.getSkippedTests().getAllResults());
+        if (results.isEmpty()) {
+            return;
+        }
+
+        ResultsStore.append(results.stream()
+            .map(result -> ResultsStore.Record.of(ResultsStore.RUN_ID, result))
+            .collect(Collectors.toList()));
+
+        long start = results.stream().mapToLong(ITestResult::getStartMillis).min().orElse(0);
+        long end = results.stream().mapToLong(ITestResult::getEndMillis).max().orElse(0);
+        long actual = end - start;
+        Long predicted = predictedMakespans.get(context.getName());
+
+        logger.info("Makespan for '{}': predicted {} ms, actual {} ms", context.getName(),
+            predicted != null ? predicted : "n/a", actual);
+        ReportManager.setSystemInfo("Predicted Makespan (ms)",
+            predicted != null ? String.valueOf(predicted) : "n/a");
+        ReportManager.setSystemInfo("Actual Makespan (ms)", String.valueOf(actual));
+    }
+
+    /**
+     * Predicts the makespan of greedy list scheduling, which is what a fixed thread pool does
+     * with an ordered queue of work.
+     */
+    static long predictMakespan(List<Long> durations, int workers) {
+        PriorityQueue<Long> loads = new PriorityQueue<>();
+        for (int i = 0; i < workers; i++) {
+            loads.add(0L);
+        }
+        for (long duration : durations) {
+            loads.add(loads.poll() + duration);
+        }
+        return loads.stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    private static Map<String, Long> estimateMethodDurations() {
+        Map<String, Long> methodEstimates = new HashMap<>();
+        estimateDurations().forEach((key, duration) ->
+            methodEstimates.merge(ResultsStore.splitKey(key).get(0), duration, Long::sum));
+        return methodEstimates;
+    }
+
+    /**
+     * Estimates each test's duration from its history. When failed tests may be retried, a flaky test
+     * is expected to run again in proportion to its flakiness, so its estimate grows accordingly.
+     */
+    private static Map<String, Long> estimateDurations() {
+        Map<String, Long> estimates = ResultsStore.estimateDurations(historyWindow());
+        if (ConfigManager.getBooleanProperty("retry.enabled", true) && !estimates.isEmpty()) {
+            ResultsQueries history = ResultsQueries.load(ConfigManager.getIntProperty("results.history.window", 20));
+            estimates.replaceAll((key, duration) -> {
+                ResultsQueries.Flakiness flakiness = history.getFlakiness(key);
+                return flakiness == null ? duration : Math.round(duration * (1 + flakiness.getRate()));
+            });
+        }
+        return estimates;
+    }
+
+    private static long fallbackEstimate(Map<String, Long> estimates) {
+        return (long) estimates.values().stream().mapToLong(Long::longValue).average().orElse(0);
+    }
+
+    private static int historyWindow() {
+        return ConfigManager.getIntProperty("scheduling.history.window", 5);
+    }
+}
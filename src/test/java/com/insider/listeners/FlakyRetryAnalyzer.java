@@ -0,0 +1,71 @@
+package com.insider.listeners;
+
+import com.insider.config.ConfigManager;
+import com.insider.history.FailureSignature;
+import com.insider.history.ResultsQueries;
+import com.insider.history.ResultsStore;
+import com.insider.history.TestKeys;
+import com.insider.reporting.ReportManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+
+/**
+ * Retries a failed test only when the results history says the failure is likely not real: the test
+ * has been flaky in recent runs, or the failure's signature has gone away on its own before. Tests
+ * with a clean history fail on the first attempt, so that new regressions are not hidden by retries.
+ * Installed on every test by {@link RetryTransformer}.
+ */
+public class FlakyRetryAnalyzer implements IRetryAnalyzer {
+    private static final Logger logger = LoggerFactory.getLogger(FlakyRetryAnalyzer.class);
+
+    // Loaded once per run, so that retries are decided on the history as it was when the run started
+    private static volatile ResultsQueries history;
+
+    private int attempts;
+
+    @Override
+    public boolean retry(ITestResult result) {
+        int maxAttempts = ConfigManager.getIntProperty("retry.max.attempts", 1);
+        if (attempts >= maxAttempts) {
+            return false;
+        }
+        String key = ResultsStore.key(TestKeys.of(result.getMethod()), TestKeys.dataset(result.getParameters()));
+        String reason = reason(key, FailureSignature.of(result.getThrowable()));
+        if (reason == null) {
+            return false;
+        }
+        attempts++;
+        logger.warn("Retrying {} ({}/{}): {}", key, attempts, maxAttempts, reason);
+        ReportManager.logWarning("Retrying (" + attempts + "/" + maxAttempts + "): " + reason);
+        return true;
+    }
+
+    /**
+     * @return why the failure should be retried, or null if it should not
+     */
+    static String reason(String key, String signature) {
+        ResultsQueries queries = history();
+        ResultsQueries.Flakiness flakiness = queries.getFlakiness(key);
+        double threshold = ConfigManager.getDoubleProperty("retry.flakiness.threshold", 0.1);
+        if (flakiness != null && flakiness.getRate() > 0 && flakiness.getRate() >= threshold) {
+            return String.format("flaky in %.0f%% of the last %d runs", flakiness.getRate() * 100, flakiness.getRuns());
+        }
+        if (queries.isKnownFlakySignature(signature, ConfigManager.getIntProperty("retry.signature.min.occurrences", 2))) {
+            return "known flaky failure " + signature;
+        }
+        return null;
+    }
+
+    private static ResultsQueries history() {
+        if (history == null) {
+            synchronized (FlakyRetryAnalyzer.class) {
+                if (history == null) {
+                    history = ResultsQueries.load(ConfigManager.getIntProperty("results.history.window", 20));
+                }
+            }
+        }
+        return history;
+    }
+}
@@ -0,0 +1,60 @@
+package com.insider.listeners;
+
+import com.insider.metrics.LiveMetrics;
+import com.insider.metrics.MetricsServer;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts test outcomes for {@link LiveMetrics} and serves them through {@link MetricsServer} from the
+ * start of the suite until it finishes, when {@code metrics.server.enabled=true}.
+ */
+public class LiveMetricsListener implements ISuiteListener, ITestListener {
+    private final Set<ITestResult> started = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void onStart(ISuite suite) {
+        LiveMetrics.setThreadCount(suite.getXmlSuite().getThreadCount());
+        MetricsServer.start();
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        started.add(result);
+        LiveMetrics.testStarted();
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        finished(result, LiveMetrics.Outcome.PASSED);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        finished(result, LiveMetrics.Outcome.FAILED);
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        finished(result, LiveMetrics.Outcome.PASSED);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        finished(result, result.wasRetried() ? LiveMetrics.Outcome.RETRIED : LiveMetrics.Outcome.SKIPPED);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        MetricsServer.stop();
+    }
+
+    private void finished(ITestResult result, LiveMetrics.Outcome outcome) {
+        LiveMetrics.testFinished(outcome, started.remove(result));
+    }
+}
@@ -0,0 +1,28 @@
+package com.insider.listeners;
+
+import com.insider.config.ConfigManager;
+import org.testng.IAnnotationTransformer;
+import org.testng.annotations.ITestAnnotation;
+import org.testng.internal.annotations.DisabledRetryAnalyzer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Installs {@link FlakyRetryAnalyzer} on every test that does not declare a retry analyzer of its own.
+ * Enabled with {@code retry.enabled}.
+ */
+public class RetryTransformer implements IAnnotationTransformer {
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        if (!ConfigManager.getBooleanProperty("retry.enabled", true)) {
+            return;
+        }
+        Class<?> declared = annotation.getRetryAnalyzerClass();
+        if (declared == null || declared == DisabledRetryAnalyzer.class) {
+            annotation.setRetryAnalyzer(FlakyRetryAnalyzer.class);
+        }
+    }
+}
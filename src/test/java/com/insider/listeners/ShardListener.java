@@ -0,0 +1,70 @@
+package com.insider.listeners;
+
+import com.insider.history.ResultsStore;
+import com.insider.history.TestKeys;
+import com.insider.sharding.JUnitXml;
+import com.insider.sharding.Shard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IDataProviderInterceptor;
+import org.testng.IDataProviderMethod;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Restricts a sharded run to the methods owned by this shard and writes the shard's partial
+ * results (JUnit XML and timings) so that {@link com.insider.sharding.ShardMerger} can combine them.
+ * Data-driven methods are kept on every shard and their rows are split instead.
+ */
+public class ShardListener implements IMethodInterceptor, IDataProviderInterceptor, ITestListener {
+    private static final Logger logger = LoggerFactory.getLogger(ShardListener.class);
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!Shard.isEnabled()) {
+            return methods;
+        }
+        List<IMethodInstance> owned = methods.stream()
+            .filter(m -> m.getMethod().isDataDriven() || Shard.owns(TestKeys.of(m.getMethod())))
+            .collect(Collectors.toList());
+        logger.info("Running {} of {} methods on {}", owned.size(), methods.size(), Shard.label());
+        return owned;
+    }
+
+    @Override
+    public Iterator<Object[]> intercept(Iterator<Object[]> original, IDataProviderMethod dataProviderMethod,
+                                        ITestNGMethod method, ITestContext context) {
+        return Shard.isEnabled() ? Shard.filter(method, original) : original;
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        if (!Shard.isEnabled()) {
+            return;
+        }
+        List<ITestResult> results = new ArrayList<>();
+        results.addAll(context.getPassedTests().getAllResults());
+        results.addAll(context.getFailedTests().getAllResults());
+        results.addAll(context.getSkippedTests().getAllResults());
+
+        JUnitXml.write(JUnitXml.fromResults(context.getName() + " (" + Shard.label() + ")", results),
+            Shard.outputDir().resolve("junit-" + fileSafe(context.getName()) + ".xml"));
+        ResultsStore.appendTo(Shard.outputDir().resolve("timings.tsv"), results.stream()
+            .map(result -> ResultsStore.Record.of(ResultsStore.RUN_ID, result))
+            .collect(Collectors.toList()));
+        logger.info("Wrote partial results for {} tests to {}", results.size(), Shard.outputDir());
+    }
+
+    private static String fileSafe(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -1,16 +1,64 @@
 package com.insider.listeners;
 
+import com.insider.config.ConfigManager;
+import com.insider.context.TestContext;
+import com.insider.evidence.EvidenceService;
+import com.insider.history.ResultsStore;
+import com.insider.history.TestKeys;
+import com.insider.metrics.CommandMetrics;
+import com.insider.metrics.WaitMetrics;
 import com.insider.reporting.ReportManager;
+import org.slf4j.MDC;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestContext;
 import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
 import org.testng.ITestResult;
 
-public class TestListener implements ITestListener {
+import java.util.List;
+
+/**
+ * Reports test lifecycle events and binds a {@link TestContext} to each test's thread. While the context is
+ * open, the thread's log lines carry the test's correlation id and name in the MDC keys {@code testId}
+ * and {@code test}; {@link com.insider.pages.BasePage} adds the running page step as {@code step}.
+ */
+public class TestListener implements ITestListener, IInvokedMethodListener {
+    public static final String MDC_TEST_ID = "testId";
+    public static final String MDC_TEST = "test";
+    
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        // @BeforeMethod runs before onTestStart, so the context has to exist by then
+        if (method.getTestMethod().isBeforeMethodConfiguration()) {
+            openContextIfAbsent(method.getTestMethod());
+        }
+    }
+    
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        TestContext context = TestContext.current();
+        if (context == null) {
+            return;
+        }
+        if (method.getTestMethod().isAfterMethodConfiguration()) {
+            if (context.afterMethodFinished() <= 0) {
+                closeContext(context);
+            }
+        } else if (method.isTestMethod()
+                && method.getTestMethod().getTestClass().getAfterTestMethods().length == 0) {
+            closeContext(context);
+        }
+    }
     
     @Override
     public void onTestStart(ITestResult result) {
         String testName = result.getMethod().getMethodName();
         String description = result.getMethod().getDescription();
         
+        openContextIfAbsent(result.getMethod()).setTestName(testName);
+        // A context opened for a @BeforeMethod was named after it
+        MDC.put(MDC_TEST, TestKeys.of(result.getMethod()));
         if (description != null && !description.isEmpty()) {
             ReportManager.createTest(testName, description);
         } else {
@@ -24,6 +72,11 @@ public class TestListener implements ITestListener {
     public void onTestSuccess(ITestResult result) {
         String testName = result.getMethod().getMethodName();
         ReportManager.logPass("Test passed: " + testName);
+        long slowTestMillis = ConfigManager.getIntProperty("network.har.slow.test.ms", 60000);
+        if (slowTestMillis > 0 && result.getEndMillis() - result.getStartMillis() >= slowTestMillis) {
+            EvidenceService.captureNetwork(testName + "_SLOW");
+        }
+        publishMetrics(result);
     }
     
     @Override
@@ -33,6 +86,8 @@ public class TestListener implements ITestListener {
             result.getThrowable().getMessage() : "Unknown error";
         
         ReportManager.logFail("Test failed: " + testName + " - " + errorMessage);
+        EvidenceService.captureFailure(testName, result.getThrowable());
+        publishMetrics(result);
     }
     
     @Override
@@ -42,6 +97,11 @@ public class TestListener implements ITestListener {
             result.getSkipCausedBy().toString() : "Test was skipped";
         
         ReportManager.logSkip("Test skipped: " + testName + " - " + skipReason);
+        if (result.wasRetried()) {
+            // A failed attempt that is retried ends here rather than in onTestFailure
+            EvidenceService.captureFailure(testName, result.getThrowable());
+            publishMetrics(result);
+        }
     }
     
     @Override
@@ -49,4 +109,49 @@ public class TestListener implements ITestListener {
         String testName = result.getMethod().getMethodName();
         ReportManager.logWarning("Test failed but within success percentage: " + testName);
     }
+    
+    private static void publishMetrics(ITestResult result) {
+        String testKey = ResultsStore.key(TestKeys.of(result.getMethod()), TestKeys.dataset(result.getParameters()));
+        CommandMetrics.publish(testKey);
+        WaitMetrics.publish(testKey);
+        recordHistory(result);
+    }
+    
+    // Adds what only the test context knows to the result, which DurationAwareScheduler writes to the history
+    private static void recordHistory(ITestResult result) {
+        TestContext context = TestContext.current();
+        if (context == null) {
+            return;
+        }
+        WaitMetrics.Totals waits = context.getWaitMetrics().getTotal();
+        result.setAttribute(ResultsStore.WAIT_MILLIS_ATTRIBUTE, waits.getElapsedMillis());
+        result.setAttribute(ResultsStore.SWALLOWED_WAIT_MILLIS_ATTRIBUTE, waits.getSwallowedMillis());
+        ResultsStore.appendSteps(TestKeys.of(result.getMethod()), TestKeys.dataset(result.getParameters()),
+            context.getSteps());
+    }
+    
+    private static TestContext openContextIfAbsent(ITestNGMethod method) {
+        TestContext context = TestContext.current();
+        if (context == null) {
+            context = TestContext.open(method.getMethodName());
+            context.expectAfterMethods(method.getTestClass().getAfterTestMethods().length);
+            MDC.put(MDC_TEST_ID, context.getCorrelationId());
+            MDC.put(MDC_TEST, TestKeys.of(method));
+        }
+        return context;
+    }
+    
+    private static void closeContext(TestContext context) {
+        context.close();
+        MDC.remove(MDC_TEST_ID);
+        MDC.remove(MDC_TEST);
+    }
+    
+    @Override
+    public void onFinish(ITestContext context) {
+        List<String> leaks = TestContext.closeLeakedContexts();
+        if (!leaks.isEmpty()) {
+            ReportManager.setSystemInfo("Leaked Test Contexts", String.join("; ", leaks));
+        }
+    }
 }
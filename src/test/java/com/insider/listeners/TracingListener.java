@@ -0,0 +1,53 @@
+package com.insider.listeners;
+
+import com.insider.history.TestKeys;
+import com.insider.tracing.Span;
+import com.insider.tracing.TraceExporter;
+import com.insider.tracing.Tracer;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+/**
+ * Opens a root span for every test and configuration method, so that page actions, waits and driver
+ * commands are grouped under the test that ran them, and exports the trace when the suite finishes.
+ */
+public class TracingListener implements IInvokedMethodListener, ISuiteListener {
+    private static final String SPAN_ATTRIBUTE = "tracing.span";
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        ITestNGMethod testMethod = method.getTestMethod();
+        Span span = Tracer.start(testMethod.getRealClass().getSimpleName() + "." + testMethod.getMethodName(),
+            method.isTestMethod() ? Span.Category.TEST : Span.Category.CONFIG);
+        if (span != null) {
+            if (method.isTestMethod() && testResult.getParameters().length > 0) {
+                span.setAttribute("dataset", TestKeys.dataset(testResult.getParameters()));
+            }
+            testResult.setAttribute(SPAN_ATTRIBUTE, span);
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        Span span = (Span) testResult.getAttribute(SPAN_ATTRIBUTE);
+        if (span == null) {
+            return;
+        }
+        testResult.removeAttribute(SPAN_ATTRIBUTE);
+        if (testResult.getStatus() == ITestResult.SKIP) {
+            span.setAttribute("skipped", true);
+        }
+        Tracer.end(span, testResult.getStatus() == ITestResult.FAILURE ? testResult.getThrowable() : null);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (Tracer.isEnabled()) {
+            TraceExporter.export();
+        }
+    }
+}
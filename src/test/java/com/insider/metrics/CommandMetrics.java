@@ -0,0 +1,226 @@
+package com.insider.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.insider.artifacts.ArtifactStore;
+import com.insider.config.ConfigManager;
+import com.insider.context.TestContext;
+import com.insider.reporting.ReportManager;
+import com.insider.sharding.Shard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Counts and latency histograms of the WebDriver commands sent by the tests, keyed by command
+ * (e.g. {@code WebElement.click}) and by the page-object method that issued them
+ * (e.g. {@code JobsPage.filterByLocation}).
+ * <p>
+ * Each {@link TestContext} has its own instance, published to the test's report node when the test
+ * finishes; a run-wide instance is exported to {@code test-output/metrics/} when the report is closed,
+ * together with the command count of every test. Counts that grew by more than
+ * {@code driver.command.metrics.regression.percent} since the previous export are reported as warnings.
+ */
+public class CommandMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(CommandMetrics.class);
+    private static final String METRICS_DIR = "test-output/metrics/";
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+
+    /** Caller of commands sent outside any page object, e.g. from a test or a listener. */
+    public static final String NO_PAGE = "(no page)";
+
+    private static final CommandMetrics run = new CommandMetrics();
+    private static final Map<String, Long> commandsPerTest = new ConcurrentSkipListMap<>();
+
+    private final Map<String, LatencyHistogram> byCommand = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> byCaller = new ConcurrentHashMap<>();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("driver.command.metrics", false);
+    }
+
+    /**
+     * Records one command round trip for the current test, if any, and for the run.
+     *
+     * @param command the command, e.g. {@code WebDriver.findElement}
+     * @param caller the page-object method that sent it, or {@link #NO_PAGE}
+     * @param nanos round-trip time
+     */
+    public static void record(String command, String caller, long nanos) {
+        TestContext context = TestContext.current();
+        if (context != null) {
+            context.getCommandMetrics().add(command, caller, nanos);
+        }
+        run.add(command, caller, nanos);
+    }
+
+    /**
+     * @return the latency histogram of all commands sent in this run so far
+     */
+    public static LatencyHistogram getRunTotal() {
+        return run.total;
+    }
+
+    /**
+     * Adds a summary of the current test's commands to its report node and remembers its command count.
+     *
+     * @param testKey key of the test, as used by {@link com.insider.history.ResultsStore}
+     */
+    public static void publish(String testKey) {
+        TestContext context = TestContext.current();
+        if (context == null || context.getCommandMetrics().total.getCount() == 0) {
+            return;
+        }
+        CommandMetrics metrics = context.getCommandMetrics();
+        commandsPerTest.put(testKey, metrics.total.getCount());
+        int top = ConfigManager.getIntProperty("driver.command.metrics.top", 10);
+        ReportManager.logInfo("WebDriver commands: " + metrics.total.getCount() + " in "
+            + metrics.total.getTotalMillis() + " ms",
+            table("Page method", metrics.byCaller, top) + table("Command", metrics.byCommand, top));
+    }
+
+    /**
+     * Writes the run's metrics and compares the per-test command counts with the previous export.
+     *
+     * @return a one-line summary for the report, or null if no commands were recorded
+     */
+    public static String export() {
+        if (run.total.getCount() == 0) {
+            return null;
+        }
+        Path dir = Paths.get(METRICS_DIR);
+        Optional<Path> previous = latestExport(dir);
+        String suffix = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"))
+            + (Shard.isEnabled() ? "_" + Shard.label() : "");
+        Path file = dir.resolve("commands_" + suffix + ".json");
+
+        JsonObject json = new JsonObject();
+        json.add("total", describe(run.total));
+        json.add("byCommand", describeAll(run.byCommand));
+        json.add("byPageMethod", describeAll(run.byCaller));
+        json.add("commandsPerTest", gson.toJsonTree(commandsPerTest));
+        try {
+            Files.createDirectories(dir);
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                gson.toJson(json, writer);
+            }
+            ArtifactStore.record(file.toString().replace('\\', '/'), "metrics");
+        } catch (IOException e) {
+            logger.warn("Failed to write command metrics to {}: {}", file, e.getMessage());
+        }
+
+        List<String> regressions = previous.map(CommandMetrics::findRegressions).orElseGet(ArrayList::new);
+        regressions.forEach(regression -> logger.warn("WebDriver command count regression: {}", regression));
+        String chattiest = run.byCaller.entrySet().stream()
+            .filter(entry -> !NO_PAGE.equals(entry.getKey()))
+            .max(Comparator.comparingLong(entry -> entry.getValue().getCount()))
+            .map(entry -> ", chattiest " + entry.getKey() + " (" + entry.getValue().getCount() + ")")
+            .orElse("");
+        logger.info("Exported WebDriver command metrics to {}", file);
+        return run.total.getCount() + " commands in " + run.total.getTotalMillis() + " ms" + chattiest
+            + (regressions.isEmpty() ? "" : "; count regressions: " + String.join("; ", regressions));
+    }
+
+    void add(String command, String caller, long nanos) {
+        byCommand.computeIfAbsent(command, key -> new LatencyHistogram()).record(nanos);
+        byCaller.computeIfAbsent(caller, key -> new LatencyHistogram()).record(nanos);
+        total.record(nanos);
+    }
+
+    private static List<String> findRegressions(Path previousExport) {
+        List<String> regressions = new ArrayList<>();
+        int thresholdPercent = ConfigManager.getIntProperty("driver.command.metrics.regression.percent", 20);
+        try (Reader reader = Files.newBufferedReader(previousExport, StandardCharsets.UTF_8)) {
+            JsonObject previousCounts = JsonParser.parseReader(reader).getAsJsonObject()
+                .getAsJsonObject("commandsPerTest");
+            if (previousCounts == null) {
+                return regressions;
+            }
+            for (Map.Entry<String, Long> entry : commandsPerTest.entrySet()) {
+                if (!previousCounts.has(entry.getKey())) {
+                    continue;
+                }
+                long before = previousCounts.get(entry.getKey()).getAsLong();
+                long now = entry.getValue();
+                if (before > 0 && (now - before) * 100 > before * thresholdPercent) {
+                    regressions.add(entry.getKey() + " " + before + " -> " + now);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not compare with previous command metrics {}: {}", previousExport, e.getMessage());
+        }
+        return regressions;
+    }
+
+    private static Optional<Path> latestExport(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            // Timestamped names sort chronologically
+            return files.filter(path -> path.getFileName().toString().startsWith("commands_"))
+                .max(Comparator.comparing(path -> path.getFileName().toString()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static JsonObject describeAll(Map<String, LatencyHistogram> histograms) {
+        JsonObject json = new JsonObject();
+        sorted(histograms).forEach(entry -> json.add(entry.getKey(), describe(entry.getValue())));
+        return json;
+    }
+
+    private static JsonObject describe(LatencyHistogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", histogram.getCount());
+        json.addProperty("totalMs", histogram.getTotalMillis());
+        json.addProperty("meanMs", Math.round(histogram.getMeanMillis() * 10) / 10.0);
+        json.addProperty("p50Ms", histogram.getPercentileMillis(50));
+        json.addProperty("p95Ms", histogram.getPercentileMillis(95));
+        json.addProperty("maxMs", histogram.getMaxMillis());
+        json.add("buckets", gson.toJsonTree(histogram.getBuckets()));
+        return json;
+    }
+
+    private static String table(String heading, Map<String, LatencyHistogram> histograms, int top) {
+        StringBuilder html = new StringBuilder("<table class='table table-sm'><tr><th>").append(heading)
+            .append("</th><th>Count</th><th>Total ms</th><th>p50 ms</th><th>p95 ms</th><th>Max ms</th></tr>");
+        sorted(histograms).stream().limit(top).forEach(entry -> html.append("<tr><td>").append(entry.getKey())
+            .append("</td><td>").append(entry.getValue().getCount())
+            .append("</td><td>").append(entry.getValue().getTotalMillis())
+            .append("</td><td>").append(entry.getValue().getPercentileMillis(50))
+            .append("</td><td>").append(entry.getValue().getPercentileMillis(95))
+            .append("</td><td>").append(entry.getValue().getMaxMillis()).append("</td></tr>"));
+        return html.append("</table>").toString();
+    }
+
+    // Most commands first
+    private static List<Map.Entry<String, LatencyHistogram>> sorted(Map<String, LatencyHistogram> histograms) {
+        return histograms.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> entry) -> entry.getValue().getCount())
+                .reversed().thenComparing(Map.Entry::getKey))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,66 @@
+package com.insider.metrics;
+
+import com.insider.pages.BasePage;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Times every WebDriver command sent through a decorated driver and attributes it to the nearest
+ * page-object method on the calling stack. Commands are recorded in {@link CommandMetrics}.
+ */
+public class CommandMetricsListener implements WebDriverListener {
+    private static final StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final ThreadLocal<Deque<Long>> startTimes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        startTimes.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(method);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(method);
+    }
+
+    private void finish(Method method) {
+        Deque<Long> starts = startTimes.get();
+        if (starts.isEmpty()) {
+            return;
+        }
+        long nanos = System.nanoTime() - starts.pop();
+        if (starts.isEmpty()) {
+            startTimes.remove();
+        }
+        CommandMetrics.record(method.getDeclaringClass().getSimpleName() + "." + method.getName(), caller(), nanos);
+    }
+
+    /**
+     * @return the innermost page-object method on the stack, e.g. {@code JobsPage.filterByLocation}
+     */
+    static String caller() {
+        return walker.walk(frames -> frames
+            .filter(frame -> BasePage.class.isAssignableFrom(frame.getDeclaringClass())
+                && frame.getDeclaringClass() != BasePage.class)
+            .findFirst()
+            .map(frame -> frame.getDeclaringClass().getSimpleName() + "." + methodName(frame.getMethodName()))
+            .orElse(CommandMetrics.NO_PAGE));
+    }
+
+    // Page actions run inside BasePage.step lambdas, named like lambda$filterByLocation$2
+    private static String methodName(String frameMethod) {
+        if (frameMethod.startsWith("lambda$")) {
+            int end = frameMethod.indexOf('$', "lambda$".length());
+            return end > 0 ? frameMethod.substring("lambda$".length(), end) : frameMethod;
+        }
+        return frameMethod;
+    }
+}
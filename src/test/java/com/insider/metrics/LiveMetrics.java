@@ -0,0 +1,237 @@
+package com.insider.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.insider.driver.SessionGovernor;
+import com.insider.sharding.Shard;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and resource use of the running suite, as served by {@link MetricsServer}. Test outcomes are
+ * counted by {@link com.insider.listeners.LiveMetricsListener}; sessions, waits and WebDriver commands
+ * are read from {@link SessionGovernor}, {@link WaitMetrics} and {@link CommandMetrics} when a snapshot
+ * is taken. Commands are only counted with {@code driver.command.metrics=true}, so the command series
+ * are left out otherwise rather than reported as a constant 0.
+ */
+public class LiveMetrics {
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private static final String PREFIX = "qa_";
+
+    private static final long startNanos = System.nanoTime();
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicLong passed = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+    private static final AtomicLong skipped = new AtomicLong();
+    private static final AtomicLong retried = new AtomicLong();
+    private static volatile int threadCount = 1;
+
+    // Previous sample of the command count, for the commands-per-second rate
+    private static long sampleNanos = startNanos;
+    private static long sampleCommands;
+    private static double commandsPerSecond;
+
+    private LiveMetrics() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * @param threadCount number of test threads, the session limit when adaptive parallelism is off
+     */
+    public static void setThreadCount(int threadCount) {
+        LiveMetrics.threadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * How a test attempt ended.
+     */
+    public enum Outcome {
+        PASSED, FAILED, SKIPPED,
+        /** Failed and about to be retried. */
+        RETRIED
+    }
+
+    public static void testStarted() {
+        running.incrementAndGet();
+    }
+
+    /**
+     * @param outcome how the attempt ended
+     * @param started whether the attempt was counted as started; tests skipped before they ran were not
+     */
+    public static void testFinished(Outcome outcome, boolean started) {
+        if (started) {
+            running.decrementAndGet();
+        }
+        switch (outcome) {
+            case PASSED:
+                passed.incrementAndGet();
+                break;
+            case FAILED:
+                failed.incrementAndGet();
+                break;
+            case RETRIED:
+                retried.incrementAndGet();
+                break;
+            default:
+                skipped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the current metrics in the Prometheus text exposition format
+     */
+    public static String toPrometheus() {
+        Snapshot snapshot = snapshot();
+        StringBuilder text = new StringBuilder();
+        gauge(text, "tests_running", "Tests currently running", snapshot.running);
+        text.append("# HELP ").append(PREFIX).append("tests_total Finished test attempts by outcome\n")
+            .append("# TYPE ").append(PREFIX).append("tests_total counter\n");
+        sample(text, "tests_total{status=\"passed\"}", snapshot.passed);
+        sample(text, "tests_total{status=\"failed\"}", snapshot.failed);
+        sample(text, "tests_total{status=\"skipped\"}", snapshot.skipped);
+        sample(text, "tests_total{status=\"retried\"}", snapshot.retried);
+        gauge(text, "driver_sessions_open", "Open WebDriver sessions", snapshot.sessionsOpen);
+        gauge(text, "driver_session_limit", "Maximum concurrent WebDriver sessions", snapshot.sessionLimit);
+        gauge(text, "driver_pool_utilization", "Open sessions as a share of the limit", snapshot.poolUtilization);
+        counter(text, "wait_seconds_total", "Time spent in explicit waits", snapshot.waitSeconds);
+        counter(text, "wait_swallowed_seconds_total", "Time spent in waits whose failure was ignored",
+            snapshot.swallowedWaitSeconds);
+        if (snapshot.commandsCounted) {
+            counter(text, "webdriver_commands_total", "WebDriver commands sent", snapshot.commands);
+            gauge(text, "webdriver_commands_per_second", "WebDriver commands per second since the previous scrape",
+                snapshot.commandsPerSecond);
+        }
+        gauge(text, "jvm_heap_used_bytes", "Used JVM heap", snapshot.heapUsedBytes);
+        gauge(text, "jvm_heap_max_bytes", "Maximum JVM heap", snapshot.heapMaxBytes);
+        gauge(text, "run_uptime_seconds", "Time since the run started", snapshot.uptimeSeconds);
+        return text.toString();
+    }
+
+    /**
+     * @return the current metrics as a JSON object
+     */
+    public static String toJson() {
+        Snapshot snapshot = snapshot();
+        JsonObject tests = new JsonObject();
+        tests.addProperty("running", snapshot.running);
+        tests.addProperty("passed", snapshot.passed);
+        tests.addProperty("failed", snapshot.failed);
+        tests.addProperty("skipped", snapshot.skipped);
+        tests.addProperty("retried", snapshot.retried);
+        JsonObject sessions = new JsonObject();
+        sessions.addProperty("open", snapshot.sessionsOpen);
+        sessions.addProperty("limit", snapshot.sessionLimit);
+        sessions.addProperty("utilization", snapshot.poolUtilization);
+        JsonObject waits = new JsonObject();
+        waits.addProperty("seconds", snapshot.waitSeconds);
+        waits.addProperty("swallowedSeconds", snapshot.swallowedWaitSeconds);
+        JsonObject jvm = new JsonObject();
+        jvm.addProperty("heapUsedBytes", snapshot.heapUsedBytes);
+        jvm.addProperty("heapMaxBytes", snapshot.heapMaxBytes);
+
+        JsonObject json = new JsonObject();
+        if (Shard.isEnabled()) {
+            json.addProperty("shard", Shard.label());
+        }
+        json.addProperty("uptimeSeconds", snapshot.uptimeSeconds);
+        json.add("tests", tests);
+        json.add("sessions", sessions);
+        json.add("waits", waits);
+        if (snapshot.commandsCounted) {
+            JsonObject commands = new JsonObject();
+            commands.addProperty("total", snapshot.commands);
+            commands.addProperty("perSecond", snapshot.commandsPerSecond);
+            json.add("commands", commands);
+        }
+        json.add("jvm", jvm);
+        return gson.toJson(json);
+    }
+
+    private static Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        long now = System.nanoTime();
+        snapshot.running = running.get();
+        snapshot.passed = passed.get();
+        snapshot.failed = failed.get();
+        snapshot.skipped = skipped.get();
+        snapshot.retried = retried.get();
+        snapshot.sessionsOpen = SessionGovernor.getActiveSessions();
+        int target = SessionGovernor.getTargetSessions();
+        snapshot.sessionLimit = target == Integer.MAX_VALUE ? threadCount : target;
+        snapshot.poolUtilization = (double) snapshot.sessionsOpen / Math.max(1, snapshot.sessionLimit);
+        WaitMetrics.Totals waits = WaitMetrics.getRunTotal();
+        snapshot.waitSeconds = waits.getElapsedMillis() / 1000.0;
+        snapshot.swallowedWaitSeconds = waits.getSwallowedMillis() / 1000.0;
+        snapshot.commandsCounted = CommandMetrics.isEnabled();
+        if (snapshot.commandsCounted) {
+            snapshot.commands = CommandMetrics.getRunTotal().getCount();
+            snapshot.commandsPerSecond = commandsPerSecond(now, snapshot.commands);
+        }
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        snapshot.heapUsedBytes = heap.getUsed();
+        snapshot.heapMaxBytes = heap.getMax();
+        snapshot.uptimeSeconds = (now - startNanos) / 1e9;
+        return snapshot;
+    }
+
+    // Averaged over at least a second, so that scrapes in quick succession do not report noise
+    private static synchronized double commandsPerSecond(long now, long commands) {
+        double elapsedSeconds = (now - sampleNanos) / 1e9;
+        if (elapsedSeconds >= 1) {
+            commandsPerSecond = (commands - sampleCommands) / elapsedSeconds;
+            sampleNanos = now;
+            sampleCommands = commands;
+        }
+        return commandsPerSecond;
+    }
+
+    private static void gauge(StringBuilder text, String name, String help, double value) {
+        header(text, name, help, "gauge");
+        sample(text, name, value);
+    }
+
+    private static void counter(StringBuilder text, String name, String help, double value) {
+        header(text, name, help, "counter");
+        sample(text, name, value);
+    }
+
+    private static void header(StringBuilder text, String name, String help, String type) {
+        text.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n')
+            .append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, double value) {
+        text.append(PREFIX).append(name).append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            text.append((long) value);
+        } else {
+            text.append(String.format(Locale.ROOT, "%.3f", value));
+        }
+        text.append('\n');
+    }
+
+    private static class Snapshot {
+        int running;
+        long passed;
+        long failed;
+        long skipped;
+        long retried;
+        int sessionsOpen;
+        int sessionLimit;
+        double poolUtilization;
+        double waitSeconds;
+        double swallowedWaitSeconds;
+        boolean commandsCounted;
+        long commands;
+        double commandsPerSecond;
+        long heapUsedBytes;
+        long heapMaxBytes;
+        double uptimeSeconds;
+    }
+}
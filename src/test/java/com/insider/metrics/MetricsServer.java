@@ -0,0 +1,122 @@
+package com.insider.metrics;
+
+import com.insider.config.ConfigManager;
+import com.insider.sharding.Shard;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Serves {@link LiveMetrics} over HTTP while the suite runs, for a local Prometheus scraper or
+ * {@code curl}:
+ * <ul>
+ *   <li>{@code /metrics}: Prometheus text format;</li>
+ *   <li>{@code /metrics.json}: the same metrics as JSON.</li>
+ * </ul>
+ * The server listens on the loopback interface only, on {@code metrics.server.port}; sharded runs add
+ * the shard index to the port so that every shard can be scraped. Port 0 picks a free port, which is logged.
+ */
+public class MetricsServer {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsServer.class);
+    private static final Object lock = new Object();
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    private MetricsServer() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("metrics.server.enabled", false);
+    }
+
+    /**
+     * Starts the server if it is enabled and not already running. A port that is in use is logged and
+     * the run continues without the endpoint.
+     *
+     * @return the port the server listens on, or -1 if it is not running
+     */
+    public static int start() {
+        synchronized (lock) {
+            if (server != null) {
+                return server.getAddress().getPort();
+            }
+            if (!isEnabled()) {
+                return -1;
+            }
+            int port = ConfigManager.getIntProperty("metrics.server.port", 9464);
+            if (port > 0 && Shard.isEnabled()) {
+                port += Shard.index();
+            }
+            try {
+                HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+                httpServer.createContext("/metrics", exchange ->
+                    respond(exchange, "text/plain; version=0.0.4; charset=utf-8", LiveMetrics::toPrometheus));
+                httpServer.createContext("/metrics.json", exchange ->
+                    respond(exchange, "application/json; charset=utf-8", LiveMetrics::toJson));
+                // A single thread is enough for a scraper and keeps the endpoint from competing with the tests
+                executor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "metrics-server");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                httpServer.setExecutor(executor);
+                httpServer.start();
+                server = httpServer;
+                logger.info("Live metrics at http://127.0.0.1:{}/metrics and /metrics.json",
+                    httpServer.getAddress().getPort());
+                return httpServer.getAddress().getPort();
+            } catch (IOException e) {
+                logger.warn("Live metrics endpoint not started on port {}: {}", port, e.getMessage());
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Stops the server, letting a scrape in progress finish.
+     */
+    public static void stop() {
+        synchronized (lock) {
+            if (server == null) {
+                return;
+            }
+            server.stop(1);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, Supplier<String> body) throws IOException {
+        try {
+            // The /metrics context also matches longer paths, e.g. /metricsfoo
+            String path = exchange.getRequestURI().getPath();
+            if (!"GET".equals(exchange.getRequestMethod()) || !path.equals(exchange.getHttpContext().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to serve {}: {}", exchange.getRequestURI(), e.getMessage());
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+}
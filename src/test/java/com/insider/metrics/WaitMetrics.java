@@ -0,0 +1,241 @@
+package com.insider.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.insider.artifacts.ArtifactStore;
+import com.insider.config.ConfigManager;
+import com.insider.context.TestContext;
+import com.insider.reporting.ReportManager;
+import com.insider.sharding.Shard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Time spent in explicit waits, keyed by wait (e.g. {@code Helper.waitForAjaxToComplete}).
+ * <p>
+ * Every wait run through {@link com.insider.utils.Waits} is recorded with its configured timeout,
+ * the time it actually took, how often its condition was polled and its outcome. Waits whose failure
+ * the caller ignores are counted as {@link Outcome#SWALLOWED}, separately from the timeouts that
+ * surface as test failures. Like {@link CommandMetrics}, each {@link TestContext} has its own
+ * instance, published to the test's report node, and a run-wide instance is exported to
+ * {@code test-output/metrics/} when the report is closed.
+ */
+public class WaitMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(WaitMetrics.class);
+    private static final String METRICS_DIR = "test-output/metrics/";
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+
+    private static final WaitMetrics run = new WaitMetrics();
+    private static final Map<String, Totals> totalsPerTest = new ConcurrentSkipListMap<>();
+
+    private final Map<String, Totals> byWait = new ConcurrentHashMap<>();
+    private final Totals total = new Totals();
+
+    /**
+     * How a wait ended.
+     */
+    public enum Outcome {
+        /** The condition was met. */
+        MET,
+        /** The timeout expired and the exception reached the caller. */
+        TIMED_OUT,
+        /** The condition threw something other than a timeout. */
+        FAILED,
+        /** The wait failed and the caller continued as if it had succeeded. */
+        SWALLOWED
+    }
+
+    /**
+     * Totals of a group of waits.
+     */
+    public static class Totals {
+        private final Map<Outcome, Long> outcomes = new EnumMap<>(Outcome.class);
+        private long count;
+        private long polls;
+        private long elapsedNanos;
+        private long timeoutMillis;
+        private long swallowedNanos;
+
+        synchronized void add(long timeoutMillis, long elapsedNanos, int polls, Outcome outcome) {
+            this.count++;
+            this.polls += polls;
+            this.elapsedNanos += elapsedNanos;
+            this.timeoutMillis += timeoutMillis;
+            this.outcomes.merge(outcome, 1L, Long::sum);
+            if (outcome == Outcome.SWALLOWED) {
+                this.swallowedNanos += elapsedNanos;
+            }
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getPolls() {
+            return polls;
+        }
+
+        public synchronized long getElapsedMillis() {
+            return elapsedNanos / 1_000_000L;
+        }
+
+        /**
+         * @return the sum of the configured timeouts, i.e. the worst case these waits could have taken
+         */
+        public synchronized long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public synchronized long getSwallowedMillis() {
+            return swallowedNanos / 1_000_000L;
+        }
+
+        public synchronized long getCount(Outcome outcome) {
+            return outcomes.getOrDefault(outcome, 0L);
+        }
+
+        synchronized JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("count", count);
+            for (Outcome outcome : Outcome.values()) {
+                json.addProperty(outcome.name().toLowerCase(), outcomes.getOrDefault(outcome, 0L));
+            }
+            json.addProperty("polls", polls);
+            json.addProperty("waitedMs", elapsedNanos / 1_000_000L);
+            json.addProperty("timeoutBudgetMs", timeoutMillis);
+            json.addProperty("swallowedMs", swallowedNanos / 1_000_000L);
+            return json;
+        }
+    }
+
+    /**
+     * Records one wait for the current test, if any, and for the run.
+     *
+     * @param name name of the wait
+     * @param timeoutMillis configured timeout
+     * @param elapsedNanos time the wait took
+     * @param polls number of times the condition was evaluated
+     * @param outcome how the wait ended
+     */
+    public static void record(String name, long timeoutMillis, long elapsedNanos, int polls, Outcome outcome) {
+        TestContext context = TestContext.current();
+        if (context != null) {
+            context.getWaitMetrics().add(name, timeoutMillis, elapsedNanos, polls, outcome);
+        }
+        run.add(name, timeoutMillis, elapsedNanos, polls, outcome);
+    }
+
+    /**
+     * @return the totals of all waits run in this run so far
+     */
+    public static Totals getRunTotal() {
+        return run.total;
+    }
+
+    /**
+     * @return the totals of all waits recorded by this instance
+     */
+    public Totals getTotal() {
+        return total;
+    }
+
+    /**
+     * Adds the current test's wait totals to its report node and remembers them for the export.
+     *
+     * @param testKey key of the test, as used by {@link com.insider.history.ResultsStore}
+     */
+    public static void publish(String testKey) {
+        TestContext context = TestContext.current();
+        if (context == null || context.getWaitMetrics().total.getCount() == 0) {
+            return;
+        }
+        WaitMetrics metrics = context.getWaitMetrics();
+        totalsPerTest.put(testKey, metrics.total);
+        int top = ConfigManager.getIntProperty("wait.metrics.top", 10);
+        StringBuilder html = new StringBuilder()
+            .append("<table class='table table-sm'><tr><th>Wait</th><th>Count</th><th>Met</th><th>Timed out</th>")
+            .append("<th>Swallowed</th><th>Polls</th><th>Waited ms</th><th>Timeout budget ms</th></tr>");
+        for (Map.Entry<String, Totals> entry : sorted(metrics.byWait).subList(0, Math.min(top, metrics.byWait.size()))) {
+            Totals totals = entry.getValue();
+            html.append("<tr><td>").append(entry.getKey())
+                .append("</td><td>").append(totals.getCount())
+                .append("</td><td>").append(totals.getCount(Outcome.MET))
+                .append("</td><td>").append(totals.getCount(Outcome.TIMED_OUT) + totals.getCount(Outcome.FAILED))
+                .append("</td><td>").append(totals.getCount(Outcome.SWALLOWED))
+                .append("</td><td>").append(totals.getPolls())
+                .append("</td><td>").append(totals.getElapsedMillis())
+                .append("</td><td>").append(totals.getTimeoutMillis()).append("</td></tr>");
+        }
+        ReportManager.logInfo("Waits: " + describe(metrics.total), html.append("</table>").toString());
+    }
+
+    /**
+     * Writes the run's wait totals, per wait and per test.
+     *
+     * @return a one-line summary for the report, or null if no waits were recorded
+     */
+    public static String export() {
+        if (run.total.getCount() == 0) {
+            return null;
+        }
+        String suffix = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"))
+            + (Shard.isEnabled() ? "_" + Shard.label() : "");
+        Path file = Paths.get(METRICS_DIR, "waits_" + suffix + ".json");
+
+        JsonObject json = new JsonObject();
+        json.add("total", run.total.toJson());
+        JsonObject waits = new JsonObject();
+        sorted(run.byWait).forEach(entry -> waits.add(entry.getKey(), entry.getValue().toJson()));
+        json.add("byWait", waits);
+        JsonObject tests = new JsonObject();
+        totalsPerTest.forEach((testKey, totals) -> tests.add(testKey, totals.toJson()));
+        json.add("perTest", tests);
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                gson.toJson(json, writer);
+            }
+            ArtifactStore.record(file.toString().replace('\\', '/'), "metrics");
+            logger.info("Exported wait metrics to {}", file);
+        } catch (IOException e) {
+            logger.warn("Failed to write wait metrics to {}: {}", file, e.getMessage());
+        }
+        return describe(run.total);
+    }
+
+    void add(String name, long timeoutMillis, long elapsedNanos, int polls, Outcome outcome) {
+        byWait.computeIfAbsent(name, key -> new Totals()).add(timeoutMillis, elapsedNanos, polls, outcome);
+        total.add(timeoutMillis, elapsedNanos, polls, outcome);
+    }
+
+    private static String describe(Totals totals) {
+        return totals.getCount() + " waits, " + totals.getElapsedMillis() + " ms waited, "
+            + (totals.getCount(Outcome.TIMED_OUT) + totals.getCount(Outcome.FAILED)) + " failed, "
+            + totals.getCount(Outcome.SWALLOWED) + " swallowed (" + totals.getSwallowedMillis() + " ms)";
+    }
+
+    // Longest total wait first
+    private static List<Map.Entry<String, Totals>> sorted(Map<String, Totals> totals) {
+        return totals.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, Totals> entry) -> entry.getValue().getElapsedMillis())
+                .reversed().thenComparing(Map.Entry::getKey))
+            .collect(Collectors.toList());
+    }
+}
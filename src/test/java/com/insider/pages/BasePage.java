@@ -1,17 +1,73 @@
 package com.insider.pages;
 
+import com.insider.context.TestContext;
+import com.insider.history.ResultsStore;
+import com.insider.performance.PagePerformance;
+import com.insider.tracing.Span;
+import com.insider.tracing.Tracer;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.PageFactory;
+import org.slf4j.MDC;
+
+import java.util.function.Supplier;
 
 /**
  * Base page class providing common functionality for all page objects.
  * Initializes PageFactory for automatic element location.
  */
 public class BasePage {
+    public static final String MDC_STEP = "step";
+
     protected WebDriver driver;
 
     public BasePage(WebDriver driver) {
         this.driver = driver;
         PageFactory.initElements(driver, this);
     }
+
+    /**
+     * Runs a page action as a traced step named after the page, e.g. {@code JobsPage.filterByLocation}.
+     * The step's duration is kept in the results history, see {@link ResultsStore.Step}, and its name is
+     * the {@code step} MDC key of the log lines written while it runs.
+     */
+    protected void step(String action, Runnable body) {
+        step(action, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Captures the page's performance metrics after the given action, see {@link PagePerformance}.
+     */
+    protected void measurePerformance(String action) {
+        PagePerformance.capture(getClass().getSimpleName() + "." + action);
+    }
+
+    /**
+     * Runs a page action that returns a value as a traced step named after the page.
+     */
+    protected <T> T step(String action, Supplier<T> body) {
+        String name = getClass().getSimpleName() + "." + action;
+        String outerStep = MDC.get(MDC_STEP);
+        MDC.put(MDC_STEP, name);
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        String status = "FAIL";
+        try {
+            T result = Tracer.call(name, Span.Category.PAGE, body);
+            status = "PASS";
+            return result;
+        } finally {
+            if (outerStep != null) {
+                MDC.put(MDC_STEP, outerStep);
+            } else {
+                MDC.remove(MDC_STEP);
+            }
+            TestContext context = TestContext.current();
+            if (context != null) {
+                context.addStep(new ResultsStore.Step(name, startMillis, (System.nanoTime() - start) / 1_000_000L, status));
+            }
+        }
+    }
 }
@@ -28,21 +28,26 @@ public class CareersPage extends BasePage {
 
     // --- Page Actions ---
     public boolean isLocationsBlockDisplayed() {
-        // We'll use this method for our assertion later
-        return Helper.waitForVisibility(locationsBlock, ConfigManager.getDefaultTimeout()).isDisplayed();
+        return step("isLocationsBlockDisplayed", () -> {
+            // We'll use this method for our assertion later
+            return Helper.waitForVisibility(locationsBlock, ConfigManager.getDefaultTimeout()).isDisplayed();
+        });
     }
 
     public boolean isTeamsBlockDisplayed() {
-        return teamsBlock.isDisplayed();
+        return step("isTeamsBlockDisplayed", () -> teamsBlock.isDisplayed());
     }
 
     public boolean isLifeAtInsiderBlockDisplayed() {
-        return lifeAtInsiderBlock.isDisplayed();
+        return step("isLifeAtInsiderBlockDisplayed", () -> lifeAtInsiderBlock.isDisplayed());
     }
 
     public void clickSeeAllQAJobsButton() {
-        Helper.safeClick(seeAllQAJobsButton, ConfigManager.getExtendedTimeout());
-        // wait here until filter is applied and jobs are loaded
-        Helper.waitForPageLoad();
+        step("clickSeeAllQAJobsButton", () -> {
+            Helper.safeClick(seeAllQAJobsButton, ConfigManager.getExtendedTimeout());
+            // wait here until filter is applied and jobs are loaded
+            Helper.waitForPageLoad();
+            measurePerformance("clickSeeAllQAJobsButton");
+        });
     }
 }
\ No newline at end of file
@@ -32,104 +32,115 @@ public class HomePage extends BasePage {
     // --- Page Actions ---
 
     public void goToHomePage() {
-        logger.info("Navigating to home page");
-        driver.get(ConfigManager.getBaseUrl());
-        Helper.waitForPageLoad();
+        step("goToHomePage", () -> {
+            logger.info("Navigating to home page");
+            driver.get(ConfigManager.getBaseUrl());
+            Helper.waitForPageLoad();
+        });
     }
 
     public void goToPage(String path) {
-        logger.info("Navigating to page: {}", path);
-        driver.get(path);
-        Helper.waitForPageLoad();
+        step("goToPage", () -> {
+            logger.info("Navigating to page: {}", path);
+            driver.get(path);
+            Helper.waitForPageLoad();
+            measurePerformance("goToPage");
+        });
     }
 
     public void acceptCookies() {
-        logger.info("Accepting cookies");
-        try {
-            // Wait for cookie banner to be present and clickable
-            Helper.waitForVisibility(acceptCookiesButton, ConfigManager.getExtendedTimeout());
-            Helper.safeClick(acceptCookiesButton, ConfigManager.getExtendedTimeout());
-            
-            // Wait for cookie banner to disappear
-            Helper.waitForElementToDisappear(acceptCookiesButton, ConfigManager.getDefaultTimeout());
-            logger.info("Cookies accepted successfully");
-        } catch (Exception e) {
-            logger.warn("Cookie acceptance failed or not needed: {}", e.getMessage());
-            // Continue execution as cookie banner might not be present
-        }
+        step("acceptCookies", () -> {
+            logger.info("Accepting cookies");
+            try {
+                // Wait for cookie banner to be present and clickable
+                Helper.waitForVisibility(acceptCookiesButton, ConfigManager.getExtendedTimeout());
+                Helper.safeClick(acceptCookiesButton, ConfigManager.getExtendedTimeout());
+                
+                // Wait for cookie banner to disappear
+                Helper.waitForElementToDisappear(acceptCookiesButton, ConfigManager.getDefaultTimeout());
+                logger.info("Cookies accepted successfully");
+            } catch (Exception e) {
+                logger.warn("Cookie acceptance failed or not needed: {}", e.getMessage());
+                // Continue execution as cookie banner might not be present
+            }
+        });
     }
 
     public void clickCompanyMenu() {
-        logger.info("Clicking company menu");
-        
-        // Define optimized locator strategies (most likely first)
-        org.openqa.selenium.By[] companyLocators = {
-            org.openqa.selenium.By.xpath("//a[contains(text(),'Company')]"),
-            org.openqa.selenium.By.xpath("//nav//a[contains(text(),'Company')]"),
-            org.openqa.selenium.By.xpath("//header//a[contains(text(),'Company')]")
-        };
-        
-        try {
-            // Try fast method first
-            WebElement companyElement = Helper.findElementFast(companyLocators);
+        step("clickCompanyMenu", () -> {
+            logger.info("Clicking company menu");
             
-            Helper.safeClick(companyElement, ConfigManager.getDefaultTimeout());
-            logger.info("Company menu clicked successfully");
+            // Define optimized locator strategies (most likely first)
+            org.openqa.selenium.By[] companyLocators = {
+                org.openqa.selenium.By.xpath("//a[contains(text(),'Company')]"),
+                org.openqa.selenium.By.xpath("//nav//a[contains(text(),'Company')]"),
+                org.openqa.selenium.By.xpath("//header//a[contains(text(),'Company')]")
+            };
             
-        } catch (Exception e) {
-            logger.warn("Fast method failed, trying with extended timeout: {}", e.getMessage());
             try {
-                // Fallback to extended method if fast method fails
-                WebElement companyElement = Helper.findElementWithMultipleStrategies(
-                    companyLocators, 
-                    ConfigManager.getDefaultTimeout()
-                );
+                // Try fast method first
+                WebElement companyElement = Helper.findElementFast(companyLocators);
                 
                 Helper.safeClick(companyElement, ConfigManager.getDefaultTimeout());
-                logger.info("Company menu clicked successfully with fallback method");
+                logger.info("Company menu clicked successfully");
                 
-            } catch (Exception fallbackException) {
-                logger.error("Failed to click company menu: {}", fallbackException.getMessage());
-                throw new RuntimeException("Failed to click company menu: " + fallbackException.getMessage(), fallbackException);
+            } catch (Exception e) {
+                logger.warn("Fast method failed, trying with extended timeout: {}", e.getMessage());
+                try {
+                    // Fallback to extended method if fast method fails
+                    WebElement companyElement = Helper.findElementWithMultipleStrategies(
+                        companyLocators, 
+                        ConfigManager.getDefaultTimeout()
+                    );
+                    
+                    Helper.safeClick(companyElement, ConfigManager.getDefaultTimeout());
+                    logger.info("Company menu clicked successfully with fallback method");
+                    
+                } catch (Exception fallbackException) {
+                    logger.error("Failed to click company menu: {}", fallbackException.getMessage());
+                    throw new RuntimeException("Failed to click company menu: " + fallbackException.getMessage(), fallbackException);
+                }
             }
-        }
+        });
     }
 
     public void clickCareersLink() {
-        logger.info("Clicking careers link");
-        
-        // Define optimized locator strategies for careers link (most likely first)
-        org.openqa.selenium.By[] careersLocators = {
-            org.openqa.selenium.By.xpath("//a[contains(text(),'Careers')]"),
-            org.openqa.selenium.By.xpath("//nav//a[contains(text(),'Careers')]"),
-            org.openqa.selenium.By.xpath("//header//a[contains(text(),'Careers')]")
-        };
-        
-        try {
-            // Try fast method first
-            WebElement careersElement = Helper.findElementFast(careersLocators);
+        step("clickCareersLink", () -> {
+            logger.info("Clicking careers link");
             
-            Helper.safeClick(careersElement, ConfigManager.getDefaultTimeout());
-            Helper.waitForPageLoad();
-            logger.info("Careers link clicked successfully");
+            // Define optimized locator strategies for careers link (most likely first)
+            org.openqa.selenium.By[] careersLocators = {
+                org.openqa.selenium.By.xpath("//a[contains(text(),'Careers')]"),
+                org.openqa.selenium.By.xpath("//nav//a[contains(text(),'Careers')]"),
+                org.openqa.selenium.By.xpath("//header//a[contains(text(),'Careers')]")
+            };
             
-        } catch (Exception e) {
-            logger.warn("Fast method failed, trying with extended timeout: {}", e.getMessage());
             try {
-                // Fallback to extended method if fast method fails
-                WebElement careersElement = Helper.findElementWithMultipleStrategies(
-                    careersLocators, 
-                    ConfigManager.getDefaultTimeout()
-                );
+                // Try fast method first
+                WebElement careersElement = Helper.findElementFast(careersLocators);
                 
                 Helper.safeClick(careersElement, ConfigManager.getDefaultTimeout());
                 Helper.waitForPageLoad();
-                logger.info("Careers link clicked successfully with fallback method");
+                logger.info("Careers link clicked successfully");
                 
-            } catch (Exception fallbackException) {
-                logger.error("Failed to click careers link: {}", fallbackException.getMessage());
-                throw new RuntimeException("Failed to click careers link: " + fallbackException.getMessage(), fallbackException);
+            } catch (Exception e) {
+                logger.warn("Fast method failed, trying with extended timeout: {}", e.getMessage());
+                try {
+                    // Fallback to extended method if fast method fails
+                    WebElement careersElement = Helper.findElementWithMultipleStrategies(
+                        careersLocators, 
+                        ConfigManager.getDefaultTimeout()
+                    );
+                    
+                    Helper.safeClick(careersElement, ConfigManager.getDefaultTimeout());
+                    Helper.waitForPageLoad();
+                    logger.info("Careers link clicked successfully with fallback method");
+                    
+                } catch (Exception fallbackException) {
+                    logger.error("Failed to click careers link: {}", fallbackException.getMessage());
+                    throw new RuntimeException("Failed to click careers link: " + fallbackException.getMessage(), fallbackException);
+                }
             }
-        }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,238 @@
+package com.insider.performance;
+
+import com.insider.config.ConfigManager;
+import com.insider.context.TestContext;
+import com.insider.driver.DriverManager;
+import com.insider.evidence.NetworkRecorder;
+import com.insider.history.ResultsStore;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Collects browser performance metrics of the page under test after a navigation or page action.
+ * <p>
+ * The first capture on a document reads Navigation Timing (time to first byte, DOMContentLoaded,
+ * load), the first contentful paint and the largest contentful paint. Every capture reads the
+ * Resource Timing entries added since the previous capture on the document, and the cumulative
+ * layout shift so far. Metrics the browser does not support are left out. When the
+ * {@link NetworkRecorder} is running, the request count, transferred size and critical-path duration
+ * of all requests of the page are added.
+ * <p>
+ * Each capture is appended to {@code page-performance.tsv} in the history directory, checked against
+ * the budgets of {@link PerformanceBudget} and reported with the median of the previous runs.
+ */
+public class PagePerformance {
+    private static final Logger logger = LoggerFactory.getLogger(PagePerformance.class);
+    private static final String HISTORY_FILE = "page-performance.tsv";
+
+    // Asynchronous, because buffered LCP and layout-shift entries are only delivered to a PerformanceObserver
+    private static final String COLLECT_SCRIPT =
+        "var done = arguments[arguments.length - 1], result = {};"
+            + "var nav = performance.getEntriesByType('navigation')[0];"
+            + "var firstCapture = !window.__qaPerfCaptured;"
+            + "window.__qaPerfCaptured = true;"
+            + "if (firstCapture && nav) {"
+            + "  result.ttfb = nav.responseStart - nav.startTime;"
+            + "  result.domContentLoaded = nav.domContentLoadedEventEnd - nav.startTime;"
+            + "  result.load = nav.loadEventEnd - nav.startTime;"
+            + "  performance.getEntriesByType('paint').forEach(function (p) {"
+            + "    if (p.name === 'first-contentful-paint') { result.fcp = p.startTime; }"
+            + "  });"
+            + "}"
+            + "var since = window.__qaPerfMark || 0;"
+            + "var resources = performance.getEntriesByType('resource').filter(function (r) { return r.startTime >= since; });"
+            + "window.__qaPerfMark = performance.now();"
+            + "result.resources = resources.length;"
+            + "result.transferKb = resources.reduce(function (sum, r) { return sum + (r.transferSize || 0); }, 0) / 1024;"
+            + "result.slowestResource = resources.reduce(function (max, r) { return Math.max(max, r.duration); }, 0);"
+            + "var supported = (window.PerformanceObserver && PerformanceObserver.supportedEntryTypes) || [];"
+            + "var lcp = 0, cls = 0, observers = [];"
+            + "function observe(type, handle) {"
+            + "  if (supported.indexOf(type) < 0) { return; }"
+            + "  var observer = new PerformanceObserver(function (list) { list.getEntries().forEach(handle); });"
+            + "  observer.observe({type: type, buffered: true});"
+            + "  observers.push([observer, handle]);"
+            + "}"
+            + "if (firstCapture) { observe('largest-contentful-paint', function (e) { lcp = Math.max(lcp, e.startTime); }); }"
+            + "observe('layout-shift', function (e) { if (!e.hadRecentInput) { cls += e.value; } });"
+            + "setTimeout(function () {"
+            + "  observers.forEach(function (o) { o[0].takeRecords().forEach(o[1]); o[0].disconnect(); });"
+            + "  if (firstCapture && supported.indexOf('largest-contentful-paint') >= 0) { result.lcp = lcp; }"
+            + "  if (supported.indexOf('layout-shift') >= 0) { result.cls = cls; }"
+            + "  done(result);"
+            + "}, 50);";
+
+    // page|action|metric to values of earlier runs, oldest first
+    private static Map<String, Deque<Double>> history;
+
+    private PagePerformance() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("perf.capture.enabled", true);
+    }
+
+    /**
+     * Captures the metrics of the current page, checks them against the budgets and reports them.
+     * Collection problems are logged and ignored.
+     *
+     * @param action the page action that led to the page, e.g. {@code CareersPage.clickSeeAllQAJobsButton}
+     * @throws AssertionError if a budget is exceeded and {@code perf.budget.mode} is {@code hard}
+     */
+    public static void capture(String action) {
+        WebDriver driver = DriverManager.getDriver();
+        if (!isEnabled() || !(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+        String page;
+        Map<String, Double> metrics;
+        try {
+            page = pageKey(driver.getCurrentUrl());
+            metrics = collect((JavascriptExecutor) driver);
+            addPageWeight(page, metrics);
+        } catch (Exception e) {
+            logger.warn("Failed to collect page performance after {}: {}", action, e.getMessage());
+            return;
+        }
+        Map<String, Double> medians = medians(page, action, metrics);
+        append(page, action, metrics);
+        PerformanceBudget.check(page, action, metrics, medians);
+    }
+
+    /**
+     * Derives the page key used for budgets and trends from a URL path, e.g.
+     * {@code https://useinsider.com/careers/quality-assurance/} becomes {@code careers-quality-assurance}
+     * and the home page becomes {@code home}.
+     */
+    static String pageKey(String url) {
+        String path = null;
+        try {
+            path = url != null ? new URI(url).getPath() : null;
+        } catch (URISyntaxException e) {
+            // Reported as unknown below
+        }
+        if (path == null) {
+            return "unknown";
+        }
+        String key = path.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("^-+|-+$", "");
+        return key.isEmpty() ? "home" : key;
+    }
+
+    private static Map<String, Double> collect(JavascriptExecutor driver) {
+        Map<?, ?> raw = (Map<?, ?>) driver.executeAsyncScript(COLLECT_SCRIPT);
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        for (String metric : PerformanceBudget.METRICS) {
+            Object value = raw.get(metric);
+            if (value instanceof Number) {
+                metrics.put(metric, ((Number) value).doubleValue());
+            }
+        }
+        return metrics;
+    }
+
+    private static void addPageWeight(String page, Map<String, Double> metrics) {
+        TestContext context = TestContext.current();
+        NetworkRecorder network = context != null ? context.getNetwork() : null;
+        if (network == null) {
+            return;
+        }
+        NetworkRecorder.PageWeight weight = network.weigh(documentUrl -> page.equals(pageKey(documentUrl)));
+        if (weight.getRequests() > 0) {
+            metrics.put("pageRequests", (double) weight.getRequests());
+            metrics.put("pageWeightKb", weight.getBytes() / 1024.0);
+            metrics.put("criticalPath", weight.getCriticalPathMillis());
+        }
+    }
+
+    private static synchronized Map<String, Double> medians(String page, String action, Map<String, Double> metrics) {
+        loadHistory();
+        Map<String, Double> medians = new HashMap<>();
+        for (String metric : metrics.keySet()) {
+            Deque<Double> values = history.get(page + "|" + action + "|" + metric);
+            if (values != null && !values.isEmpty()) {
+                List<Double> sorted = new ArrayList<>(values);
+                sorted.sort(null);
+                int middle = sorted.size() / 2;
+                medians.put(metric, sorted.size() % 2 == 1 ? sorted.get(middle)
+                    : (sorted.get(middle - 1) + sorted.get(middle)) / 2);
+            }
+        }
+        return medians;
+    }
+
+    private static void loadHistory() {
+        if (history != null) {
+            return;
+        }
+        history = new HashMap<>();
+        Path file = historyFile();
+        if (!Files.exists(file)) {
+            return;
+        }
+        int window = ConfigManager.getIntProperty("perf.trend.window", 5);
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.forEach(line -> {
+                // runId, timestamp, page, action, metric, value
+                String[] fields = line.split("\t");
+                if (fields.length != 6 || fields[0].equals(ResultsStore.RUN_ID)) {
+                    return;
+                }
+                try {
+                    Deque<Double> values = history.computeIfAbsent(fields[2] + "|" + fields[3] + "|" + fields[4],
+                        key -> new ArrayDeque<>());
+                    values.addLast(Double.parseDouble(fields[5]));
+                    if (values.size() > window) {
+                        values.removeFirst();
+                    }
+                } catch (NumberFormatException e) {
+                    // Skip malformed lines
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to read page performance history from {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static synchronized void append(String page, String action, Map<String, Double> metrics) {
+        Path file = historyFile();
+        long timestamp = System.currentTimeMillis();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+                    writer.write(String.join("\t", ResultsStore.RUN_ID, String.valueOf(timestamp), page, action,
+                        metric.getKey(), String.valueOf(metric.getValue())));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to append page performance to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Path historyFile() {
+        return ResultsStore.getHistoryDir().resolve(HISTORY_FILE);
+    }
+}
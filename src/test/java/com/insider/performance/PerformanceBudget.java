@@ -0,0 +1,109 @@
+package com.insider.performance;
+
+import com.insider.config.ConfigManager;
+import com.insider.reporting.ReportManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Budgets for the metrics collected by {@link PagePerformance}.
+ * <p>
+ * A budget is looked up as {@code perf.budget.<page>.<metric>} and then {@code perf.budget.<metric>},
+ * where the page is the key derived from the URL path, e.g. {@code careers-quality-assurance}.
+ * Metrics without a budget are only reported. With {@code perf.budget.mode=soft} an exceeded budget
+ * is reported as a warning; with {@code hard} it fails the test.
+ */
+public class PerformanceBudget {
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceBudget.class);
+
+    /**
+     * Collected metrics, in report order. All are milliseconds except cls, the request counts and the
+     * sizes in KB. The page* metrics cover all requests of the page seen by the network recorder.
+     */
+    static final List<String> METRICS = Arrays.asList(
+        "ttfb", "fcp", "lcp", "domContentLoaded", "load", "cls", "resources", "transferKb", "slowestResource",
+        "pageRequests", "pageWeightKb", "criticalPath");
+
+    private PerformanceBudget() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Reports the metrics with their budgets and trend, and applies the budget mode.
+     *
+     * @param page page key
+     * @param action the page action that was measured
+     * @param metrics the collected metrics
+     * @param medians median of each metric over the previous runs, where known
+     * @throws AssertionError if a budget is exceeded in hard mode
+     */
+    static void check(String page, String action, Map<String, Double> metrics, Map<String, Double> medians) {
+        String mode = ConfigManager.getProperty("perf.budget.mode", "soft").toLowerCase(Locale.ROOT);
+        double regressionPercent = ConfigManager.getDoubleProperty("perf.trend.regression.percent", 20);
+        List<String> violations = new ArrayList<>();
+        StringBuilder html = new StringBuilder()
+            .append("<table class='table table-sm'><tr><th>Metric</th><th>Value</th><th>Budget</th>")
+            .append("<th>Median of previous runs</th><th>Change</th></tr>");
+        for (Map.Entry<String, Double> entry : metrics.entrySet()) {
+            String metric = entry.getKey();
+            double value = entry.getValue();
+            Double budget = budget(page, metric);
+            Double median = medians.get(metric);
+            boolean overBudget = budget != null && value > budget;
+            if (overBudget) {
+                violations.add(metric + " " + format(value) + " > " + format(budget));
+            }
+            String change = "";
+            if (median != null && median > 0) {
+                double percent = 100 * (value - median) / median;
+                change = String.format(Locale.ROOT, "%+.0f%%", percent);
+                if (percent > regressionPercent) {
+                    change = "<b>" + change + "</b>";
+                    logger.warn("{} of {} after {} regressed: {} vs median {}", metric, page, action,
+                        format(value), format(median));
+                }
+            }
+            html.append("<tr><td>").append(metric)
+                .append("</td><td>").append(overBudget ? "<b>" + format(value) + "</b>" : format(value))
+                .append("</td><td>").append(budget != null ? format(budget) : "")
+                .append("</td><td>").append(median != null ? format(median) : "")
+                .append("</td><td>").append(change).append("</td></tr>");
+        }
+        ReportManager.logInfo("Page performance of " + page + " after " + action, html.append("</table>").toString());
+
+        if (violations.isEmpty() || "off".equals(mode)) {
+            return;
+        }
+        String message = "Performance budget exceeded on " + page + " after " + action + ": "
+            + String.join(", ", violations);
+        if ("hard".equals(mode)) {
+            throw new AssertionError(message);
+        }
+        ReportManager.logWarning(message);
+    }
+
+    private static Double budget(String page, String metric) {
+        String value = ConfigManager.getProperty("perf.budget." + page + "." + metric,
+            ConfigManager.getProperty("perf.budget." + metric, null));
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid performance budget for {} on {}: {}", metric, page, value);
+            return null;
+        }
+    }
+
+    private static String format(double value) {
+        // Layout shift scores are small fractions, everything else is fine in whole units
+        return String.format(Locale.ROOT, Math.abs(value) < 10 ? "%.3f" : "%.0f", value);
+    }
+}
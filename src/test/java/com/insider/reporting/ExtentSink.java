@@ -0,0 +1,45 @@
+package com.insider.reporting;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+
+/**
+ * Applies journal events to an ExtentReports model. Because only the report writer thread calls it,
+ * the shared ExtentReports model is never mutated concurrently.
+ */
+public class ExtentSink implements ReportSink {
+    private final ExtentReports extent;
+
+    public ExtentSink(ExtentReports extent) {
+        this.extent = extent;
+    }
+
+    @Override
+    public void accept(ReportEvent event) {
+        switch (event.getType()) {
+            case CREATE_TEST:
+                ReportNode node = event.getNode();
+                node.setExtentTest(node.getDescription() != null
+                    ? extent.createTest(node.getName(), node.getDescription())
+                    : extent.createTest(node.getName()));
+                break;
+            case LOG:
+                ExtentTest test = event.getNode().getExtentTest();
+                if (test != null) {
+                    test.log(event.getStatus(), event.getMessage());
+                }
+                break;
+            case ATTACHMENT:
+                ExtentTest target = event.getNode().getExtentTest();
+                if (target != null) {
+                    target.addScreenCaptureFromPath(event.getDetail());
+                }
+                break;
+            case SYSTEM_INFO:
+                extent.setSystemInfo(event.getMessage(), event.getDetail());
+                break;
+            default:
+                break;
+        }
+    }
+}
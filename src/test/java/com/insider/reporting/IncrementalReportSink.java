@@ -0,0 +1,139 @@
+package com.insider.reporting;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.insider.exceptions.TestFrameworkException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persists report events to an append-only JSON-lines log as they happen, so that a killed JVM
+ * loses at most the last unflushed events instead of the whole report, and no test tree has to be
+ * kept in memory. The log is flushed when the buffered size exceeds a threshold and periodically
+ * while the journal is idle. {@link ReportRebuilder} turns the log into an HTML report.
+ */
+public class IncrementalReportSink implements ReportSink {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalReportSink.class);
+    private static final Gson gson = new Gson();
+    private static final int LINE_SEPARATOR_BYTES = System.lineSeparator().length();
+
+    private final Path file;
+    private final BufferedWriter writer;
+    private final long flushIntervalMillis;
+    private final long flushThresholdBytes;
+    private long lastFlush = System.currentTimeMillis();
+    private long unflushedBytes;
+
+    public IncrementalReportSink(Path file, long flushIntervalMillis, long flushThresholdBytes) {
+        this.file = file;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushThresholdBytes = flushThresholdBytes;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to open incremental report log " + file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void accept(ReportEvent event) {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", event.getType().name());
+        json.addProperty("ts", event.getTimestamp());
+        json.addProperty("thread", event.getThreadName());
+        if (event.getNode() != null) {
+            json.addProperty("node", event.getNode().getId());
+            if (event.getType() == ReportEvent.Type.CREATE_TEST) {
+                json.addProperty("name", event.getNode().getName());
+            }
+        }
+        if (event.getStatus() != null) {
+            json.addProperty("status", event.getStatus().name());
+        }
+        json.addProperty("message", event.getMessage());
+        json.addProperty("detail", event.getDetail());
+
+        String line = gson.toJson(json);
+        try {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to append to incremental report log " + file, e);
+        }
+        unflushedBytes += utf8Length(line) + LINE_SEPARATOR_BYTES;
+        if (unflushedBytes >= flushThresholdBytes) {
+            flush();
+        }
+    }
+
+    /**
+     * @return the number of bytes the text takes in UTF-8, counted without encoding it
+     */
+    static int utf8Length(CharSequence text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired, written as '?'
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public long onIdle() {
+        if (unflushedBytes == 0) {
+            return 0;
+        }
+        long remaining = flushIntervalMillis - (System.currentTimeMillis() - lastFlush);
+        if (remaining > 0) {
+            return remaining;
+        }
+        flush();
+        return 0;
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+            logger.debug("Flushed {} bytes to {}", unflushedBytes, file);
+        } catch (IOException e) {
+            logger.warn("Failed to flush incremental report log {}: {}", file, e.getMessage());
+        }
+        unflushedBytes = 0;
+        lastFlush = System.currentTimeMillis();
+    }
+
+    public void close() {
+        flush();
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close incremental report log {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.insider.reporting;
+
+import com.aventstack.extentreports.Status;
+
+/**
+ * Immutable entry of the report journal: one step, status change, attachment or piece of
+ * system information, recorded by a test thread and applied later by the report writer.
+ */
+public class ReportEvent {
+
+    public enum Type {
+        CREATE_TEST,
+        LOG,
+        ATTACHMENT,
+        SYSTEM_INFO
+    }
+
+    private final Type type;
+    private final ReportNode node;
+    private final Status status;
+    private final String message;
+    private final String detail;
+    private final long timestamp;
+    private final String threadName;
+
+    private ReportEvent(Type type, ReportNode node, Status status, String message, String detail) {
+        this.type = type;
+        this.node = node;
+        this.status = status;
+        this.message = message;
+        this.detail = detail;
+        this.timestamp = System.currentTimeMillis();
+        this.threadName = Thread.currentThread().getName();
+    }
+
+    public static ReportEvent createTest(ReportNode node) {
+        return new ReportEvent(Type.CREATE_TEST, node, null, node.getDescription(), null);
+    }
+
+    public static ReportEvent log(ReportNode node, Status status, String message) {
+        return new ReportEvent(Type.LOG, node, status, message, null);
+    }
+
+    public static ReportEvent attachment(ReportNode node, String path) {
+        return new ReportEvent(Type.ATTACHMENT, node, null, null, path);
+    }
+
+    /**
+     * System information is carried with its key as the message and its value as the detail.
+     */
+    public static ReportEvent systemInfo(String key, String value) {
+        return new ReportEvent(Type.SYSTEM_INFO, null, null, key, value);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public ReportNode getNode() {
+        return node;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the attachment path for attachments, or the value for system information
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+}
@@ -0,0 +1,209 @@
+package com.insider.reporting;
+
+import com.insider.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only journal of report events with an asynchronous writer.
+ * <p>
+ * Every test thread appends to its own lock-free buffer; a single background writer drains all
+ * buffers into the registered {@link ReportSink}s. Test threads never wait for report I/O or for the
+ * shared ExtentReports model, and events of one thread are applied in the order they were appended.
+ * The writer sleeps while the buffers are empty and is woken by the next append; each batch it
+ * drains is applied to the sinks under a single lock. A buffer is dropped once its thread has ended
+ * and it has been drained. With {@code report.async=false} events are applied synchronously instead.
+ */
+public class ReportJournal {
+    private static final Logger logger = LoggerFactory.getLogger(ReportJournal.class);
+
+    private static final Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<Buffer> localBuffer = ThreadLocal.withInitial(() -> {
+        Buffer buffer = new Buffer(Thread.currentThread());
+        buffers.add(buffer);
+        return buffer;
+    });
+    private static final List<ReportSink> sinks = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger depth = new AtomicInteger();
+    private static final AtomicInteger maxDepth = new AtomicInteger();
+    private static final AtomicLong written = new AtomicLong();
+    private static final AtomicBoolean writerIdle = new AtomicBoolean();
+    private static final boolean async = ConfigManager.getBooleanProperty("report.async", true);
+    private static final long pollNanos = TimeUnit.MILLISECONDS.toNanos(
+        ConfigManager.getIntProperty("report.journal.poll.ms", 5));
+    private static volatile Thread writer;
+
+    /**
+     * Events appended by one thread, in order.
+     */
+    private static class Buffer {
+        private final Thread owner;
+        private final Queue<ReportEvent> events = new ConcurrentLinkedQueue<>();
+
+        Buffer(Thread owner) {
+            this.owner = owner;
+        }
+    }
+
+    private ReportJournal() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static void addSink(ReportSink sink) {
+        sinks.add(sink);
+    }
+
+    public static void removeSink(ReportSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Appends an event to the current thread's buffer. Never blocks in asynchronous mode.
+     */
+    public static void append(ReportEvent event) {
+        if (!async) {
+            synchronized (ReportJournal.class) {
+                dispatch(event);
+            }
+            return;
+        }
+        localBuffer.get().events.add(event);
+        int current = depth.incrementAndGet();
+        maxDepth.accumulateAndGet(current, Math::max);
+        if (writer == null) {
+            startWriter();
+        } else if (writerIdle.get() && writerIdle.compareAndSet(true, false)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Waits until every event appended so far has been applied to the sinks, then flushes them.
+     * The journal is polled every {@code report.journal.poll.ms} while waiting.
+     *
+     * @param timeoutMillis maximum time to wait
+     * @return true if the journal was fully drained
+     */
+    public static boolean drain(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (depth.get() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                logger.warn("Report journal not drained within {} ms, {} events pending", timeoutMillis, depth.get());
+                return false;
+            }
+            LockSupport.parkNanos(pollNanos);
+        }
+        synchronized (ReportJournal.class) {
+            sinks.forEach(ReportSink::flush);
+        }
+        return true;
+    }
+
+    public static int getDepth() {
+        return depth.get();
+    }
+
+    public static int getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public static long getWrittenCount() {
+        return written.get();
+    }
+
+    private static synchronized void startWriter() {
+        if (writer != null) {
+            return;
+        }
+        Thread thread = new Thread(ReportJournal::writeLoop, "report-journal-writer");
+        thread.setDaemon(true);
+        thread.start();
+        writer = thread;
+        logger.debug("Report journal writer started");
+    }
+
+    private static void writeLoop() {
+        List<ReportEvent> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            for (Iterator<Buffer> it = buffers.iterator(); it.hasNext(); ) {
+                Buffer buffer = it.next();
+                // Checked before draining, so that no event appended by the thread can be left behind
+                boolean ended = !buffer.owner.isAlive();
+                ReportEvent event;
+                while ((event = buffer.events.poll()) != null) {
+                    batch.add(event);
+                }
+                if (ended) {
+                    it.remove();
+                }
+            }
+            if (!batch.isEmpty()) {
+                synchronized (ReportJournal.class) {
+                    batch.forEach(ReportJournal::dispatch);
+                }
+                depth.addAndGet(-batch.size());
+                batch.clear();
+                continue;
+            }
+            waitForEvents();
+        }
+    }
+
+    /**
+     * Sleeps until the next append, or until a sink that is holding back output wants to be called again.
+     */
+    private static void waitForEvents() {
+        long wakeUpMillis = 0;
+        synchronized (ReportJournal.class) {
+            for (ReportSink sink : sinks) {
+                long delay = notifyIdle(sink);
+                if (delay > 0) {
+                    wakeUpMillis = wakeUpMillis == 0 ? delay : Math.min(wakeUpMillis, delay);
+                }
+            }
+        }
+        writerIdle.set(true);
+        // An event appended before the flag was set has not unparked the writer
+        if (depth.get() == 0) {
+            if (wakeUpMillis > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(wakeUpMillis));
+            } else {
+                LockSupport.park();
+            }
+        }
+        writerIdle.set(false);
+    }
+
+    private static long notifyIdle(ReportSink sink) {
+        try {
+            return sink.onIdle();
+        } catch (Exception e) {
+            logger.warn("Report sink {} failed while idle: {}", sink.getClass().getSimpleName(), e.getMessage());
+            return 0;
+        }
+    }
+
+    private static void dispatch(ReportEvent event) {
+        for (ReportSink sink : sinks) {
+            try {
+                sink.accept(event);
+            } catch (Exception e) {
+                logger.warn("Report sink {} failed on {} event: {}", sink.getClass().getSimpleName(),
+                    event.getType(), e.getMessage());
+            }
+        }
+        written.incrementAndGet();
+    }
+}
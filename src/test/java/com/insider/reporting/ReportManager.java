@@ -2,27 +2,42 @@ package com.insider.reporting;
 
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
 import com.aventstack.extentreports.reporter.configuration.Theme;
+import com.insider.artifacts.ArtifactStore;
 import com.insider.config.ConfigManager;
-import com.insider.driver.DriverManager;
+import com.insider.config.ConfigSnapshot;
+import com.insider.context.TestContext;
+import com.insider.evidence.EvidenceService;
+import com.insider.metrics.CommandMetrics;
+import com.insider.metrics.WaitMetrics;
+import com.insider.sharding.Shard;
 import org.apache.commons.io.FileUtils;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
 
 public class ReportManager {
     private static final Logger logger = LoggerFactory.getLogger(ReportManager.class);
+    private static volatile boolean initialized;
+    // Live report model; null in incremental mode, where the model is only built when writing the HTML
     private static ExtentReports extent;
-    private static ThreadLocal<ExtentTest> test = new ThreadLocal<>();
-    private static final String SCREENSHOT_DIR = "test-output/screenshots/";
+    private static ReportSink sink;
+    private static IncrementalReportSink incrementalSink;
+    private static String reportPath;
     private static final String REPORT_DIR = "test-output/reports/";
+    private static final long JOURNAL_DRAIN_TIMEOUT_MS = 30000;
     
     static {
         createDirectories();
@@ -30,128 +45,244 @@ public class ReportManager {
     
     private static void createDirectories() {
         try {
-            FileUtils.forceMkdir(new File(SCREENSHOT_DIR));
             FileUtils.forceMkdir(new File(REPORT_DIR));
+            if (Shard.isEnabled()) {
+                FileUtils.forceMkdir(Shard.outputDir().toFile());
+            }
         } catch (IOException e) {
             logger.error("Failed to create report directories", e);
         }
     }
     
-    public static void initializeReport() {
-        if (extent == null) {
+    public static synchronized void initializeReport() {
+        if (!initialized) {
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String reportPath = REPORT_DIR + "ExtentReport_" + timestamp + ".html";
-            
-            ExtentSparkReporter spark = new ExtentSparkReporter(reportPath);
-            spark.config().setTheme(Theme.STANDARD);
-            spark.config().setDocumentTitle("Insider QA Test Report");
-            spark.config().setReportName("Career Application Flow Test Report");
-            spark.config().setTimeStampFormat("MMM dd, yyyy HH:mm:ss");
+            reportPath = REPORT_DIR + "ExtentReport_" + timestamp
+                + (Shard.isEnabled() ? "_" + Shard.label() : "") + ".html";
             
-            extent = new ExtentReports();
-            extent.attachReporter(spark);
+            if (ConfigManager.isIncrementalReport()) {
+                // Events go straight to disk; the HTML is rebuilt from the log when the report is closed
+                incrementalSink = new IncrementalReportSink(Paths.get(reportPath.replaceAll("\\.html$", ".jsonl")),
+                    ConfigManager.getIntProperty("report.flush.interval.ms", 1000),
+                    ConfigManager.getIntProperty("report.flush.max.buffered.bytes", 65536));
+                sink = incrementalSink;
+            } else {
+                extent = createExtentReports(reportPath);
+                sink = new ExtentSink(extent);
+            }
+            ReportJournal.addSink(sink);
+            ArtifactStore.record(reportPath, "report");
+            if (incrementalSink != null) {
+                ArtifactStore.record(incrementalSink.getFile().toString().replace('\\', '/'), "report-log");
+            }
+            ArtifactStore.evictInBackground();
+            // Publish only once fully configured, so other threads never see a half-built instance
+            initialized = true;
             
             // Add system information
-            extent.setSystemInfo("OS", System.getProperty("os.name"));
-            extent.setSystemInfo("Java Version", System.getProperty("java.version"));
-            extent.setSystemInfo("Browser", ConfigManager.getBrowser());
-            extent.setSystemInfo("Headless Mode", String.valueOf(ConfigManager.isHeadless()));
-            extent.setSystemInfo("Environment", ConfigManager.getProperty("environment", "dev"));
+            setSystemInfo("OS", System.getProperty("os.name"));
+            setSystemInfo("Java Version", System.getProperty("java.version"));
+            setSystemInfo("Browser", ConfigManager.getBrowser());
+            setSystemInfo("Headless Mode", String.valueOf(ConfigManager.isHeadless()));
+            setSystemInfo("Environment", ConfigManager.snapshot().getEnvironment());
+            writeConfiguration(timestamp);
             
             logger.info("ExtentReports initialized successfully. Report will be generated at: {}", reportPath);
+            if (incrementalSink != null) {
+                logger.info("Report events are streamed to {}", incrementalSink.getFile());
+            }
         }
     }
     
-    public static void createTest(String testName) {
-        if (extent != null) {
-            test.set(extent.createTest(testName));
-            logger.info("Created test: {}", testName);
+    /**
+     * Writes the effective configuration next to the report, with the layer each value came from, and
+     * lists the values that override {@code config.properties} in the report's system information.
+     */
+    private static void writeConfiguration(String timestamp) {
+        ConfigSnapshot snapshot = ConfigManager.snapshot();
+        String configPath = REPORT_DIR + "config_" + timestamp + (Shard.isEnabled() ? "_" + Shard.label() : "") + ".properties";
+        StringBuilder text = new StringBuilder("# Effective configuration, environment ")
+            .append(snapshot.getEnvironment()).append(System.lineSeparator());
+        snapshot.describe().forEach((key, value) -> text.append(key).append('=').append(value)
+            .append("  # ").append(snapshot.getSource(key).name().toLowerCase(Locale.ROOT)).append(System.lineSeparator()));
+        try {
+            Files.write(Paths.get(configPath), text.toString().getBytes(StandardCharsets.UTF_8));
+            ArtifactStore.record(configPath, "config");
+        } catch (IOException e) {
+            logger.warn("Failed to write effective configuration to {}: {}", configPath, e.getMessage());
+        }
+        List<String> overrides = snapshot.describeOverrides();
+        setSystemInfo("Configuration", configPath
+            + (overrides.isEmpty() ? "" : "; overrides: " + String.join(", ", overrides)));
+    }
+    
+    /**
+     * Creates an ExtentReports instance with the Spark reporter and, in shard mode, the JSON formatter
+     * used by ShardMerger.
+     *
+     * @param reportPath path of the HTML report
+     * @return the configured ExtentReports instance
+     */
+    static ExtentReports createExtentReports(String reportPath) {
+        ExtentSparkReporter spark = new ExtentSparkReporter(reportPath);
+        spark.config().setTheme(Theme.STANDARD);
+        spark.config().setDocumentTitle("Insider QA Test Report");
+        spark.config().setReportName("Career Application Flow Test Report");
+        spark.config().setTimeStampFormat("MMM dd, yyyy HH:mm:ss");
+        
+        ExtentReports reports = new ExtentReports();
+        reports.attachReporter(spark);
+        if (Shard.isEnabled()) {
+            // Partial report in JSON form, merged with the other shards by ShardMerger
+            reports.attachReporter(new JsonFormatter(Shard.outputDir().resolve("extent.json").toFile()));
+            reports.setSystemInfo("Shard", Shard.label());
+        }
+        return reports;
+    }
+    
+    public static void setSystemInfo(String key, String value) {
+        if (initialized) {
+            ReportJournal.append(ReportEvent.systemInfo(key, value));
         }
     }
     
+    public static void createTest(String testName) {
+        createTest(testName, null);
+    }
+    
     public static void createTest(String testName, String description) {
-        if (extent != null) {
-            test.set(extent.createTest(testName, description));
-            logger.info("Created test: {} - {}", testName, description);
+        TestContext context = TestContext.current();
+        if (initialized && context != null) {
+            ReportNode node = new ReportNode(testName, description);
+            ReportJournal.append(ReportEvent.createTest(node));
+            context.setReportNode(node);
+            logger.info("Created test: {}{}", testName, description != null ? " - " + description : "");
         }
     }
     
     public static void logInfo(String message) {
-        if (test.get() != null) {
-            test.get().info(message);
-        }
+        log(Status.INFO, message);
         logger.info(message);
     }
     
+    /**
+     * Records a summary followed by HTML markup such as a table. Only the summary is logged, so the
+     * markup stays out of the log file.
+     */
+    public static void logInfo(String summary, String html) {
+        log(Status.INFO, summary + html);
+        logger.info(summary);
+    }
+    
     public static void logPass(String message) {
-        if (test.get() != null) {
-            test.get().pass(message);
-        }
+        log(Status.PASS, message);
         logger.info("PASS: {}", message);
     }
     
+    /**
+     * Records a failed step. Screenshots are not taken here; failure evidence is captured once per
+     * failed test by {@link com.insider.listeners.TestListener} through {@link EvidenceService}.
+     */
     public static void logFail(String message) {
-        if (test.get() != null) {
-            test.get().fail(message);
-            captureScreenshot("FAILURE");
-        }
+        log(Status.FAIL, message);
         logger.error("FAIL: {}", message);
     }
     
     public static void logSkip(String message) {
-        if (test.get() != null) {
-            test.get().skip(message);
-        }
+        log(Status.SKIP, message);
         logger.warn("SKIP: {}", message);
     }
     
     public static void logWarning(String message) {
-        if (test.get() != null) {
-            test.get().warning(message);
-        }
+        log(Status.WARNING, message);
         logger.warn("WARNING: {}", message);
     }
     
+    /**
+     * Adds an entry to the current test's report node. Entries made before the node exists,
+     * e.g. from a {@code @BeforeMethod}, are replayed once it is created.
+     *
+     * @return true if the current thread has a test context to report into
+     */
+    private static boolean log(Status status, String message) {
+        TestContext context = TestContext.current();
+        if (context == null) {
+            return false;
+        }
+        context.withReportNode(node -> ReportJournal.append(ReportEvent.log(node, status, message)));
+        return true;
+    }
+    
     public static void captureScreenshot(String screenshotName) {
-        if (ConfigManager.isScreenshotOnFailure() && DriverManager.getDriver() != null) {
-            try {
-                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS"));
-                String fileName = screenshotName + "_" + timestamp + ".png";
-                String filePath = SCREENSHOT_DIR + fileName;
-                
-                TakesScreenshot screenshot = (TakesScreenshot) DriverManager.getDriver();
-                File sourceFile = screenshot.getScreenshotAs(OutputType.FILE);
-                File destFile = new File(filePath);
-                
-                FileUtils.copyFile(sourceFile, destFile);
-                
-                if (test.get() != null) {
-                    test.get().addScreenCaptureFromPath(filePath);
-                }
-                
-                logger.info("Screenshot captured: {}", filePath);
-            } catch (Exception e) {
-                logger.error("Failed to capture screenshot", e);
-            }
+        try {
+            EvidenceService.capture(screenshotName);
+        } catch (Exception e) {
+            logger.error("Failed to capture screenshot", e);
         }
     }
     
-    public static void flushReport() {
-        if (extent != null) {
-            extent.flush();
+    /**
+     * @return an HTML link to a file under test-output, relative to the report's directory
+     */
+    public static String link(String path, String text) {
+        String href = Paths.get(REPORT_DIR).toAbsolutePath().relativize(Paths.get(path).toAbsolutePath())
+            .toString().replace('\\', '/');
+        return "<a href='" + href + "' target='_blank'>" + text + "</a>";
+    }
+    
+    public static synchronized void flushReport() {
+        if (initialized) {
+            EvidenceService.awaitPending(JOURNAL_DRAIN_TIMEOUT_MS);
+            ReportJournal.drain(JOURNAL_DRAIN_TIMEOUT_MS);
+            writeHtml();
             logger.info("ExtentReports flushed successfully");
         }
     }
     
-    public static void closeReport() {
+    public static synchronized void closeReport() {
+        if (initialized) {
+            setSystemInfo("Report Journal", "max depth " + ReportJournal.getMaxDepth()
+                + " events, " + ReportJournal.getWrittenCount() + " events written");
+            EvidenceService.awaitPending(JOURNAL_DRAIN_TIMEOUT_MS);
+            setSystemInfo("Evidence", EvidenceService.summary());
+            String commands = CommandMetrics.export();
+            if (commands != null) {
+                setSystemInfo("WebDriver Commands", commands);
+            }
+            String waits = WaitMetrics.export();
+            if (waits != null) {
+                setSystemInfo("Waits", waits);
+            }
+            ReportJournal.drain(JOURNAL_DRAIN_TIMEOUT_MS);
+            ReportJournal.removeSink(sink);
+            if (incrementalSink != null) {
+                incrementalSink.close();
+            }
+            writeHtml();
+            ArtifactStore.awaitEviction(JOURNAL_DRAIN_TIMEOUT_MS);
+            sink = null;
+            incrementalSink = null;
+            extent = null;
+            initialized = false;
+            logger.info("ExtentReports closed successfully (report journal max depth: {})",
+                ReportJournal.getMaxDepth());
+        }
+    }
+    
+    private static void writeHtml() {
         if (extent != null) {
             extent.flush();
-            extent = null;
-            logger.info("ExtentReports closed successfully");
+        } else {
+            ReportRebuilder.replay(incrementalSink.getFile(), createExtentReports(reportPath)).flush();
         }
     }
     
+    /**
+     * @return the ExtentReports node of the current test, or null if it has not been written yet
+     */
     public static ExtentTest getCurrentTest() {
-        return test.get();
+        TestContext context = TestContext.current();
+        ReportNode node = context != null ? context.getReportNode() : null;
+        return node != null ? node.getExtentTest() : null;
     }
 }
@@ -0,0 +1,46 @@
+package com.insider.reporting;
+
+import com.aventstack.extentreports.ExtentTest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handle for a test's report entry. The underlying {@link ExtentTest} is created by the
+ * report writer thread, so test threads refer to it only through this handle.
+ */
+public class ReportNode {
+    private static final AtomicLong ids = new AtomicLong();
+
+    private final long id = ids.incrementAndGet();
+    private final String name;
+    private final String description;
+    private volatile ExtentTest extentTest;
+
+    public ReportNode(String name, String description) {
+        this.name = name;
+        this.description = description;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return the ExtentReports node, or null if the writer has not created it yet
+     */
+    public ExtentTest getExtentTest() {
+        return extentTest;
+    }
+
+    void setExtentTest(ExtentTest extentTest) {
+        this.extentTest = extentTest;
+    }
+}
@@ -0,0 +1,121 @@
+package com.insider.reporting;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Log;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.insider.exceptions.TestFrameworkException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an ExtentReport from the JSON-lines log written by {@link IncrementalReportSink}.
+ * Runs at the end of an incremental run, and can be run on demand against the log of a run
+ * that was killed:
+ * <p>
+ * {@code ReportRebuilder <log.jsonl> [report.html]}
+ */
+public class ReportRebuilder {
+    private static final Logger logger = LoggerFactory.getLogger(ReportRebuilder.class);
+
+    private ReportRebuilder() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: ReportRebuilder <log.jsonl> [report.html]");
+        }
+        Path log = Paths.get(args[0]);
+        String reportPath = args.length > 1 ? args[1] : args[0].replaceAll("\\.jsonl$", "") + ".html";
+        ExtentReports extent = replay(log, ReportManager.createExtentReports(reportPath));
+        extent.flush();
+        logger.info("Rebuilt report {} from {}", reportPath, log);
+    }
+
+    /**
+     * Replays every event of the log into the given ExtentReports instance, restoring the original
+     * timestamps. A truncated last line, as left by a killed JVM, is skipped.
+     *
+     * @param log the incremental report log
+     * @param extent the report to populate
+     * @return the populated report
+     */
+    public static ExtentReports replay(Path log, ExtentReports extent) {
+        Map<Long, ExtentTest> tests = new HashMap<>();
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonObject event;
+                try {
+                    event = JsonParser.parseString(line).getAsJsonObject();
+                } catch (JsonParseException | IllegalStateException e) {
+                    skipped++;
+                    continue;
+                }
+                apply(event, extent, tests);
+            }
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to read incremental report log " + log, e);
+        }
+        if (skipped > 0) {
+            logger.warn("Skipped {} unreadable lines in {}", skipped, log);
+        }
+        return extent;
+    }
+
+    private static void apply(JsonObject event, ExtentReports extent, Map<Long, ExtentTest> tests) {
+        ReportEvent.Type type = ReportEvent.Type.valueOf(event.get("type").getAsString());
+        Date timestamp = new Date(event.get("ts").getAsLong());
+        String message = string(event, "message");
+        String detail = string(event, "detail");
+
+        if (type == ReportEvent.Type.SYSTEM_INFO) {
+            extent.setSystemInfo(message, detail);
+            return;
+        }
+        long nodeId = event.get("node").getAsLong();
+        if (type == ReportEvent.Type.CREATE_TEST) {
+            String name = string(event, "name");
+            ExtentTest test = message != null ? extent.createTest(name, message) : extent.createTest(name);
+            test.getModel().setStartTime(timestamp);
+            test.getModel().setEndTime(timestamp);
+            tests.put(nodeId, test);
+            return;
+        }
+
+        ExtentTest test = tests.get(nodeId);
+        if (test == null) {
+            return;
+        }
+        if (type == ReportEvent.Type.LOG) {
+            test.log(Status.valueOf(string(event, "status")), message);
+            List<Log> logs = test.getModel().getLogs();
+            logs.get(logs.size() - 1).setTimestamp(timestamp);
+        } else if (type == ReportEvent.Type.ATTACHMENT) {
+            test.addScreenCaptureFromPath(detail);
+        }
+        test.getModel().setEndTime(timestamp);
+    }
+
+    private static String string(JsonObject event, String field) {
+        JsonElement element = event.get(field);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.insider.reporting;
+
+/**
+ * Destination for report journal events. Sinks are only ever called from the report writer thread.
+ */
+public interface ReportSink {
+
+    void accept(ReportEvent event);
+
+    /**
+     * Called when the journal has been drained, e.g. before the report is written to disk.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Called by the writer when the journal has run empty, and again when the delay returned here has
+     * passed without new events.
+     *
+     * @return milliseconds until the sink wants to be called again, or 0 if it has nothing pending
+     */
+    default long onIdle() {
+        return 0;
+    }
+}
@@ -0,0 +1,136 @@
+package com.insider.sharding;
+
+import com.insider.exceptions.TestFrameworkException;
+import com.insider.history.TestKeys;
+import org.testng.ITestResult;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Minimal JUnit XML writer used for per-shard results and their merged form.
+ */
+public class JUnitXml {
+
+    private JUnitXml() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static Document newSuite(String name) {
+        Document document = newDocument();
+        Element suite = document.createElement("testsuite");
+        suite.setAttribute("name", name);
+        document.appendChild(suite);
+        updateTotals(suite);
+        return document;
+    }
+
+    /**
+     * Builds a JUnit XML test suite from TestNG results.
+     */
+    public static Document fromResults(String name, Collection<ITestResult> results) {
+        Document document = newSuite(name);
+        Element suite = document.getDocumentElement();
+        for (ITestResult result : results) {
+            Element testCase = document.createElement("testcase");
+            testCase.setAttribute("classname", result.getMethod().getRealClass().getName());
+            testCase.setAttribute("name", result.getMethod().getMethodName()
+                + TestKeys.dataset(result.getParameters()));
+            testCase.setAttribute("time", seconds(result.getEndMillis() - result.getStartMillis()));
+
+            if (result.getStatus() == ITestResult.FAILURE) {
+                Element failure = document.createElement("failure");
+                Throwable throwable = result.getThrowable();
+                if (throwable != null) {
+                    failure.setAttribute("type", throwable.getClass().getName());
+                    failure.setAttribute("message", String.valueOf(throwable.getMessage()));
+                    StringWriter stackTrace = new StringWriter();
+                    throwable.printStackTrace(new PrintWriter(stackTrace));
+                    failure.setTextContent(stackTrace.toString());
+                }
+                testCase.appendChild(failure);
+            } else if (result.getStatus() == ITestResult.SKIP) {
+                testCase.appendChild(document.createElement("skipped"));
+            }
+            suite.appendChild(testCase);
+        }
+        updateTotals(suite);
+        return document;
+    }
+
+    /**
+     * Copies all test cases of {@code source} into {@code target} and recomputes the totals.
+     */
+    public static void merge(Document target, Document source) {
+        Element suite = target.getDocumentElement();
+        NodeList testCases = source.getElementsByTagName("testcase");
+        for (int i = 0; i < testCases.getLength(); i++) {
+            suite.appendChild(target.importNode(testCases.item(i), true));
+        }
+        updateTotals(suite);
+    }
+
+    public static Document read(Path file) {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile());
+        } catch (Exception e) {
+            throw new TestFrameworkException("Failed to read JUnit XML: " + file, e);
+        }
+    }
+
+    public static void write(Document document, Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.transform(new DOMSource(document), new StreamResult(file.toFile()));
+        } catch (Exception e) {
+            throw new TestFrameworkException("Failed to write JUnit XML: " + file, e);
+        }
+    }
+
+    private static void updateTotals(Element suite) {
+        NodeList testCases = suite.getElementsByTagName("testcase");
+        int failures = 0;
+        int skipped = 0;
+        double time = 0;
+        for (int i = 0; i < testCases.getLength(); i++) {
+            Element testCase = (Element) testCases.item(i);
+            failures += testCase.getElementsByTagName("failure").getLength() > 0 ? 1 : 0;
+            skipped += testCase.getElementsByTagName("skipped").getLength() > 0 ? 1 : 0;
+            String caseTime = testCase.getAttribute("time");
+            time += caseTime.isEmpty() ? 0 : Double.parseDouble(caseTime);
+        }
+        suite.setAttribute("tests", String.valueOf(testCases.getLength()));
+        suite.setAttribute("failures", String.valueOf(failures));
+        suite.setAttribute("skipped", String.valueOf(skipped));
+        suite.setAttribute("errors", "0");
+        suite.setAttribute("time", String.format(Locale.ROOT, "%.3f", time));
+    }
+
+    private static String seconds(long millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+    }
+
+    private static Document newDocument() {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new TestFrameworkException("Failed to create XML document", e);
+        }
+    }
+}
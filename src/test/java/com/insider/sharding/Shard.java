@@ -0,0 +1,78 @@
+package com.insider.sharding;
+
+import com.insider.config.ConfigManager;
+import com.insider.history.TestKeys;
+import org.testng.ITestNGMethod;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Deterministic assignment of tests to shards.
+ * A run is sharded when {@code shard.total} is greater than one; every JVM or machine then runs the
+ * tests whose stable key hashes to its {@code shard.index}. Plain test methods are assigned as a whole,
+ * data-driven methods are split row by row.
+ */
+public class Shard {
+    public static final String SHARDS_DIR = "test-output/shards/";
+
+    private Shard() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return total() > 1;
+    }
+
+    public static int index() {
+        return ConfigManager.getShardIndex();
+    }
+
+    public static int total() {
+        return ConfigManager.getShardTotal();
+    }
+
+    /**
+     * @param key a stable test key
+     * @return true if the given key belongs to this shard
+     */
+    public static boolean owns(String key) {
+        if (!isEnabled()) {
+            return true;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return Math.floorMod(crc.getValue(), (long) total()) == index();
+    }
+
+    /**
+     * Lazily keeps the data provider rows of the given method that belong to this shard.
+     *
+     * @param method the data-driven test method
+     * @param rows all data provider rows
+     * @return the rows this shard should run
+     */
+    public static Iterator<Object[]> filter(ITestNGMethod method, Iterator<Object[]> rows) {
+        String testKey = TestKeys.of(method);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false)
+            .filter(row -> owns(testKey + TestKeys.dataset(row)))
+            .iterator();
+    }
+
+    public static String label() {
+        return "shard-" + index() + "-of-" + total();
+    }
+
+    /**
+     * @return directory receiving this shard's partial results
+     */
+    public static Path outputDir() {
+        return Paths.get(SHARDS_DIR, label());
+    }
+}
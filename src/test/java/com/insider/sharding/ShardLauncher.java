@@ -0,0 +1,109 @@
+package com.insider.sharding;
+
+import com.insider.config.ConfigManager;
+import com.insider.config.ConfigSnapshot;
+import com.insider.exceptions.TestFrameworkException;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a TestNG suite as N forked JVMs on this machine, one per shard, and merges their results.
+ * Each fork inherits the launcher's classpath and JVM options, such as {@code -Xmx} and
+ * {@code -D} flags, except debugger agents whose port would clash, plus every configuration key
+ * that was overridden by a system property set at run time.
+ * <p>
+ * Usage: {@code ShardLauncher <shardCount> [suiteXml]}
+ */
+public class ShardLauncher {
+    private static final Logger logger = LoggerFactory.getLogger(ShardLauncher.class);
+    private static final String[] NOT_FORWARDED_OPTIONS = {"-Dshard.index=", "-Dshard.total=", "-agentlib:jdwp", "-Xrunjdwp", "-Xdebug"};
+
+    private ShardLauncher() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static void main(String[] args) throws Exception {
+        int shards = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        String suiteXml = args.length > 1 ? args[1] : "testng.xml";
+        System.exit(run(shards, suiteXml));
+    }
+
+    /**
+     * Launches all shards, waits for them and merges their results.
+     *
+     * @param shards number of shards (and forked JVMs)
+     * @param suiteXml TestNG suite file to run in every shard
+     * @return 0 if every shard passed, 1 otherwise
+     */
+    public static int run(int shards, String suiteXml) throws IOException, InterruptedException {
+        if (shards < 1) {
+            throw new TestFrameworkException("Shard count must be at least 1, was " + shards);
+        }
+        FileUtils.deleteDirectory(new File(Shard.SHARDS_DIR));
+
+        List<Process> processes = new ArrayList<>();
+        for (int index = 0; index < shards; index++) {
+            Path log = Paths.get(Shard.SHARDS_DIR, "shard-" + index + "-of-" + shards + ".log");
+            FileUtils.forceMkdirParent(log.toFile());
+            ProcessBuilder builder = new ProcessBuilder(command(index, shards, suiteXml))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+            processes.add(builder.start());
+            logger.info("Started shard {}/{} (output: {})", index, shards, log);
+        }
+
+        int exitCode = 0;
+        for (int index = 0; index < processes.size(); index++) {
+            int shardExit = processes.get(index).waitFor();
+            logger.info("Shard {}/{} finished with exit code {}", index, shards, shardExit);
+            exitCode = Math.max(exitCode, shardExit == 0 ? 0 : 1);
+        }
+
+        ShardMerger.merge(Paths.get(Shard.SHARDS_DIR), Paths.get("test-output/merged"));
+        return exitCode;
+    }
+
+    private static List<String> command(int index, int shards, String suiteXml) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        List<String> options = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        for (String option : options) {
+            if (isForwarded(option)) {
+                command.add(option);
+            }
+        }
+        // System properties set after start-up, e.g. by the code that calls run()
+        ConfigSnapshot config = ConfigManager.snapshot();
+        for (String key : config.describe().keySet()) {
+            String option = "-D" + key + "=" + System.getProperty(key);
+            if (config.getSource(key) == ConfigSnapshot.Source.SYSTEM && !options.contains(option) && isForwarded(option)) {
+                command.add(option);
+            }
+        }
+        command.add("-Dshard.index=" + index);
+        command.add("-Dshard.total=" + shards);
+        command.add("org.testng.TestNG");
+        command.add(suiteXml);
+        return command;
+    }
+
+    private static boolean isForwarded(String option) {
+        for (String excluded : NOT_FORWARDED_OPTIONS) {
+            if (option.startsWith(excluded)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,146 @@
+package com.insider.sharding;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.configuration.Theme;
+import com.insider.exceptions.TestFrameworkException;
+import com.insider.history.ResultsStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Combines the partial results of all shards into one ExtentReport, one JUnit XML file and one
+ * timing summary. Shards are discovered as sub-directories of {@link Shard#SHARDS_DIR}.
+ * <p>
+ * Usage: {@code ShardMerger [shardsDir] [outputDir]}
+ */
+public class ShardMerger {
+    private static final Logger logger = LoggerFactory.getLogger(ShardMerger.class);
+
+    private ShardMerger() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static void main(String[] args) {
+        Path shardsDir = Paths.get(args.length > 0 ? args[0] : Shard.SHARDS_DIR);
+        Path outputDir = Paths.get(args.length > 1 ? args[1] : "test-output/merged");
+        merge(shardsDir, outputDir);
+    }
+
+    /**
+     * Merges every shard directory below {@code shardsDir} into {@code outputDir}.
+     *
+     * @param shardsDir directory containing one sub-directory per shard
+     * @param outputDir directory receiving the merged report, JUnit XML and timing summary
+     */
+    public static void merge(Path shardsDir, Path outputDir) {
+        List<Path> shards = listShards(shardsDir);
+        if (shards.isEmpty()) {
+            throw new TestFrameworkException("No shard results found in " + shardsDir);
+        }
+        try {
+            Files.createDirectories(outputDir);
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to create merge output directory " + outputDir, e);
+        }
+
+        mergeExtentReports(shards, outputDir.resolve("ExtentReport.html"));
+        mergeJUnitXml(shards, outputDir.resolve("junit-results.xml"));
+        writeTimingSummary(shards, outputDir.resolve("timing-summary.txt"));
+        logger.info("Merged {} shards into {}", shards.size(), outputDir);
+    }
+
+    private static void mergeExtentReports(List<Path> shards, Path reportFile) {
+        ExtentSparkReporter spark = new ExtentSparkReporter(reportFile.toString());
+        spark.config().setTheme(Theme.STANDARD);
+        spark.config().setDocumentTitle("Insider QA Test Report");
+        spark.config().setReportName("Career Application Flow Test Report (" + shards.size() + " shards)");
+        spark.config().setTimeStampFormat("MMM dd, yyyy HH:mm:ss");
+
+        ExtentReports extent = new ExtentReports();
+        for (Path shard : shards) {
+            Path archive = shard.resolve("extent.json");
+            if (!Files.exists(archive)) {
+                logger.warn("Shard {} has no ExtentReports archive, skipping", shard.getFileName());
+                continue;
+            }
+            try {
+                extent.createDomainFromJsonArchive(archive.toFile());
+            } catch (IOException e) {
+                throw new TestFrameworkException("Failed to read ExtentReports archive " + archive, e);
+            }
+        }
+        extent.attachReporter(spark);
+        extent.setSystemInfo("Shards", String.valueOf(shards.size()));
+        extent.flush();
+    }
+
+    private static void mergeJUnitXml(List<Path> shards, Path junitFile) {
+        Document merged = JUnitXml.newSuite("Insider QA Test Suite");
+        for (Path shard : shards) {
+            try (Stream<Path> files = Files.list(shard)) {
+                files.filter(file -> file.getFileName().toString().matches("junit-.*\\.xml"))
+                    .sorted()
+                    .forEach(file -> JUnitXml.merge(merged, JUnitXml.read(file)));
+            } catch (IOException e) {
+                throw new TestFrameworkException("Failed to list shard directory " + shard, e);
+            }
+        }
+        JUnitXml.write(merged, junitFile);
+    }
+
+    private static void writeTimingSummary(List<Path> shards, Path summaryFile) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "%-24s %8s %14s %14s", "shard", "tests", "busy (ms)", "wall (ms)"));
+        long slowestWall = 0;
+        long totalBusy = 0;
+        int totalTests = 0;
+        for (Path shard : shards) {
+            List<ResultsStore.Record> records;
+            try (Stream<ResultsStore.Record> stream = ResultsStore.readFrom(shard.resolve("timings.tsv"))) {
+                records = stream.collect(Collectors.toList());
+            }
+            long busy = records.stream().mapToLong(ResultsStore.Record::getDurationMillis).sum();
+            long start = records.stream().mapToLong(ResultsStore.Record::getTimestamp).min().orElse(0);
+            long end = records.stream().mapToLong(r -> r.getTimestamp() + r.getDurationMillis()).max().orElse(0);
+            long wall = end - start;
+            slowestWall = Math.max(slowestWall, wall);
+            totalBusy += busy;
+            totalTests += records.size();
+            lines.add(String.format(Locale.ROOT, "%-24s %8d %14d %14d",
+                shard.getFileName(), records.size(), busy, wall));
+        }
+        lines.add(String.format(Locale.ROOT, "%-24s %8d %14d %14d", "total", totalTests, totalBusy, slowestWall));
+        lines.add(String.format(Locale.ROOT, "Shard balance (mean busy / slowest wall): %.2f",
+            slowestWall == 0 ? 1.0 : (double) totalBusy / shards.size() / slowestWall));
+        try {
+            Files.write(summaryFile, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to write timing summary " + summaryFile, e);
+        }
+        lines.forEach(logger::info);
+    }
+
+    private static List<Path> listShards(Path shardsDir) {
+        if (!Files.isDirectory(shardsDir)) {
+            return List.of();
+        }
+        try (Stream<Path> dirs = Files.list(shardsDir)) {
+            return dirs.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to list shards in " + shardsDir, e);
+        }
+    }
+}
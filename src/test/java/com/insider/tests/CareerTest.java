@@ -1,16 +1,16 @@
 package com.insider.tests;
 
 import com.insider.config.ConfigManager;
+import com.insider.context.TestContext;
 import com.insider.data.TestData;
-import com.insider.data.TestDataBuilder;
 import com.insider.data.TestDataManager;
+import com.insider.data.TestDataProviders;
 import com.insider.driver.DriverManager;
 import com.insider.pages.CareersPage;
 import com.insider.pages.HomePage;
 import com.insider.pages.JobsPage;
 import com.insider.reporting.ReportManager;
 import com.insider.utils.Helper;
-import com.insider.utils.ScreenshotUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,7 +27,6 @@ import java.util.List;
 
 public class CareerTest {
     private static final Logger logger = LoggerFactory.getLogger(CareerTest.class);
-    private TestData testData;
 
     @BeforeSuite
     public void initializeReport() {
@@ -38,15 +37,15 @@ public class CareerTest {
     public void setup() {
         logger.info("Setting up test environment");
         DriverManager.setup();
-        testData = TestDataBuilder.defaultTestData();
-        ReportManager.logInfo("Test data initialized: " + testData);
     }
 
-    @Test(description = "Test the complete career application flow from home page to job application")
-    public void testInsiderCareerApplicationFlow() {
+    @Test(description = "Test the complete career application flow from home page to job application",
+        dataProvider = "testData", dataProviderClass = TestDataProviders.class)
+    public void testInsiderCareerApplicationFlow(TestData testData) {
+        TestContext.require().setTestData(testData);
+        ReportManager.logInfo("Test data initialized: " + testData);
         try {
             // Visit https://useinsider.com/ and check Insider home page is opened or not
-            logger.info("Starting Insider career application flow test");
             ReportManager.logInfo("Starting Insider career application flow test");
             
             HomePage homePage = new HomePage(DriverManager.getDriver());
@@ -57,7 +56,6 @@ public class CareerTest {
                 "Home page URL is not correct");
             ReportManager.logPass("Successfully navigated to home page: " + currentUrl);
             
-            logger.info("Accepting cookies and navigating to careers page");
             ReportManager.logInfo("Accepting cookies and navigating to careers page");
             
             // Wait for page to be fully loaded before accepting cookies
@@ -100,7 +98,6 @@ public class CareerTest {
             careersPage.clickSeeAllQAJobsButton();
 
             JobsPage jobsPage = new JobsPage(DriverManager.getDriver());
-            logger.info("Filtering jobs by location: {}", testData.getLocation());
             ReportManager.logInfo("Filtering jobs by location: " + testData.getLocation());
             jobsPage.filterByLocation(testData.getLocation());
             
@@ -115,7 +112,6 @@ public class CareerTest {
 
 
             // Check that all jobs' Position contains "Quality Assurance", Department contains "Quality Assurance", and Location contains "Istanbul, Turkey"
-            logger.info("Verifying job listings...");
             ReportManager.logInfo("Verifying job listings for correct department and location");
             
             for (int i = 0; i < jobs.size(); i++) {
@@ -136,7 +132,6 @@ public class CareerTest {
             }
 
             // Click the "View Role" button and check that this action redirects us to the Lever Application form page
-            logger.info("Clicking view role button and switching to new window");
             ReportManager.logInfo("Clicking view role button and switching to new window");
             jobsPage.clickFirstViewRoleButton();
             Helper.switchToLastWindow();
@@ -146,20 +141,17 @@ public class CareerTest {
                 TestDataManager.getErrorIncorrectRedirect() + " " + testData.getExpectedRedirectDomain());
             ReportManager.logPass("Successfully redirected to: " + redirectedUrl);
             
-            logger.info("Test completed successfully");
             ReportManager.logPass("Test completed successfully");
             
         } catch (Exception e) {
+            // The failure is reported, with a screenshot, by TestListener.onTestFailure
             logger.error("Test failed with exception", e);
-            ReportManager.logFail("Test failed: " + e.getMessage());
-            ScreenshotUtils.captureScreenshotOnFailure("testInsiderCareerApplicationFlow", e);
             throw e;
         }
     }
 
     @AfterMethod
     public void teardown() {
-        logger.info("Cleaning up test environment");
         ReportManager.logInfo("Cleaning up test environment");
         DriverManager.teardown();
     }
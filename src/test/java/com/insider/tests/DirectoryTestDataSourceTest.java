@@ -0,0 +1,90 @@
+package com.insider.tests;
+
+import com.insider.data.DirectoryTestDataSource;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Reading of a test data directory by {@link DirectoryTestDataSource}, which must open each file
+ * only once the previous one is used up. Every test writes its own directory, as the methods of
+ * one instance run in parallel.
+ */
+public class DirectoryTestDataSourceTest {
+
+    private static Path createDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("test-data");
+        Files.writeString(directory.resolve("a.csv"), "location,department\nIstanbul,Quality Assurance\nLondon,Sales\n");
+        Files.writeString(directory.resolve("b.jsonl"), "{\"location\":\"Berlin\",\"department\":\"Engineering\"}\n");
+        return directory;
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void readsTheFilesInNameOrder() throws IOException {
+        Path directory = createDirectory();
+        try (Stream<Map<String, String>> records = new DirectoryTestDataSource(directory).records()) {
+            Assert.assertEquals(records.map(record -> record.get("location")).toArray(),
+                new Object[] {"Istanbul", "London", "Berlin"});
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void opensTheNextFileOnlyOnceTheCurrentOneIsUsedUp() throws IOException {
+        Path directory = createDirectory();
+        try (Stream<Map<String, String>> records = new DirectoryTestDataSource(directory).records()) {
+            Iterator<Map<String, String>> iterator = records.iterator();
+            Assert.assertEquals(iterator.next().get("location"), "Istanbul");
+            Assert.assertEquals(iterator.next().get("location"), "London");
+
+            // Had the second file been opened and read ahead with the first, its old content would show
+            Files.writeString(directory.resolve("b.jsonl"), "{\"location\":\"Paris\",\"department\":\"Engineering\"}\n");
+            Assert.assertEquals(iterator.next().get("location"), "Paris");
+            Assert.assertFalse(iterator.hasNext());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void holdsOneRowOfTheCurrentFile() throws IOException {
+        Path directory = createDirectory();
+        // Rows enough to outgrow the buffer of the file's reader
+        StringBuilder rows = new StringBuilder("location,department\n");
+        for (int i = 0; i < 10_000; i++) {
+            rows.append("City ").append(i).append(",Sales\n");
+        }
+        Files.writeString(directory.resolve("a.csv"), rows);
+        try (Stream<Map<String, String>> records = new DirectoryTestDataSource(directory).records()) {
+            Iterator<Map<String, String>> iterator = records.iterator();
+            Assert.assertEquals(iterator.next().get("location"), "City 0");
+
+            // Had the whole file been read with its first row, the appended row would not show
+            Files.writeString(directory.resolve("a.csv"), "Rome,Sales\n", StandardOpenOption.APPEND);
+            List<String> locations = new ArrayList<>();
+            iterator.forEachRemaining(record -> locations.add(record.get("location")));
+            Assert.assertEquals(locations.subList(locations.size() - 2, locations.size()), List.of("Rome", "Berlin"));
+        } finally {
+            delete(directory);
+        }
+    }
+}
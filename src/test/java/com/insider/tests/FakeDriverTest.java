@@ -0,0 +1,72 @@
+package com.insider.tests;
+
+import com.insider.context.TestContext;
+import com.insider.fakes.FakeWebDriver;
+import com.insider.fakes.VirtualClock;
+import com.insider.utils.Waits;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+
+/**
+ * Base of the tests that run {@code Helper}, {@code WaitStrategy} and the page objects against a
+ * {@link FakeWebDriver} on a {@link VirtualClock}, so that every wait and sleep passes in virtual
+ * time and a test with timeouts of minutes takes milliseconds. Every test opens its own
+ * {@link TestContext} holding the driver and clock, as the methods of one instance run in parallel.
+ * The tests run from {@code testng-unit.xml}, without the listeners of the browser suite.
+ */
+public abstract class FakeDriverTest {
+    @BeforeMethod
+    public void setUpFakeDriver(Method method) {
+        TestContext context = TestContext.open(method.getName());
+        VirtualClock clock = new VirtualClock();
+        context.setDriver(new FakeWebDriver(clock));
+        context.useTime(clock, clock);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDownFakeDriver() {
+        TestContext context = TestContext.current();
+        if (context != null) {
+            // Quit and detach like DriverManager.teardown, but without releasing a
+            // session slot, since the fake never acquired one
+            context.getDriver().quit();
+            context.setDriver(null);
+            context.close();
+        }
+    }
+
+    protected static FakeWebDriver driver() {
+        return (FakeWebDriver) TestContext.require().getDriver();
+    }
+
+    protected static VirtualClock clock() {
+        return (VirtualClock) TestContext.require().getClock();
+    }
+
+    protected static Duration millis(long millis) {
+        return Duration.ofMillis(millis);
+    }
+
+    protected static Duration seconds(long seconds) {
+        return Duration.ofSeconds(seconds);
+    }
+
+    /**
+     * @return how long a wait that is never met takes: conditions are polled until the timeout has
+     * passed, so the last poll comes one interval after it
+     */
+    protected static Duration timedOut(Duration timeout) {
+        return timeout.plus(Waits.getPollInterval());
+    }
+
+    /**
+     * @return the time of the first poll at or after the given time, for a wait started at time zero
+     */
+    protected static Duration firstPollAt(Duration time) {
+        long interval = Waits.getPollInterval().toMillis();
+        return millis((time.toMillis() + interval - 1) / interval * interval);
+    }
+}
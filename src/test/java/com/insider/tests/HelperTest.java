@@ -0,0 +1,161 @@
+package com.insider.tests;
+
+import com.insider.exceptions.ElementNotFoundException;
+import com.insider.exceptions.TestFrameworkException;
+import com.insider.fakes.FakeElement;
+import com.insider.fakes.Timeline;
+import com.insider.utils.Helper;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+/**
+ * Fallback, retry and timeout behaviour of {@link Helper}, timed on a virtual clock.
+ */
+public class HelperTest extends FakeDriverTest {
+    private static final By[] COMPANY_LOCATORS = {
+        By.xpath("//a[contains(text(),'Company')]"),
+        By.xpath("//nav//a[contains(text(),'Company')]"),
+        By.xpath("//header//a[contains(text(),'Company')]")
+    };
+    /** Time the scroll of {@link Helper#safeClick} takes to be found stable. */
+    private static final Duration SCROLL_CHECK = Duration.ofMillis(100);
+
+    /**
+     * Per locator: two attempts of {@code max(3, max(5, total / locators) / 2)} seconds with a
+     * second's pause between them, see {@link com.insider.utils.WaitStrategy#waitForElementWithRetry}.
+     */
+    private static Duration perLocator(int totalTimeoutInSeconds, int locators) {
+        int individualTimeout = Math.max(5, totalTimeoutInSeconds / locators);
+        Duration attempt = timedOut(Duration.ofSeconds(Math.max(3, individualTimeout / 2)));
+        return attempt.multipliedBy(2).plus(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void findElementWithMultipleStrategiesWorstCaseExceedsItsTotalTimeout() {
+        Assert.expectThrows(ElementNotFoundException.class,
+            () -> Helper.findElementWithMultipleStrategies(COMPANY_LOCATORS, 10));
+
+        // Every locator gets at least 5 seconds, spent in two attempts of 3, so 10 seconds become 24
+        Assert.assertEquals(clock().elapsed(), perLocator(10, 3).multipliedBy(3));
+        Assert.assertTrue(clock().elapsed().compareTo(seconds(10)) > 0);
+    }
+
+    @Test
+    public void findElementWithMultipleStrategiesFallsBackToTheNextLocator() {
+        driver().element(COMPANY_LOCATORS[1]);
+
+        WebElement company = Helper.findElementWithMultipleStrategies(COMPANY_LOCATORS, 30);
+
+        Assert.assertNotNull(company);
+        Assert.assertEquals(clock().elapsed(), perLocator(30, 3));
+    }
+
+    @Test
+    public void findElementFastGivesEveryLocatorThreeSeconds() {
+        driver().element(COMPANY_LOCATORS[2]).appearsAt(seconds(1));
+
+        Helper.findElementFast(COMPANY_LOCATORS);
+
+        // The element appeared while the first locator was tried, but the third is only tried after two timeouts
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(3)).multipliedBy(2));
+    }
+
+    @Test
+    public void implicitWaitStretchesEveryPollOfFindElementFast() {
+        // As configured by DriverManager: a lookup that finds nothing blocks for the implicit wait
+        driver().manage().timeouts().implicitlyWait(seconds(10));
+
+        Assert.expectThrows(ElementNotFoundException.class, () -> Helper.findElementFast(COMPANY_LOCATORS));
+
+        Assert.assertEquals(clock().elapsed(), seconds(10).multipliedBy(COMPANY_LOCATORS.length));
+    }
+
+    @Test
+    public void safeClickWaitsForTheElementToBeClickable() {
+        FakeElement apply = driver().element(By.id("apply")).enabledAt(millis(1200));
+
+        Helper.safeClick(apply, 5);
+
+        Assert.assertEquals(apply.getClicks(), 1);
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(1200)).plus(SCROLL_CHECK));
+    }
+
+    @Test
+    public void safeClickFallsBackToAScriptClickWhenTheClickIsIntercepted() {
+        FakeElement apply = driver().element(By.id("apply")).interceptedUntil(seconds(60));
+
+        Helper.safeClick(apply, 5);
+
+        Assert.assertEquals(apply.getClicks(), 1);
+        Assert.assertTrue(driver().getCommands().contains("WebElement.click"));
+    }
+
+    @Test
+    public void waitForAjaxToCompleteReturnsWhenTheRequestsAreDone() {
+        driver().scriptResult("jQuery", new Timeline<Object>(false).at(millis(2300), true));
+
+        Helper.waitForAjaxToComplete();
+
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(2300)));
+    }
+
+    @Test
+    public void waitForAjaxToCompleteContinuesAfterTenSeconds() {
+        driver().scriptResult("jQuery", new Timeline<Object>(false));
+
+        Helper.waitForAjaxToComplete();
+
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(10)));
+    }
+
+    @Test
+    public void waitForPageLoadFailsWhenThePageKeepsLoading() {
+        driver().scriptResult("document.readyState", new Timeline<Object>("loading"));
+
+        Assert.expectThrows(TestFrameworkException.class, () -> Helper.waitForPageLoad(5));
+
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(5)));
+    }
+
+    @Test
+    public void waitForElementToDisappearReturnsOnceTheElementIsRemoved() {
+        FakeElement banner = driver().element(By.id("wt-cli-cookie-banner")).disappearsAt(millis(1300));
+
+        Assert.assertTrue(Helper.waitForElementToDisappear(banner, 5));
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(1300)));
+    }
+
+    @Test
+    public void waitForElementCountToBeStableChecksTheCountTwice() {
+        By items = By.className("position-list-item");
+        driver().element(items);
+        driver().element(items);
+        driver().element(items).appearsAt(millis(800));
+
+        Helper.waitForElementCountToBeStable(items, 3, 5);
+
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(800)).plus(millis(500)));
+    }
+
+    @Test
+    public void sleepPassesOnTheTestsClock() {
+        Helper.sleep(2);
+
+        Assert.assertEquals(clock().elapsed(), seconds(2));
+        Assert.assertEquals(clock().getSleeps(), 1);
+    }
+
+    @Test
+    public void switchToLastWindowSwitchesToTheWindowALinkOpened() {
+        driver().element(By.linkText("View Role")).onClick(page -> page.openWindow("lever"));
+
+        driver().findElement(By.linkText("View Role")).click();
+        Helper.switchToLastWindow();
+
+        Assert.assertEquals(driver().getCurrentWindow(), "lever");
+    }
+}
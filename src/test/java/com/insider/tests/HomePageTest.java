@@ -0,0 +1,66 @@
+package com.insider.tests;
+
+import com.insider.config.ConfigManager;
+import com.insider.fakes.FakeElement;
+import com.insider.pages.HomePage;
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+/**
+ * Timing of the {@link HomePage} actions, whose elements are PageFactory proxies looked up again on
+ * every use.
+ */
+public class HomePageTest extends FakeDriverTest {
+    private static final By ACCEPT_COOKIES = By.id("wt-cli-accept-all-btn");
+    private static final By COMPANY = By.xpath("//a[contains(text(),'Company')]");
+    /** Time the scroll of {@link com.insider.utils.Helper#safeClick} takes to be found stable. */
+    private static final Duration SCROLL_CHECK = Duration.ofMillis(100);
+
+    @Test
+    public void acceptCookiesWaitsOutTheDisappearanceOfTheBanner() {
+        FakeElement accept = driver().element(ACCEPT_COOKIES).appearsAt(millis(1200));
+        accept.onClick(page -> accept.disappearsAt(page.getClock().elapsed()));
+
+        new HomePage(driver()).acceptCookies();
+
+        Assert.assertEquals(accept.getClicks(), 1);
+        // The removed button is looked up anew instead of turning stale, so the wait for it to
+        // disappear never succeeds and runs to its timeout
+        Duration clicked = firstPollAt(millis(1200)).plus(SCROLL_CHECK);
+        Assert.assertEquals(clock().elapsed(), clicked.plus(timedOut(seconds(ConfigManager.getDefaultTimeout()))));
+    }
+
+    @Test
+    public void acceptCookiesContinuesWithoutABanner() {
+        new HomePage(driver()).acceptCookies();
+
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(ConfigManager.getExtendedTimeout())));
+    }
+
+    @Test
+    public void clickCompanyMenuFallsBackAfterTheFastLookup() {
+        // The fast lookup gives each of the three locators 3 seconds
+        Duration fastLookup = timedOut(seconds(3)).multipliedBy(3);
+        FakeElement company = driver().element(COMPANY).appearsAt(fastLookup.plus(millis(700)));
+
+        new HomePage(driver()).clickCompanyMenu();
+
+        Assert.assertEquals(company.getClicks(), 1);
+        Assert.assertEquals(clock().elapsed(), fastLookup.plus(firstPollAt(millis(700))).plus(SCROLL_CHECK));
+    }
+
+    @Test
+    public void clickCompanyMenuWorstCase() {
+        Assert.expectThrows(RuntimeException.class, () -> new HomePage(driver()).clickCompanyMenu());
+
+        // Fast lookup, then findElementWithMultipleStrategies with the default timeout: three
+        // locators of two attempts each, and a second's pause between the attempts
+        int individualTimeout = Math.max(5, ConfigManager.getDefaultTimeout() / 3);
+        Duration attempt = timedOut(seconds(Math.max(3, individualTimeout / 2)));
+        Duration fallback = attempt.multipliedBy(2).plus(seconds(1)).multipliedBy(3);
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(3)).multipliedBy(3).plus(fallback));
+    }
+}
@@ -0,0 +1,152 @@
+package com.insider.tests;
+
+import com.insider.exceptions.ElementNotFoundException;
+import com.insider.fakes.FakeElement;
+import com.insider.utils.WaitStrategy;
+import com.insider.utils.Waits;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+/**
+ * Retry and timeout behaviour of {@link WaitStrategy}, timed on a virtual clock.
+ */
+public class WaitStrategyTest extends FakeDriverTest {
+    private static final By JOBS = By.id("jobs-list");
+    private static final By APPLY = By.cssSelector("a.btn-apply");
+    private static final By ITEMS = By.className("position-list-item");
+
+    @Test
+    public void waitForElementWithRetryReturnsAtTheFirstPollAfterTheElementAppears() {
+        driver().element(JOBS).appearsAt(millis(2200));
+
+        WebElement jobs = WaitStrategy.waitForElementWithRetry(JOBS, 10);
+
+        Assert.assertNotNull(jobs);
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(2200)));
+        long polls = driver().getCommands().stream().filter("WebDriver.findElement"::equals).count();
+        Assert.assertEquals(polls, firstPollAt(millis(2200)).dividedBy(Waits.getPollInterval()) + 1,
+            "one lookup per poll");
+    }
+
+    @Test
+    public void waitForElementWithRetryRetriesOnceAfterASecondsPause() {
+        // The timeout is split between two attempts
+        driver().element(JOBS).appearsAt(seconds(4));
+
+        WaitStrategy.waitForElementWithRetry(JOBS, 6);
+
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(3)).plus(seconds(1)));
+    }
+
+    @Test
+    public void waitForElementWithRetryGivesEachAttemptAtLeastThreeSeconds() {
+        ElementNotFoundException error = Assert.expectThrows(ElementNotFoundException.class,
+            () -> WaitStrategy.waitForElementWithRetry(JOBS, 2));
+
+        Assert.assertEquals(error.getLocator(), JOBS);
+        // A timeout of 2 seconds costs two attempts of 3 seconds and the pause between them
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(3)).multipliedBy(2).plus(seconds(1)));
+    }
+
+    @Test
+    public void waitForClickableWithRetryWaitsForTheElementToBeEnabled() {
+        driver().element(APPLY).enabledAt(millis(1200));
+
+        WaitStrategy.waitForClickableWithRetry(APPLY, 2);
+
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(1200)));
+    }
+
+    @Test
+    public void waitForClickableWithRetryWaitsFiveSecondsPerAttempt() {
+        driver().element(APPLY).enabledAt(seconds(7));
+
+        WaitStrategy.waitForClickableWithRetry(APPLY, 2);
+
+        Duration secondAttempt = timedOut(seconds(5)).plus(seconds(1));
+        Assert.assertEquals(clock().elapsed(), secondAttempt.plus(firstPollAt(seconds(7).minus(secondAttempt))));
+    }
+
+    @Test
+    public void waitForClickableWithRetryFailsAfterTheLastAttempt() {
+        driver().element(APPLY).enabledAt(seconds(60));
+
+        Assert.expectThrows(ElementNotFoundException.class, () -> WaitStrategy.waitForClickableWithRetry(APPLY, 3));
+
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(5)).multipliedBy(3).plus(seconds(2)));
+    }
+
+    @Test
+    public void waitForTextToBePresentSeesTheTextChange() {
+        FakeElement department = driver().element(By.id("select2-filter-by-department-container"))
+            .text("All")
+            .textAt(millis(300), "Quality Assurance");
+
+        Assert.assertTrue(WaitStrategy.waitForTextToBePresent(department, "Quality Assurance", 5));
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(300)));
+    }
+
+    @Test
+    public void waitForTextToBePresentReturnsFalseOnTimeout() {
+        FakeElement department = driver().element(By.id("select2-filter-by-department-container")).text("All");
+
+        Assert.assertFalse(WaitStrategy.waitForTextToBePresent(department, "Quality Assurance", 2));
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(2)));
+    }
+
+    @Test
+    public void waitForElementToBeInvisibleReturnsOnceTheElementIsHidden() {
+        By banner = By.id("cookie-law-info-bar");
+        driver().element(banner).hiddenAt(millis(1300));
+
+        Assert.assertTrue(WaitStrategy.waitForElementToBeInvisible(banner, 5));
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(1300)));
+    }
+
+    @Test
+    public void waitForNumberOfElementsToBeWaitsForTheLastElement() {
+        driver().element(ITEMS);
+        driver().element(ITEMS);
+        driver().element(ITEMS).appearsAt(millis(800));
+
+        Assert.assertEquals(WaitStrategy.waitForNumberOfElementsToBe(ITEMS, 3, 5).size(), 3);
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(800)));
+    }
+
+    @Test
+    public void waitForNumberOfElementsToBeReturnsTheElementsFoundOnTimeout() {
+        driver().element(ITEMS);
+        driver().element(ITEMS);
+
+        Assert.assertEquals(WaitStrategy.waitForNumberOfElementsToBe(ITEMS, 3, 2).size(), 2);
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(2)));
+    }
+
+    @Test
+    public void waitForAttributeToBeSeesTheAttributeChange() {
+        FakeElement menu = driver().element(By.id("navbarDropdownMenuLink"))
+            .attribute("aria-expanded", "false")
+            .attributeAt(millis(700), "aria-expanded", "true");
+
+        Assert.assertTrue(WaitStrategy.waitForAttributeToBe(menu, "aria-expanded", "true", 3));
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(700)));
+    }
+
+    @Test
+    public void waitForTitleToContainSeesTheNewTitle() {
+        driver().titleAt(millis(900), "Insider Careers");
+
+        Assert.assertTrue(WaitStrategy.waitForTitleToContain("Careers", 3));
+        Assert.assertEquals(clock().elapsed(), firstPollAt(millis(900)));
+    }
+
+    @Test
+    public void waitForAlertToBePresentReturnsFalseWithoutAnAlert() {
+        Assert.assertFalse(WaitStrategy.waitForAlertToBePresent(1));
+        Assert.assertEquals(clock().elapsed(), timedOut(seconds(1)));
+    }
+}
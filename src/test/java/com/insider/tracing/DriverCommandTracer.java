@@ -0,0 +1,35 @@
+package com.insider.tracing;
+
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Records every WebDriver command sent through a decorated driver as a span, e.g.
+ * {@code WebElement.click} or {@code JavascriptExecutor.executeScript}, nested under the page action
+ * or wait that issued it.
+ */
+public class DriverCommandTracer implements WebDriverListener {
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        Tracer.start(method.getDeclaringClass().getSimpleName() + "." + method.getName(), Span.Category.DRIVER);
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        Span span = Tracer.current();
+        if (span != null && span.getCategory() == Span.Category.DRIVER) {
+            Tracer.end(span);
+        }
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        Span span = Tracer.current();
+        if (span != null && span.getCategory() == Span.Category.DRIVER) {
+            Tracer.end(span, e.getCause() != null ? e.getCause() : e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.insider.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A timed, named unit of work on one thread: a test, a page-object action, a wait or a driver
+ * command. Spans started while another span is open on the same thread become its children.
+ */
+public class Span {
+
+    public enum Category {
+        TEST,
+        CONFIG,
+        PAGE,
+        WAIT,
+        DRIVER;
+
+        public String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final String traceId;
+    private final long spanId;
+    private final long parentId;
+    private final String name;
+    private final Category category;
+    private final String threadName;
+    private final long threadId;
+    private final long startNanos;
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+    private long endNanos;
+    private String error;
+
+    Span(String traceId, long spanId, long parentId, String name, Category category, long startNanos) {
+        Thread thread = Thread.currentThread();
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.name = name;
+        this.category = category;
+        this.threadName = thread.getName();
+        this.threadId = thread.getId();
+        this.startNanos = startNanos;
+    }
+
+    void finish(long endNanos, String error) {
+        this.endNanos = endNanos;
+        this.error = error;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        attributes.put(key, String.valueOf(value));
+        return this;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * @return the id of the enclosing span, or 0 for a root span
+     */
+    public long getParentId() {
+        return parentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+
+    /**
+     * @return the start time in nanoseconds since the epoch
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    /**
+     * @return the error that ended the span, or null if it succeeded
+     */
+    public String getError() {
+        return error;
+    }
+
+    public boolean isError() {
+        return error != null;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+}
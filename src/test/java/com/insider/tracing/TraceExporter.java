@@ -0,0 +1,179 @@
+package com.insider.tracing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.insider.artifacts.ArtifactStore;
+import com.insider.exceptions.TestFrameworkException;
+import com.insider.sharding.Shard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the spans of a run in two formats:
+ * <ul>
+ *   <li>Chrome trace events ({@code trace_<timestamp>.json}), which chrome://tracing and Perfetto show as
+ *   a flame chart with one track per test thread;</li>
+ *   <li>OTLP JSON ({@code otlp_<timestamp>.json}), the OpenTelemetry export format, for offline tools
+ *   and collectors that accept OTLP over files.</li>
+ * </ul>
+ */
+public class TraceExporter {
+    private static final Logger logger = LoggerFactory.getLogger(TraceExporter.class);
+    private static final String TRACE_DIR = "test-output/traces/";
+    private static final Gson gson = new Gson();
+
+    private TraceExporter() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Exports all spans finished so far.
+     *
+     * @return the path of the Chrome trace file, or null if there was nothing to export
+     */
+    public static Path export() {
+        List<Span> spans = Tracer.getFinishedSpans();
+        if (spans.isEmpty()) {
+            return null;
+        }
+        String suffix = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"))
+            + (Shard.isEnabled() ? "_" + Shard.label() : "");
+        Path chromeTrace = Paths.get(TRACE_DIR, "trace_" + suffix + ".json");
+        Path otlp = Paths.get(TRACE_DIR, "otlp_" + suffix + ".json");
+        write(chromeTrace, toChromeTrace(spans));
+        write(otlp, toOtlp(spans));
+        ArtifactStore.record(chromeTrace.toString().replace('\\', '/'), "trace");
+        ArtifactStore.record(otlp.toString().replace('\\', '/'), "trace");
+        logger.info("Exported {} spans to {} and {}{}", spans.size(), chromeTrace, otlp,
+            Tracer.getDroppedCount() > 0 ? " (" + Tracer.getDroppedCount() + " spans dropped)" : "");
+        return chromeTrace;
+    }
+
+    static JsonObject toChromeTrace(List<Span> spans) {
+        JsonArray events = new JsonArray();
+        Map<Long, String> threads = new LinkedHashMap<>();
+        for (Span span : spans) {
+            threads.putIfAbsent(span.getThreadId(), span.getThreadName());
+            JsonObject event = new JsonObject();
+            event.addProperty("name", span.getName());
+            event.addProperty("cat", span.getCategory().label());
+            event.addProperty("ph", "X");
+            event.addProperty("ts", span.getStartNanos() / 1000.0);
+            event.addProperty("dur", span.getDurationNanos() / 1000.0);
+            event.addProperty("pid", 1);
+            event.addProperty("tid", span.getThreadId());
+            JsonObject args = new JsonObject();
+            args.addProperty("outcome", span.isError() ? span.getError() : "ok");
+            span.getAttributes().forEach(args::addProperty);
+            event.add("args", args);
+            events.add(event);
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            JsonObject metadata = new JsonObject();
+            metadata.addProperty("name", "thread_name");
+            metadata.addProperty("ph", "M");
+            metadata.addProperty("pid", 1);
+            metadata.addProperty("tid", thread.getKey());
+            JsonObject args = new JsonObject();
+            args.addProperty("name", thread.getValue());
+            metadata.add("args", args);
+            events.add(metadata);
+        }
+        JsonObject trace = new JsonObject();
+        trace.add("traceEvents", events);
+        trace.addProperty("displayTimeUnit", "ms");
+        return trace;
+    }
+
+    static JsonObject toOtlp(List<Span> spans) {
+        JsonArray otlpSpans = new JsonArray();
+        for (Span span : spans) {
+            JsonObject otlpSpan = new JsonObject();
+            otlpSpan.addProperty("traceId", span.getTraceId());
+            otlpSpan.addProperty("spanId", String.format("%016x", span.getSpanId()));
+            if (span.getParentId() != 0) {
+                otlpSpan.addProperty("parentSpanId", String.format("%016x", span.getParentId()));
+            }
+            otlpSpan.addProperty("name", span.getName());
+            // SPAN_KIND_INTERNAL
+            otlpSpan.addProperty("kind", 1);
+            // 64-bit nanosecond timestamps are strings in OTLP JSON
+            otlpSpan.addProperty("startTimeUnixNano", String.valueOf(span.getStartNanos()));
+            otlpSpan.addProperty("endTimeUnixNano", String.valueOf(span.getEndNanos()));
+
+            JsonArray attributes = new JsonArray();
+            attributes.add(attribute("span.category", span.getCategory().label()));
+            attributes.add(attribute("thread.name", span.getThreadName()));
+            attributes.add(attribute("thread.id", String.valueOf(span.getThreadId())));
+            span.getAttributes().forEach((key, value) -> attributes.add(attribute(key, value)));
+            otlpSpan.add("attributes", attributes);
+
+            JsonObject status = new JsonObject();
+            // STATUS_CODE_OK or STATUS_CODE_ERROR
+            status.addProperty("code", span.isError() ? 2 : 1);
+            if (span.isError()) {
+                status.addProperty("message", span.getError());
+            }
+            otlpSpan.add("status", status);
+            otlpSpans.add(otlpSpan);
+        }
+
+        JsonObject scope = new JsonObject();
+        scope.addProperty("name", "com.insider.tracing");
+        JsonObject scopeSpans = new JsonObject();
+        scopeSpans.add("scope", scope);
+        scopeSpans.add("spans", otlpSpans);
+        JsonArray scopeSpansList = new JsonArray();
+        scopeSpansList.add(scopeSpans);
+
+        JsonArray resourceAttributes = new JsonArray();
+        resourceAttributes.add(attribute("service.name", "insider-qa-test"));
+        if (Shard.isEnabled()) {
+            resourceAttributes.add(attribute("shard", Shard.label()));
+        }
+        JsonObject resource = new JsonObject();
+        resource.add("attributes", resourceAttributes);
+        JsonObject resourceSpans = new JsonObject();
+        resourceSpans.add("resource", resource);
+        resourceSpans.add("scopeSpans", scopeSpansList);
+        JsonArray resourceSpansList = new JsonArray();
+        resourceSpansList.add(resourceSpans);
+
+        JsonObject export = new JsonObject();
+        export.add("resourceSpans", resourceSpansList);
+        return export;
+    }
+
+    private static JsonObject attribute(String key, String value) {
+        JsonObject stringValue = new JsonObject();
+        stringValue.addProperty("stringValue", value);
+        JsonObject attribute = new JsonObject();
+        attribute.addProperty("key", key);
+        attribute.add("value", stringValue);
+        return attribute;
+    }
+
+    private static void write(Path path, JsonObject json) {
+        try {
+            Files.createDirectories(path.getParent());
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                gson.toJson(json, writer);
+            }
+        } catch (IOException e) {
+            throw new TestFrameworkException("Failed to write trace " + path, e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.insider.tracing;
+
+import com.insider.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Records nested spans per thread. Each thread keeps a stack of its open spans, so a span started
+ * inside another one becomes its child without any context being passed around. Finished spans are
+ * collected in memory, up to {@code tracing.max.spans}, and written by {@link TraceExporter} at the
+ * end of the run.
+ */
+public class Tracer {
+    private static final Logger logger = LoggerFactory.getLogger(Tracer.class);
+
+    // Wall-clock origin for the monotonic clock, so that span times are epoch based yet never go backwards
+    private static final long EPOCH_OFFSET_NANOS = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+    private static final ThreadLocal<Deque<Span>> openSpans = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final Queue<Span> finishedSpans = new ConcurrentLinkedQueue<>();
+    private static final AtomicLong ids = new AtomicLong();
+    private static final AtomicInteger finishedCount = new AtomicInteger();
+    private static final AtomicInteger droppedCount = new AtomicInteger();
+    private static final boolean enabled = ConfigManager.getBooleanProperty("tracing.enabled", false);
+    private static final int maxSpans = ConfigManager.getIntProperty("tracing.max.spans", 200000);
+
+    private Tracer() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a span as a child of the span currently open on this thread.
+     *
+     * @param name name of the span, e.g. {@code JobsPage.filterByLocation}
+     * @param category kind of work the span covers
+     * @return the started span, or null if tracing is disabled
+     */
+    public static Span start(String name, Span.Category category) {
+        if (!enabled) {
+            return null;
+        }
+        Deque<Span> stack = openSpans.get();
+        Span parent = stack.peek();
+        String traceId = parent != null ? parent.getTraceId() : UUID.randomUUID().toString().replace("-", "");
+        Span span = new Span(traceId, ids.incrementAndGet(), parent != null ? parent.getSpanId() : 0, name, category,
+            now());
+        stack.push(span);
+        return span;
+    }
+
+    public static void end(Span span) {
+        end(span, null);
+    }
+
+    /**
+     * Ends the span, and any of its children that were left open.
+     *
+     * @param span the span to end, may be null
+     * @param error the failure that ended the span, or null if it succeeded
+     */
+    public static void end(Span span, Throwable error) {
+        if (span == null) {
+            return;
+        }
+        Deque<Span> stack = openSpans.get();
+        if (!stack.contains(span)) {
+            return;
+        }
+        long end = now();
+        Span top;
+        do {
+            top = stack.pop();
+            if (top == span) {
+                top.finish(end, error != null ? describe(error) : null);
+            } else {
+                top.finish(end, "not ended");
+            }
+            collect(top);
+        } while (top != span);
+        if (stack.isEmpty()) {
+            openSpans.remove();
+        }
+    }
+
+    /**
+     * Runs the action inside a span, recording a thrown exception as the span's outcome.
+     */
+    public static void run(String name, Span.Category category, Runnable action) {
+        Span span = start(name, category);
+        try {
+            action.run();
+        } catch (RuntimeException | Error e) {
+            end(span, e);
+            throw e;
+        }
+        end(span);
+    }
+
+    /**
+     * Calls the action inside a span, recording a thrown exception as the span's outcome.
+     */
+    public static <T> T call(String name, Span.Category category, Supplier<T> action) {
+        Span span = start(name, category);
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            end(span, e);
+            throw e;
+        }
+        end(span);
+        return result;
+    }
+
+    /**
+     * @return the span currently open on this thread, or null
+     */
+    public static Span current() {
+        return enabled ? openSpans.get().peek() : null;
+    }
+
+    /**
+     * @return a copy of the spans finished so far
+     */
+    public static List<Span> getFinishedSpans() {
+        return new ArrayList<>(finishedSpans);
+    }
+
+    public static int getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private static void collect(Span span) {
+        if (finishedCount.incrementAndGet() > maxSpans) {
+            if (droppedCount.incrementAndGet() == 1) {
+                logger.warn("Trace buffer full after {} spans, further spans are dropped", maxSpans);
+            }
+            return;
+        }
+        finishedSpans.add(span);
+    }
+
+    private static String describe(Throwable error) {
+        String message = error.getMessage();
+        String firstLine = message != null ? message.split("\n", 2)[0] : "";
+        return error.getClass().getSimpleName() + (firstLine.isEmpty() ? "" : ": " + firstLine);
+    }
+
+    private static long now() {
+        return EPOCH_OFFSET_NANOS + System.nanoTime();
+    }
+}
@@ -6,7 +6,6 @@ import com.insider.exceptions.ElementNotFoundException;
 import com.insider.exceptions.TestFrameworkException;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +16,8 @@ import java.util.Set;
 /**
  * Utility class providing common helper methods for Selenium WebDriver operations.
  * Includes element waiting strategies, scrolling, clicking, and window management.
+ * Debug messages do not print elements: printing a PageFactory element looks it up in the browser
+ * again. The {@code step} MDC key of the log line names the page action instead.
  */
 public class Helper {
     private static final Logger logger = LoggerFactory.getLogger(Helper.class);
@@ -35,9 +36,8 @@ public class Helper {
      */
     public static WebElement waitForVisibility(WebElement element, int timeoutInSeconds) {
         try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            logger.debug("Waiting for element visibility: {}", element);
-            return wait.until(ExpectedConditions.visibilityOf(element));
+            logger.debug("Waiting for element visibility");
+            return Waits.until("Helper.waitForVisibility", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.visibilityOf(element));
         } catch (TimeoutException e) {
             logger.error("Element did not become visible within {} seconds", timeoutInSeconds);
             throw new ElementNotFoundException("Element did not become visible: " + element, e);
@@ -54,9 +54,8 @@ public class Helper {
      */
     public static WebElement waitForClickability(WebElement element, int timeoutInSeconds) {
         try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            logger.debug("Waiting for element to be clickable: {}", element);
-            return wait.until(ExpectedConditions.elementToBeClickable(element));
+            logger.debug("Waiting for element to be clickable");
+            return Waits.until("Helper.waitForClickability", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.elementToBeClickable(element));
         } catch (TimeoutException e) {
             logger.error("Element did not become clickable within {} seconds", timeoutInSeconds);
             throw new ElementNotFoundException("Element did not become clickable: " + element, e);
@@ -71,7 +70,7 @@ public class Helper {
      */
     public static void scrollToElement(WebElement element) {
         try {
-            logger.debug("Scrolling to element: {}", element);
+            logger.debug("Scrolling to element");
             ((JavascriptExecutor) DriverManager.getDriver()).executeScript("arguments[0].scrollIntoView({behavior: 'smooth', block: 'center'});", element);
             // Wait for scroll to complete using a more reliable method
             waitForScrollToComplete();
@@ -82,21 +81,19 @@ public class Helper {
     }
     
     private static void waitForScrollToComplete() {
-        try {
-            // Wait for scroll to complete by checking if the page is stable
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofMillis(500));
-            wait.until(webDriver -> {
-                Long scrollY = (Long) ((JavascriptExecutor) webDriver).executeScript("return window.scrollY;");
-                try {
-                    Thread.sleep(100); // Small delay to check if scroll position is stable
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return false;
-                }
-                Long newScrollY = (Long) ((JavascriptExecutor) webDriver).executeScript("return window.scrollY;");
-                return scrollY.equals(newScrollY);
-            });
-        } catch (Exception e) {
+        // Wait for scroll to complete by checking if the page is stable
+        Boolean scrollComplete = Waits.untilOrContinue("Helper.waitForScrollToComplete", Duration.ofMillis(500), webDriver -> {
+            Long scrollY = (Long) ((JavascriptExecutor) webDriver).executeScript("return window.scrollY;");
+            try {
+                Waits.sleep(Duration.ofMillis(100)); // Small delay to check if scroll position is stable
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            Long newScrollY = (Long) ((JavascriptExecutor) webDriver).executeScript("return window.scrollY;");
+            return scrollY.equals(newScrollY);
+        });
+        if (scrollComplete == null) {
             // If scroll detection fails, just continue - it's not critical
             logger.debug("Scroll completion detection failed, continuing...");
         }
@@ -110,7 +107,7 @@ public class Helper {
      */
     public static void safeClick(WebElement element, int timeoutInSeconds) {
         try {
-            logger.debug("Attempting to safely click element: {}", element);
+            logger.debug("Attempting to safely click element");
             WebElement clickableElement = waitForClickability(element, timeoutInSeconds);
             scrollToElement(clickableElement);
             clickableElement.click();
@@ -147,8 +144,7 @@ public class Helper {
      */
     public static void waitForPageLoad(int timeoutInSeconds) {
         try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            wait.until(webDriver -> ((JavascriptExecutor) webDriver)
+            Waits.until("Helper.waitForPageLoad", Duration.ofSeconds(timeoutInSeconds), webDriver -> ((JavascriptExecutor) webDriver)
                 .executeScript("return document.readyState").equals("complete"));
             logger.debug("Page loaded successfully");
         } catch (TimeoutException e) {
@@ -159,7 +155,7 @@ public class Helper {
 
     public static void sleep(int seconds) {
         try {
-            Thread.sleep(seconds * 1000);
+            Waits.sleep(Duration.ofSeconds(seconds));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             logger.error("Sleep was interrupted", e);
@@ -168,7 +164,7 @@ public class Helper {
 
     public static void hoverOverElement(WebElement element, WebDriver driver) {
         try {
-            logger.debug("Hovering over element: {}", element);
+            logger.debug("Hovering over element");
             // Use modern JavaScript approach for hover
             String hoverScript = "var element = arguments[0];" +
                 "var event = new MouseEvent('mouseover', {" +
@@ -188,18 +184,16 @@ public class Helper {
     }
     
     private static void waitForHoverEffects() {
-        try {
-            // Wait for any CSS transitions or animations to complete
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofMillis(300));
-            wait.until(webDriver -> {
-                Boolean animationsComplete = (Boolean) ((JavascriptExecutor) webDriver)
-                    .executeScript("return !document.querySelectorAll('*').length || " +
-                        "Array.from(document.querySelectorAll('*')).every(el => " +
-                        "getComputedStyle(el).transitionDuration === '0s' && " +
-                        "getComputedStyle(el).animationDuration === '0s');");
-                return animationsComplete;
-            });
-        } catch (Exception e) {
+        // Wait for any CSS transitions or animations to complete
+        Boolean effectsComplete = Waits.untilOrContinue("Helper.waitForHoverEffects", Duration.ofMillis(300), webDriver -> {
+            Boolean animationsComplete = (Boolean) ((JavascriptExecutor) webDriver)
+                .executeScript("return !document.querySelectorAll('*').length || " +
+                    "Array.from(document.querySelectorAll('*')).every(el => " +
+                    "getComputedStyle(el).transitionDuration === '0s' && " +
+                    "getComputedStyle(el).animationDuration === '0s');");
+            return animationsComplete;
+        });
+        if (effectsComplete == null) {
             // If animation detection fails, just continue - it's not critical
             logger.debug("Hover effect detection failed, continuing...");
         }
@@ -220,20 +214,19 @@ public class Helper {
     }
     
     public static void waitForPageLoad() {
-        waitForPageLoad(ConfigManager.getIntProperty("page.load.timeout", 30));
+        waitForPageLoad(ConfigManager.getPageLoadTimeout());
     }
     
     // Wait for AJAX requests to complete
     public static void waitForAjaxToComplete() {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(10));
-            wait.until(webDriver -> {
-                Boolean ajaxComplete = (Boolean) ((JavascriptExecutor) webDriver)
-                    .executeScript("return typeof jQuery !== 'undefined' ? jQuery.active === 0 : true;");
-                return ajaxComplete;
-            });
+        Boolean completed = Waits.untilOrContinue("Helper.waitForAjaxToComplete", Duration.ofSeconds(10), webDriver -> {
+            Boolean ajaxComplete = (Boolean) ((JavascriptExecutor) webDriver)
+                .executeScript("return typeof jQuery !== 'undefined' ? jQuery.active === 0 : true;");
+            return ajaxComplete;
+        });
+        if (completed != null) {
             logger.debug("AJAX requests completed");
-        } catch (Exception e) {
+        } else {
             logger.debug("AJAX completion detection failed, continuing...");
         }
     }
@@ -246,37 +239,35 @@ public class Helper {
      * @return true if element disappeared, false if timeout
      */
     public static boolean waitForElementToDisappear(WebElement element, int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            return wait.until(ExpectedConditions.stalenessOf(element));
-        } catch (Exception e) {
+        Boolean disappeared = Waits.untilOrContinue("Helper.waitForElementToDisappear", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.stalenessOf(element));
+        if (disappeared == null) {
             logger.debug("Element did not disappear within {} seconds", timeoutInSeconds);
             return false;
         }
+        return disappeared;
     }
     
     // Wait for specific element count to be stable (useful for dynamic lists)
     public static void waitForElementCountToBeStable(By locator, int expectedCount, int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            wait.until(webDriver -> {
-                int currentCount = webDriver.findElements(locator).size();
-                if (currentCount == expectedCount) {
-                    // Wait a bit more to ensure count is stable
-                    try {
-                        Thread.sleep(500);
-                        int newCount = webDriver.findElements(locator).size();
-                        return newCount == expectedCount;
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        return false;
-                    }
+        Boolean stable = Waits.untilOrContinue("Helper.waitForElementCountToBeStable", Duration.ofSeconds(timeoutInSeconds), webDriver -> {
+            int currentCount = webDriver.findElements(locator).size();
+            if (currentCount == expectedCount) {
+                // Wait a bit more to ensure count is stable
+                try {
+                    Waits.sleep(Duration.ofMillis(500));
+                    int newCount = webDriver.findElements(locator).size();
+                    return newCount == expectedCount;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
                 }
-                return false;
-            });
+            }
+            return false;
+        });
+        if (stable != null) {
             logger.debug("Element count stabilized at: {}", expectedCount);
-        } catch (Exception e) {
-            logger.warn("Element count stabilization failed: {}", e.getMessage());
+        } else {
+            logger.warn("Element count did not stabilize at {} within {} seconds", expectedCount, timeoutInSeconds);
         }
     }
     
@@ -290,7 +281,7 @@ public class Helper {
      * @throws ElementNotFoundException if no element is found with any locator
      */
     public static WebElement findElementWithMultipleStrategies(By[] locators, int totalTimeoutInSeconds) {
-        int individualTimeout = Math.max(5, totalTimeoutInSeconds / locators.length); // At least 5 seconds per locator
+        int individualTimeout = Math.max(5, totalTimeoutInSeconds / Math.max(1, locators.length)); // At least 5 seconds per locator
         
         for (int i = 0; i < locators.length; i++) {
             By locator = locators[i];
@@ -308,7 +299,9 @@ public class Helper {
                 // Continue to next locator immediately
             }
         }
-        throw new ElementNotFoundException("Element not found with any of the provided locators");
+        // The primary locator is the one diagnosed if the miss fails the test
+        throw new ElementNotFoundException("Element not found with any of the provided locators",
+            locators.length > 0 ? locators[0] : null, null);
     }
     
     /**
@@ -321,20 +314,18 @@ public class Helper {
      */
     public static WebElement findElementFast(By[] locators) {
         for (By locator : locators) {
-            try {
-                logger.debug("Fast trying locator: {}", locator);
-                WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(3));
-                WebElement element = wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
-                if (element != null) {
-                    logger.debug("Element found quickly with locator: {}", locator);
-                    return element;
-                }
-            } catch (Exception e) {
-                logger.debug("Fast locator {} failed: {}", locator, e.getMessage());
-                // Continue immediately to next locator
+            logger.debug("Fast trying locator: {}", locator);
+            WebElement element = Waits.untilOrContinue("Helper.findElementFast", Duration.ofSeconds(3), ExpectedConditions.visibilityOfElementLocated(locator));
+            if (element != null) {
+                logger.debug("Element found quickly with locator: {}", locator);
+                return element;
             }
+            // Continue immediately to next locator
+            logger.debug("Fast locator {} failed", locator);
         }
-        throw new ElementNotFoundException("Element not found with any of the provided locators");
+        // The primary locator is the one diagnosed if the miss fails the test
+        throw new ElementNotFoundException("Element not found with any of the provided locators",
+            locators.length > 0 ? locators[0] : null, null);
     }
     
     /**
@@ -343,34 +334,33 @@ public class Helper {
      * @param timeoutInSeconds maximum time to wait
      */
     public static void waitForPageStability(int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            wait.until(webDriver -> {
-                // Check if page is loaded
-                String readyState = (String) ((JavascriptExecutor) webDriver)
-                    .executeScript("return document.readyState");
-                if (!"complete".equals(readyState)) {
-                    return false;
-                }
-                
-                // Check if jQuery is active (if present)
-                Boolean jqueryActive = (Boolean) ((JavascriptExecutor) webDriver)
-                    .executeScript("return typeof jQuery !== 'undefined' ? jQuery.active === 0 : true;");
-                if (!jqueryActive) {
-                    return false;
-                }
-                
-                // Check if there are any ongoing animations
-                Boolean animationsComplete = (Boolean) ((JavascriptExecutor) webDriver)
-                    .executeScript("return !document.querySelectorAll('*').length || " +
-                        "Array.from(document.querySelectorAll('*')).every(el => " +
-                        "getComputedStyle(el).transitionDuration === '0s' && " +
-                        "getComputedStyle(el).animationDuration === '0s');");
-                
-                return animationsComplete;
-            });
+        Boolean stable = Waits.untilOrContinue("Helper.waitForPageStability", Duration.ofSeconds(timeoutInSeconds), webDriver -> {
+            // Check if page is loaded
+            String readyState = (String) ((JavascriptExecutor) webDriver)
+                .executeScript("return document.readyState");
+            if (!"complete".equals(readyState)) {
+                return false;
+            }
+            
+            // Check if jQuery is active (if present)
+            Boolean jqueryActive = (Boolean) ((JavascriptExecutor) webDriver)
+                .executeScript("return typeof jQuery !== 'undefined' ? jQuery.active === 0 : true;");
+            if (!jqueryActive) {
+                return false;
+            }
+            
+            // Check if there are any ongoing animations
+            Boolean animationsComplete = (Boolean) ((JavascriptExecutor) webDriver)
+                .executeScript("return !document.querySelectorAll('*').length || " +
+                    "Array.from(document.querySelectorAll('*')).every(el => " +
+                    "getComputedStyle(el).transitionDuration === '0s' && " +
+                    "getComputedStyle(el).animationDuration === '0s');");
+            
+            return animationsComplete;
+        });
+        if (stable != null) {
             logger.debug("Page reached stable state");
-        } catch (Exception e) {
+        } else {
             logger.debug("Page stability check failed, continuing...");
         }
     }
@@ -1,11 +1,11 @@
 package com.insider.utils;
 
+import com.insider.context.TestContext;
 import com.insider.driver.DriverManager;
 import com.insider.exceptions.ElementNotFoundException;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,155 +29,155 @@ public class WaitStrategy {
         int maxRetries = 2; // Reduced retries for faster execution
         int individualTimeout = Math.max(3, timeoutInSeconds / maxRetries); // Shorter individual timeouts
         
-        for (int i = 0; i < maxRetries; i++) {
-            try {
-                WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(individualTimeout));
-                return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
-            } catch (Exception e) {
-                if (i == maxRetries - 1) {
-                    throw new ElementNotFoundException("Element not found after " + maxRetries + " retries: " + locator, e);
-                }
-                logger.debug("Attempt {} failed for locator {}, retrying...", i + 1, locator);
-                Helper.sleep(1); // Shorter wait between retries
+        // Attempts before the last are retried, so their misses are recorded as swallowed
+        for (int i = 0; i < maxRetries - 1; i++) {
+            WebElement element = Waits.untilOrContinue("WaitStrategy.waitForElementWithRetry", Duration.ofSeconds(individualTimeout), ExpectedConditions.visibilityOfElementLocated(locator));
+            if (element != null) {
+                return focus(element);
             }
+            logger.debug("Attempt {} failed for locator {}, retrying...", i + 1, locator);
+            Helper.sleep(1); // Shorter wait between retries
+        }
+        try {
+            return focus(Waits.until("WaitStrategy.waitForElementWithRetry", Duration.ofSeconds(individualTimeout), ExpectedConditions.visibilityOfElementLocated(locator)));
+        } catch (Exception e) {
+            throw new ElementNotFoundException("Element not found after " + maxRetries + " retries: " + locator, locator, e);
         }
-        return null;
     }
     
     /**
      * Wait for element to be clickable with retry logic
      */
     public static WebElement waitForClickableWithRetry(By locator, int maxRetries) {
-        for (int i = 0; i < maxRetries; i++) {
-            try {
-                WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(5));
-                return wait.until(ExpectedConditions.elementToBeClickable(locator));
-            } catch (Exception e) {
-                if (i == maxRetries - 1) {
-                    throw new ElementNotFoundException("Element not clickable after " + maxRetries + " retries: " + locator, e);
-                }
-                Helper.sleep(1);
+        for (int i = 0; i < maxRetries - 1; i++) {
+            WebElement element = Waits.untilOrContinue("WaitStrategy.waitForClickableWithRetry", Duration.ofSeconds(5), ExpectedConditions.elementToBeClickable(locator));
+            if (element != null) {
+                return focus(element);
             }
+            Helper.sleep(1);
+        }
+        try {
+            return focus(Waits.until("WaitStrategy.waitForClickableWithRetry", Duration.ofSeconds(5), ExpectedConditions.elementToBeClickable(locator)));
+        } catch (Exception e) {
+            throw new ElementNotFoundException("Element not clickable after " + maxRetries + " retries: " + locator, locator, e);
         }
-        return null;
+    }
+    
+    /**
+     * Remembers the element as the one the test is working with, so that a failure screenshot
+     * can be cropped to it
+     */
+    private static WebElement focus(WebElement element) {
+        TestContext context = TestContext.current();
+        if (context != null) {
+            context.setFocusElement(element);
+        }
+        return element;
     }
     
     /**
      * Wait for text to be present in element
      */
     public static boolean waitForTextToBePresent(WebElement element, String text, int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            return wait.until(ExpectedConditions.textToBePresentInElement(element, text));
-        } catch (Exception e) {
+        Boolean met = Waits.untilOrContinue("WaitStrategy.waitForTextToBePresent", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.textToBePresentInElement(element, text));
+        if (met == null) {
             logger.warn("Text '{}' not found in element within {} seconds", text, timeoutInSeconds);
             return false;
         }
+        return met;
     }
     
     /**
      * Wait for element to be invisible
      */
     public static boolean waitForElementToBeInvisible(By locator, int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            return wait.until(ExpectedConditions.invisibilityOfElementLocated(locator));
-        } catch (Exception e) {
+        Boolean met = Waits.untilOrContinue("WaitStrategy.waitForElementToBeInvisible", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.invisibilityOfElementLocated(locator));
+        if (met == null) {
             logger.warn("Element still visible after {} seconds", timeoutInSeconds);
             return false;
         }
+        return met;
     }
     
     /**
      * Wait for number of elements to be present
      */
     public static List<WebElement> waitForNumberOfElementsToBe(By locator, int expectedCount, int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            return wait.until(ExpectedConditions.numberOfElementsToBe(locator, expectedCount));
-        } catch (Exception e) {
+        List<WebElement> elements = Waits.untilOrContinue("WaitStrategy.waitForNumberOfElementsToBe", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.numberOfElementsToBe(locator, expectedCount));
+        if (elements == null) {
             logger.warn("Expected {} elements not found within {} seconds", expectedCount, timeoutInSeconds);
             return DriverManager.getDriver().findElements(locator);
         }
+        return elements;
     }
     
     /**
      * Wait for element to have specific attribute value
      */
     public static boolean waitForAttributeToBe(WebElement element, String attribute, String value, int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            return wait.until(ExpectedConditions.attributeToBe(element, attribute, value));
-        } catch (Exception e) {
+        Boolean met = Waits.untilOrContinue("WaitStrategy.waitForAttributeToBe", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.attributeToBe(element, attribute, value));
+        if (met == null) {
             logger.warn("Attribute '{}' did not become '{}' within {} seconds", attribute, value, timeoutInSeconds);
             return false;
         }
+        return met;
     }
     
     /**
      * Wait for element to be selected
      */
     public static boolean waitForElementToBeSelected(WebElement element, int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            return wait.until(ExpectedConditions.elementToBeSelected(element));
-        } catch (Exception e) {
+        Boolean met = Waits.untilOrContinue("WaitStrategy.waitForElementToBeSelected", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.elementToBeSelected(element));
+        if (met == null) {
             logger.warn("Element not selected within {} seconds", timeoutInSeconds);
             return false;
         }
+        return met;
     }
     
     /**
      * Wait for alert to be present
      */
     public static boolean waitForAlertToBePresent(int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            wait.until(ExpectedConditions.alertIsPresent());
-            return true;
-        } catch (Exception e) {
+        if (Waits.untilOrContinue("WaitStrategy.waitForAlertToBePresent", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.alertIsPresent()) == null) {
             logger.warn("Alert not present within {} seconds", timeoutInSeconds);
             return false;
         }
+        return true;
     }
     
     /**
      * Wait for frame to be available and switch to it
      */
     public static boolean waitForFrameToBeAvailableAndSwitchToIt(By frameLocator, int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            wait.until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(frameLocator));
-            return true;
-        } catch (Exception e) {
+        if (Waits.untilOrContinue("WaitStrategy.waitForFrameToBeAvailableAndSwitchToIt", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.frameToBeAvailableAndSwitchToIt(frameLocator)) == null) {
             logger.warn("Frame not available within {} seconds", timeoutInSeconds);
             return false;
         }
+        return true;
     }
     
     /**
      * Wait for page title to contain specific text
      */
     public static boolean waitForTitleToContain(String title, int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            return wait.until(ExpectedConditions.titleContains(title));
-        } catch (Exception e) {
+        Boolean met = Waits.untilOrContinue("WaitStrategy.waitForTitleToContain", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.titleContains(title));
+        if (met == null) {
             logger.warn("Title did not contain '{}' within {} seconds", title, timeoutInSeconds);
             return false;
         }
+        return met;
     }
     
     /**
      * Wait for URL to contain specific text
      */
     public static boolean waitForUrlToContain(String url, int timeoutInSeconds) {
-        try {
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            return wait.until(ExpectedConditions.urlContains(url));
-        } catch (Exception e) {
+        Boolean met = Waits.untilOrContinue("WaitStrategy.waitForUrlToContain", Duration.ofSeconds(timeoutInSeconds), ExpectedConditions.urlContains(url));
+        if (met == null) {
             logger.warn("URL did not contain '{}' within {} seconds", url, timeoutInSeconds);
             return false;
         }
+        return met;
     }
 }
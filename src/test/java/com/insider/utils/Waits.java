@@ -0,0 +1,130 @@
+package com.insider.utils;
+
+import com.insider.config.ConfigManager;
+import com.insider.context.TestContext;
+import com.insider.driver.DriverManager;
+import com.insider.metrics.WaitMetrics;
+import com.insider.tracing.Span;
+import com.insider.tracing.Tracer;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Single place where explicit waits are run, so that every wait of {@link Helper} and
+ * {@link WaitStrategy} is traced and accounted for in {@link WaitMetrics} the same way.
+ * Conditions are polled every {@code wait.poll.ms}; a shorter interval notices a met condition
+ * sooner at the cost of more WebDriver round trips, see {@link com.insider.benchmark.WaitBenchmark}.
+ * Time is taken from the current {@link TestContext}, so that a test can run the waits on a virtual
+ * clock; the sleeps of {@link Helper} and {@link WaitStrategy} go through {@link #sleep} for the same reason.
+ */
+public class Waits {
+    private static final Logger logger = LoggerFactory.getLogger(Waits.class);
+
+    private static volatile Duration pollInterval =
+        Duration.ofMillis(Math.max(1, ConfigManager.getIntProperty("wait.poll.ms", 500)));
+
+    private Waits() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    /**
+     * Changes the polling interval of all waits started afterwards, e.g. to compare intervals
+     * within one browser session.
+     *
+     * @param interval time between two evaluations of a condition
+     */
+    public static void setPollInterval(Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Poll interval must be positive: " + interval);
+        }
+        pollInterval = interval;
+    }
+
+    /**
+     * Sleeps on the current test's time source, or on the system clock outside a test.
+     *
+     * @param duration how long to sleep
+     * @throws InterruptedException if the thread is interrupted while sleeping
+     */
+    public static void sleep(Duration duration) throws InterruptedException {
+        TestContext context = TestContext.current();
+        (context != null ? context.getSleeper() : Sleeper.SYSTEM_SLEEPER).sleep(duration);
+    }
+
+    /**
+     * Waits on the current driver until the condition returns a value that is neither null nor false.
+     *
+     * @param name name of the wait, e.g. {@code Helper.waitForVisibility}
+     * @param timeout maximum time to wait
+     * @param condition the condition to wait for
+     * @return the condition's value
+     * @throws org.openqa.selenium.TimeoutException if the condition is not met within the timeout
+     */
+    public static <T> T until(String name, Duration timeout, Function<? super WebDriver, T> condition) {
+        return await(name, timeout, condition, false);
+    }
+
+    /**
+     * Like {@link #until}, for best-effort waits after which the caller continues either way.
+     * A failed wait is recorded as {@link WaitMetrics.Outcome#SWALLOWED}.
+     *
+     * @return the condition's value, or null if the condition was not met
+     */
+    public static <T> T untilOrContinue(String name, Duration timeout, Function<? super WebDriver, T> condition) {
+        return await(name, timeout, condition, true);
+    }
+
+    private static <T> T await(String name, Duration timeout, Function<? super WebDriver, T> condition,
+                               boolean continueOnFailure) {
+        Span span = Tracer.start(name, Span.Category.WAIT);
+        AtomicInteger polls = new AtomicInteger();
+        TestContext context = TestContext.current();
+        Clock clock = context != null ? context.getClock() : Clock.systemUTC();
+        Sleeper sleeper = context != null ? context.getSleeper() : Sleeper.SYSTEM_SLEEPER;
+        Instant start = clock.instant();
+        try {
+            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), timeout, pollInterval, clock, sleeper);
+            T result = wait.until(webDriver -> {
+                polls.incrementAndGet();
+                return condition.apply(webDriver);
+            });
+            finish(span, name, timeout, Duration.between(start, clock.instant()), polls.get(),
+                WaitMetrics.Outcome.MET, null);
+            return result;
+        } catch (RuntimeException e) {
+            WaitMetrics.Outcome outcome = continueOnFailure ? WaitMetrics.Outcome.SWALLOWED
+                : e instanceof TimeoutException ? WaitMetrics.Outcome.TIMED_OUT : WaitMetrics.Outcome.FAILED;
+            finish(span, name, timeout, Duration.between(start, clock.instant()), polls.get(), outcome, e);
+            if (!continueOnFailure) {
+                throw e;
+            }
+            logger.debug("{} not met, continuing: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void finish(Span span, String name, Duration timeout, Duration elapsed, int polls,
+                               WaitMetrics.Outcome outcome, RuntimeException error) {
+        WaitMetrics.record(name, timeout.toMillis(), elapsed.toNanos(), polls, outcome);
+        if (span != null) {
+            span.setAttribute("timeout.ms", timeout.toMillis())
+                .setAttribute("polls", polls)
+                .setAttribute("wait.outcome", outcome.name());
+        }
+        Tracer.end(span, error);
+    }
+}
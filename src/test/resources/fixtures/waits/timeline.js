@@ -0,0 +1,26 @@
+// Shared timer of the wait fixture pages, see README.md
+window.__readyAt = null;
+
+function delayMillis() {
+    var match = /[?&]delay=(\d+)/.exec(window.location.search);
+    return match ? parseInt(match[1], 10) : 1000;
+}
+
+function now() {
+    return performance.timeOrigin + performance.now();
+}
+
+function ready() {
+    window.__readyAt = now();
+}
+
+// Runs the change once the page has loaded, so that the delay does not include the page load
+function after(change) {
+    window.addEventListener('load', function () {
+        window.__startedAt = now();
+        setTimeout(function () {
+            change();
+            ready();
+        }, delayMillis());
+    });
+}